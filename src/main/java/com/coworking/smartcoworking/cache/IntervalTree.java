@@ -0,0 +1,178 @@
+package com.coworking.smartcoworking.cache;
+
+// Árvore AVL de intervalos semiabertos [start, end) aumentada com o maior
+// fim de cada subárvore. Responde "existe sobreposição?" em O(log n).
+// Não é thread-safe: quem usa deve sincronizar o acesso.
+class IntervalTree {
+
+    private Node root;
+    private int size;
+
+    void insert(long id, long start, long end) {
+        root = insert(root, id, start, end);
+        size++;
+    }
+
+    void remove(long id, long start) {
+        int before = size;
+        root = remove(root, id, start);
+        if (size == before) {
+            throw new IllegalStateException("Intervalo não encontrado para o ID: " + id);
+        }
+    }
+
+    // Verifica se algum intervalo (exceto ignoreId) sobrepõe [start, end)
+    boolean overlaps(long start, long end, long ignoreId) {
+        return overlaps(root, start, end, ignoreId);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static boolean overlaps(Node node, long start, long end, long ignoreId) {
+        if (node == null || node.maxEnd <= start) {
+            return false;
+        }
+        if (overlaps(node.left, start, end, ignoreId)) {
+            return true;
+        }
+        if (node.start >= end) {
+            // Toda a subárvore direita começa depois do fim da consulta
+            return false;
+        }
+        if (node.end > start && node.id != ignoreId) {
+            return true;
+        }
+        return overlaps(node.right, start, end, ignoreId);
+    }
+
+    private static int compare(long start, long id, Node node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+
+    private Node insert(Node node, long id, long start, long end) {
+        if (node == null) {
+            return new Node(id, start, end);
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = insert(node.left, id, start, end);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, id, start, end);
+        } else {
+            throw new IllegalStateException("Intervalo duplicado para o ID: " + id);
+        }
+        return balance(node);
+    }
+
+    private Node remove(Node node, long id, long start) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, id, start);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, id, start);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.right = removeMin(node.right);
+            successor.right = node.right;
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static long maxEnd(Node node) {
+        return node == null ? Long.MIN_VALUE : node.maxEnd;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = Math.max(node.end, Math.max(maxEnd(node.left), maxEnd(node.right)));
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static final class Node {
+        private final long id;
+        private final long start;
+        private final long end;
+        private long maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        private Node(long id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+}
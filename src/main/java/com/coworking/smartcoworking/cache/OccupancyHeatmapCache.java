@@ -0,0 +1,264 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.event.OccupancyEvent;
+import com.coworking.smartcoworking.repository.OccupancyLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Segundos ocupados por espaço e hora da semana (segunda 00h = 0 ... domingo 23h = 167),
+// guardados em um anel de semanas de tamanho fixo. Cada evento de sensor fecha ou abre uma
+// sessão e soma a sessão encerrada nas horas que ela cobre; a leitura só soma arrays.
+@Slf4j
+@Component
+public class OccupancyHeatmapCache {
+
+    public static final int HOURS_PER_WEEK = 7 * 24;
+
+    private final OccupancyLogRepository occupancyLogRepository;
+    private final int capacityWeeks;
+
+    private final Map<Long, SpaceHeatmap> heatmaps = new ConcurrentHashMap<>();
+    // Eventos que chegam durante a carga inicial, aplicados em ordem ao final dela
+    private final List<OccupancyEvent> pendingDuringWarmUp = new ArrayList<>();
+
+    private volatile boolean ready = false;
+
+    public OccupancyHeatmapCache(
+            OccupancyLogRepository occupancyLogRepository,
+            @Value("${coworking.occupancy.heatmap-weeks}") int capacityWeeks) {
+        this.occupancyLogRepository = occupancyLogRepository;
+        this.capacityWeeks = capacityWeeks;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime loadedUntil = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime windowStart = weekStart(weekOf(loadedUntil) - capacityWeeks + 1);
+
+        long startedAt = System.currentTimeMillis();
+        occupancyLogRepository.forEachOccupiedHour(windowStart, loadedUntil, (spaceId, hour, seconds) ->
+                heatmap(spaceId).add(hour, seconds));
+
+        // Sessões abertas no fim da carga continuam a partir de loadedUntil
+        occupancyLogRepository.findStatesAt(loadedUntil).forEach((spaceId, occupied) ->
+                heatmap(spaceId).start(occupied, loadedUntil));
+
+        synchronized (pendingDuringWarmUp) {
+            for (OccupancyEvent event : pendingDuringWarmUp) {
+                if (!event.timestamp().isBefore(loadedUntil)) {
+                    heatmap(event.spaceId()).apply(event.occupied(), event.timestamp());
+                }
+            }
+            pendingDuringWarmUp.clear();
+            ready = true;
+        }
+
+        log.info("Mapa de calor carregado para {} espaços ({} semanas) em {} ms",
+                heatmaps.size(), capacityWeeks, System.currentTimeMillis() - startedAt);
+    }
+
+    public void apply(OccupancyEvent event) {
+        if (!ready) {
+            synchronized (pendingDuringWarmUp) {
+                if (!ready) {
+                    pendingDuringWarmUp.add(event);
+                    return;
+                }
+            }
+        }
+        heatmap(event.spaceId()).apply(event.occupied(), event.timestamp());
+    }
+
+    public void evict(Long spaceId) {
+        heatmaps.remove(spaceId);
+    }
+
+    public int getCapacityWeeks() {
+        return capacityWeeks;
+    }
+
+    // Segundos ocupados em cada hora da semana, somando as últimas weeks semanas (incluindo a atual)
+    public Map<Long, long[]> findOccupiedSeconds(Collection<Long> spaceIds, int weeks) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, long[]> result = new LinkedHashMap<>();
+        for (Long spaceId : spaceIds) {
+            result.put(spaceId, new long[HOURS_PER_WEEK]);
+        }
+
+        if (!ready) {
+            // Antes da carga inicial, calcula direto do histórico
+            occupancyLogRepository.forEachOccupiedHour(weekStart(weekOf(now) - weeks + 1), now,
+                    (spaceId, hour, seconds) -> {
+                        long[] row = result.get(spaceId);
+                        if (row != null) {
+                            row[hourOfWeek(hour)] += seconds;
+                        }
+                    });
+            return result;
+        }
+
+        result.forEach((spaceId, row) -> {
+            SpaceHeatmap heatmap = heatmaps.get(spaceId);
+            if (heatmap != null) {
+                heatmap.sumInto(row, weeks, now);
+            }
+        });
+        return result;
+    }
+
+    // Segundos já decorridos de cada hora da semana dentro da janela (denominador da utilização)
+    public long[] findElapsedSeconds(int weeks) {
+        LocalDateTime now = LocalDateTime.now();
+        long[] elapsed = new long[HOURS_PER_WEEK];
+        Arrays.fill(elapsed, (weeks - 1) * 3600L);
+        SpaceHeatmap.forEachHour(weekStart(weekOf(now)), now,
+                (hour, seconds) -> elapsed[hourOfWeek(hour)] += seconds);
+        return elapsed;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private SpaceHeatmap heatmap(Long spaceId) {
+        return heatmaps.computeIfAbsent(spaceId, id -> new SpaceHeatmap(capacityWeeks));
+    }
+
+    // Semanas contadas a partir da segunda-feira de 1970-01-05
+    private static final LocalDate EPOCH_MONDAY = LocalDate.of(1970, 1, 5);
+
+    static long weekOf(LocalDateTime dateTime) {
+        LocalDate monday = dateTime.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return ChronoUnit.WEEKS.between(EPOCH_MONDAY, monday);
+    }
+
+    static LocalDateTime weekStart(long week) {
+        return EPOCH_MONDAY.plusWeeks(week).atStartOfDay();
+    }
+
+    static int hourOfWeek(LocalDateTime dateTime) {
+        return (dateTime.getDayOfWeek().getValue() - 1) * 24 + dateTime.getHour();
+    }
+
+    // Anel de semanas de um espaço; acesso sincronizado por instância
+    private static final class SpaceHeatmap {
+        private final int capacityWeeks;
+        private final int[] seconds;
+        private final long[] weekOfSlot;
+        private boolean occupied;
+        private LocalDateTime since;
+        private LocalDateTime lastEventAt;
+
+        private SpaceHeatmap(int capacityWeeks) {
+            this.capacityWeeks = capacityWeeks;
+            this.seconds = new int[capacityWeeks * HOURS_PER_WEEK];
+            this.weekOfSlot = new long[capacityWeeks];
+            Arrays.fill(weekOfSlot, Long.MIN_VALUE);
+        }
+
+        private synchronized void start(boolean occupied, LocalDateTime at) {
+            this.occupied = occupied;
+            this.since = at;
+            this.lastEventAt = at;
+        }
+
+        private synchronized void apply(boolean nowOccupied, LocalDateTime at) {
+            // Evento fora de ordem não reescreve o passado
+            if (lastEventAt != null && at.isBefore(lastEventAt)) {
+                return;
+            }
+            lastEventAt = at;
+
+            if (occupied && !nowOccupied) {
+                addInterval(since, at);
+                occupied = false;
+            } else if (!occupied && nowOccupied) {
+                occupied = true;
+                since = at;
+            }
+        }
+
+        private synchronized void add(LocalDateTime hour, int occupiedSeconds) {
+            int offset = offsetOf(weekOf(hour));
+            if (offset >= 0) {
+                seconds[offset + hourOfWeek(hour)] += occupiedSeconds;
+            }
+        }
+
+        private synchronized void sumInto(long[] result, int weeks, LocalDateTime now) {
+            long currentWeek = weekOf(now);
+            for (long week = currentWeek - weeks + 1; week <= currentWeek; week++) {
+                int slot = (int) Math.floorMod(week, (long) capacityWeeks);
+                if (weekOfSlot[slot] != week) {
+                    continue;
+                }
+                int offset = slot * HOURS_PER_WEEK;
+                for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+                    result[hour] += seconds[offset + hour];
+                }
+            }
+
+            // Sessão em andamento entra na leitura sem ser gravada no anel
+            if (occupied && since.isBefore(now)) {
+                LocalDateTime windowStart = weekStart(currentWeek - weeks + 1);
+                forEachHour(since.isBefore(windowStart) ? windowStart : since, now,
+                        (hour, secs) -> result[hourOfWeek(hour)] += secs);
+            }
+        }
+
+        // Sessões mais longas que o anel só têm a parte final gravada
+        private void addInterval(LocalDateTime from, LocalDateTime to) {
+            LocalDateTime oldestKept = weekStart(weekOf(to) - capacityWeeks + 1);
+            forEachHour(from.isBefore(oldestKept) ? oldestKept : from, to, this::add);
+        }
+
+        // Posição da semana no array; zera o slot se ele guardava uma semana mais antiga
+        // e retorna -1 se a semana já saiu do anel
+        private int offsetOf(long week) {
+            int slot = (int) Math.floorMod(week, (long) capacityWeeks);
+            if (weekOfSlot[slot] != week) {
+                if (weekOfSlot[slot] > week) {
+                    return -1;
+                }
+                Arrays.fill(seconds, slot * HOURS_PER_WEEK, (slot + 1) * HOURS_PER_WEEK, 0);
+                weekOfSlot[slot] = week;
+            }
+            return slot * HOURS_PER_WEEK;
+        }
+
+        private static void forEachHour(LocalDateTime from, LocalDateTime to, HourConsumer consumer) {
+            LocalDateTime hour = from.truncatedTo(ChronoUnit.HOURS);
+            while (hour.isBefore(to)) {
+                LocalDateTime next = hour.plusHours(1);
+                LocalDateTime segmentStart = from.isAfter(hour) ? from : hour;
+                LocalDateTime segmentEnd = to.isBefore(next) ? to : next;
+                consumer.accept(hour, (int) Duration.between(segmentStart, segmentEnd).getSeconds());
+                hour = next;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface HourConsumer {
+        void accept(LocalDateTime hour, int seconds);
+    }
+}
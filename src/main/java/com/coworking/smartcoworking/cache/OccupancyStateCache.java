@@ -0,0 +1,91 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.event.OccupancyEvent;
+import com.coworking.smartcoworking.repository.OccupancyLogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Estado atual de ocupação de cada espaço (último evento de sensor gravado).
+// Atualizado pela ingestão a cada lote; a leitura não toca o histórico de logs.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OccupancyStateCache {
+
+    private final OccupancyLogRepository occupancyLogRepository;
+
+    private final Map<Long, OccupancyState> states = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    public record OccupancyState(boolean occupied, LocalDateTime updatedAt) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        // O merge mantém o evento mais recente, então eventos gravados durante a carga não se perdem
+        loadLatestStates().forEach(this::merge);
+        ready = true;
+
+        log.info("Estado de ocupação carregado para {} espaços", states.size());
+    }
+
+    // Retorna true se o espaço mudou de livre para ocupado (ou vice-versa) ou reportou pela primeira vez
+    public boolean apply(OccupancyEvent event) {
+        OccupancyState incoming = new OccupancyState(event.occupied(), event.timestamp());
+        boolean[] changed = {false};
+        states.compute(event.spaceId(), (spaceId, current) -> {
+            if (current != null && incoming.updatedAt().isBefore(current.updatedAt())) {
+                return current;
+            }
+            changed[0] = current == null || current.occupied() != incoming.occupied();
+            return incoming;
+        });
+        return changed[0];
+    }
+
+    public void evict(Long spaceId) {
+        states.remove(spaceId);
+    }
+
+    // Estado atual de todos os espaços que já tiveram algum evento
+    public Map<Long, OccupancyState> findAll() {
+        return ready ? Map.copyOf(states) : loadLatestStates();
+    }
+
+    public OccupancyState find(Long spaceId) {
+        return ready ? states.get(spaceId) : loadLatestStates().get(spaceId);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    // Evento fora de ordem (mais antigo que o estado atual) não sobrescreve o estado
+    private void merge(Long spaceId, OccupancyState state) {
+        states.merge(spaceId, state,
+                (current, incoming) -> incoming.updatedAt().isBefore(current.updatedAt()) ? current : incoming);
+    }
+
+    private Map<Long, OccupancyState> loadLatestStates() {
+        List<Object[]> rows = occupancyLogRepository.findLatestStates();
+        Map<Long, OccupancyState> latest = new HashMap<>(rows.size());
+        for (Object[] row : rows) {
+            latest.put(((Number) row[0]).longValue(),
+                    new OccupancyState((Boolean) row[1], ((Timestamp) row[2]).toLocalDateTime()));
+        }
+        return latest;
+    }
+}
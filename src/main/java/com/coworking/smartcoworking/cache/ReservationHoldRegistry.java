@@ -0,0 +1,205 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.dto.reservation.ReservationHoldStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Pré-reservas do checkout: bloqueiam o horário de um espaço por alguns minutos sem gravar nada no
+// banco. Ficam só em memória, uma árvore de intervalos por espaço, consultada junto com o índice de
+// reservas na verificação de conflitos. Uma roda de temporização recolhe as abandonadas; a confirmação
+// vira uma reserva comum. Reiniciar a aplicação descarta as pré-reservas em aberto.
+@Slf4j
+@Component
+public class ReservationHoldRegistry {
+
+    private final TimerWheel<Hold> wheel;
+
+    private final Map<String, Hold> holdsById = new ConcurrentHashMap<>();
+    private final Map<Long, IntervalTree> treesBySpace = new ConcurrentHashMap<>();
+    // Pré-reservas cuja transação de confirmação ainda não terminou: não expiram nem são liberadas
+    private final Set<String> confirming = ConcurrentHashMap.newKeySet();
+    // IDs internos das árvores (o ID público é um UUID)
+    private final AtomicLong slotIds = new AtomicLong();
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    public ReservationHoldRegistry(
+            @Value("${coworking.holds.tick-ms}") long tickMillis,
+            @Value("${coworking.holds.wheel-size}") int wheelSize) {
+        this.wheel = new TimerWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+
+    public record Hold(String id, long slotId, Long userId, Long spaceId, LocalDateTime startDateTime,
+                       LocalDateTime endDateTime, BigDecimal totalPrice, String notes,
+                       LocalDateTime createdAt, LocalDateTime expiresAt, long expiresAtMillis) {
+
+        boolean isExpired(long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+    }
+
+    // Bloqueia [start, end) se nenhuma outra pré-reserva do espaço o sobrepõe; null caso contrário
+    public Hold tryHold(Long userId, Long spaceId, LocalDateTime start, LocalDateTime end,
+                        BigDecimal totalPrice, String notes, Duration ttl) {
+        // Vencidas ainda não recolhidas não devem bloquear o horário
+        reclaimExpired();
+
+        long now = System.currentTimeMillis();
+        Hold hold = new Hold(UUID.randomUUID().toString(), slotIds.incrementAndGet(), userId, spaceId,
+                start, end, totalPrice, notes, LocalDateTime.now(), LocalDateTime.now().plus(ttl),
+                now + ttl.toMillis());
+
+        IntervalTree tree = treesBySpace.computeIfAbsent(spaceId, id -> new IntervalTree());
+        synchronized (tree) {
+            if (tree.overlaps(toEpoch(start), toEpoch(end), Long.MIN_VALUE)) {
+                return null;
+            }
+            tree.insert(hold.slotId(), toEpoch(start), toEpoch(end));
+            holdsById.put(hold.id(), hold);
+        }
+        wheel.schedule(hold, hold.expiresAtMillis());
+        created.increment();
+        return hold;
+    }
+
+    // Verifica se [start, end) sobrepõe alguma pré-reserva do espaço
+    public boolean hasConflict(Long spaceId, LocalDateTime start, LocalDateTime end) {
+        IntervalTree tree = treesBySpace.get(spaceId);
+        if (tree == null) {
+            return false;
+        }
+        synchronized (tree) {
+            return tree.overlaps(toEpoch(start), toEpoch(end), Long.MIN_VALUE);
+        }
+    }
+
+    // Posições dos períodos [starts[i], ends[i]) que sobrepõem pré-reservas do espaço
+    public List<Integer> findConflicts(Long spaceId, List<LocalDateTime> starts, List<LocalDateTime> ends) {
+        List<Integer> conflicts = new ArrayList<>();
+        IntervalTree tree = treesBySpace.get(spaceId);
+        if (tree == null) {
+            return conflicts;
+        }
+        synchronized (tree) {
+            for (int i = 0; i < starts.size(); i++) {
+                if (tree.overlaps(toEpoch(starts.get(i)), toEpoch(ends.get(i)), Long.MIN_VALUE)) {
+                    conflicts.add(i);
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    // Pré-reserva ainda válida (vencidas somem antes mesmo de a roda recolhê-las)
+    public Optional<Hold> find(String id) {
+        Hold hold = holdsById.get(id);
+        if (hold == null || (hold.isExpired(System.currentTimeMillis()) && !confirming.contains(id))) {
+            return Optional.empty();
+        }
+        return Optional.of(hold);
+    }
+
+    // Reserva a pré-reserva para a transação atual, que vai gravá-la como reserva. Se a transação
+    // confirmar, a pré-reserva sai; se não, volta a valer (ou é recolhida, se venceu nesse meio tempo).
+    public boolean claim(Hold hold) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Confirmação de pré-reserva requer uma transação ativa");
+        }
+        if (!confirming.add(hold.id())) {
+            return false;
+        }
+        if (holdsById.get(hold.id()) != hold || hold.isExpired(System.currentTimeMillis())) {
+            confirming.remove(hold.id());
+            return false;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                confirming.remove(hold.id());
+                if (status == STATUS_COMMITTED) {
+                    if (remove(hold)) {
+                        confirmed.increment();
+                    }
+                } else if (hold.isExpired(System.currentTimeMillis()) && remove(hold)) {
+                    expired.increment();
+                }
+            }
+        });
+        return true;
+    }
+
+    // Libera o horário antes do vencimento; false se a pré-reserva já não existe ou está sendo confirmada
+    public boolean release(Hold hold) {
+        if (confirming.contains(hold.id()) || !remove(hold)) {
+            return false;
+        }
+        released.increment();
+        return true;
+    }
+
+    // Chamado pelo job de manutenção a cada tick: só as entradas vencidas são visitadas
+    public int reclaimExpired() {
+        long now = System.currentTimeMillis();
+        int reclaimed = 0;
+        for (Hold hold : wheel.advance(now)) {
+            // Confirmadas ou liberadas já saíram; as em confirmação são resolvidas ao fim da transação
+            if (!confirming.contains(hold.id()) && remove(hold)) {
+                expired.increment();
+                reclaimed++;
+            }
+        }
+        if (reclaimed > 0) {
+            log.debug("Pré-reservas vencidas recolhidas: {}", reclaimed);
+        }
+        return reclaimed;
+    }
+
+    public ReservationHoldStatsDTO getStats() {
+        return new ReservationHoldStatsDTO(
+                holdsById.size(),
+                created.sum(),
+                confirmed.sum(),
+                released.sum(),
+                expired.sum(),
+                wheel.size()
+        );
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private boolean remove(Hold hold) {
+        if (!holdsById.remove(hold.id(), hold)) {
+            return false;
+        }
+        IntervalTree tree = treesBySpace.get(hold.spaceId());
+        synchronized (tree) {
+            tree.remove(hold.slotId(), toEpoch(hold.startDateTime()));
+        }
+        return true;
+    }
+
+    private static long toEpoch(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,192 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.dto.reservation.ReservationSlotDTO;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.event.ReservationChangedEvent;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Índice em memória dos horários ocupados por reservas ativas, uma árvore de
+// intervalos por espaço. O banco continua sendo a fonte da verdade: o índice é
+// atualizado somente após o commit e, até o aquecimento terminar, as consultas
+// vão direto ao repositório.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationIntervalIndex {
+
+    private static final long NO_RESERVATION = Long.MIN_VALUE;
+
+    private final ReservationRepository reservationRepository;
+
+    // Quando true, toda consulta também roda no banco e divergências são logadas
+    @Value("${coworking.reservation-index.verify:false}")
+    private boolean verify;
+
+    private final Map<Long, IntervalTree> treesBySpace = new ConcurrentHashMap<>();
+    private final Map<Long, ReservationSlotDTO> slotsByReservation = new ConcurrentHashMap<>();
+    private final Set<Long> changedDuringWarmUp = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<ReservationSlotDTO> slots = reservationRepository.findActiveSlots(LocalDateTime.now());
+
+        synchronized (this) {
+            for (ReservationSlotDTO slot : slots) {
+                // Eventos recebidos durante a carga são mais novos que o snapshot
+                if (!changedDuringWarmUp.contains(slot.getReservationId())) {
+                    put(slot);
+                }
+            }
+            changedDuringWarmUp.clear();
+            ready = true;
+        }
+
+        log.info("Índice de reservas carregado com {} intervalos", slotsByReservation.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReservationChanged(ReservationChangedEvent event) {
+        if (!ready) {
+            changedDuringWarmUp.add(event.reservationId());
+        }
+
+        if (event.isLive()) {
+            put(new ReservationSlotDTO(
+                    event.reservationId(), event.spaceId(), event.startDateTime(), event.endDateTime()));
+        } else {
+            remove(event.reservationId());
+        }
+    }
+
+    // Verifica se [start, end) sobrepõe alguma reserva ativa do espaço
+    public boolean hasConflict(Space space, LocalDateTime start, LocalDateTime end, Long ignoreReservationId) {
+        if (!ready) {
+            return hasConflictInDatabase(space, start, end, ignoreReservationId);
+        }
+
+        boolean indexed = overlaps(space.getId(), start, end, ignoreReservationId);
+
+        if (verify) {
+            boolean persisted = hasConflictInDatabase(space, start, end, ignoreReservationId);
+            if (persisted != indexed) {
+                log.warn("Índice de reservas divergente para o espaço {} em [{}, {}): índice={}, banco={}",
+                        space.getId(), start, end, indexed, persisted);
+            }
+            return persisted;
+        }
+
+        return indexed;
+    }
+
+    // Posições dos períodos [starts[i], ends[i]) que sobrepõem reservas ativas do espaço:
+    // uma sondagem do índice por período ou, antes da carga, uma única consulta no banco
+    public List<Integer> findConflicts(Space space, List<LocalDateTime> starts, List<LocalDateTime> ends) {
+        if (!ready) {
+            return reservationRepository.findConflictingPeriods(space.getId(), starts, ends);
+        }
+
+        List<Integer> indexed = new ArrayList<>();
+        for (int i = 0; i < starts.size(); i++) {
+            if (overlaps(space.getId(), starts.get(i), ends.get(i), null)) {
+                indexed.add(i);
+            }
+        }
+
+        if (verify) {
+            List<Integer> persisted = reservationRepository.findConflictingPeriods(space.getId(), starts, ends);
+            if (!persisted.equals(indexed)) {
+                log.warn("Índice de reservas divergente para o espaço {} em {} períodos: índice={}, banco={}",
+                        space.getId(), starts.size(), indexed, persisted);
+            }
+            return persisted;
+        }
+
+        return indexed;
+    }
+
+    // Remove os intervalos que já terminaram: reservas PENDENTE ou EM_USO sem check-out nunca
+    // recebem um evento final. A carga inicial também ignora esses intervalos.
+    public synchronized int prunePast(LocalDateTime now) {
+        List<Long> ended = slotsByReservation.values().stream()
+                .filter(slot -> !slot.getEndDateTime().isAfter(now))
+                .map(ReservationSlotDTO::getReservationId)
+                .toList();
+        ended.forEach(this::remove);
+        treesBySpace.values().removeIf(tree -> {
+            synchronized (tree) {
+                return tree.isEmpty();
+            }
+        });
+        return ended.size();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return slotsByReservation.size();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private boolean overlaps(Long spaceId, LocalDateTime start, LocalDateTime end, Long ignoreReservationId) {
+        IntervalTree tree = treesBySpace.get(spaceId);
+        if (tree == null) {
+            return false;
+        }
+
+        long ignoreId = ignoreReservationId != null ? ignoreReservationId : NO_RESERVATION;
+        synchronized (tree) {
+            return tree.overlaps(toEpoch(start), toEpoch(end), ignoreId);
+        }
+    }
+
+    private boolean hasConflictInDatabase(Space space, LocalDateTime start, LocalDateTime end, Long ignoreReservationId) {
+        return reservationRepository.findConflictingReservations(space, start, end).stream()
+                .anyMatch(r -> !r.getId().equals(ignoreReservationId));
+    }
+
+    private void put(ReservationSlotDTO slot) {
+        remove(slot.getReservationId());
+
+        IntervalTree tree = treesBySpace.computeIfAbsent(slot.getSpaceId(), id -> new IntervalTree());
+        synchronized (tree) {
+            tree.insert(slot.getReservationId(), toEpoch(slot.getStartDateTime()), toEpoch(slot.getEndDateTime()));
+        }
+        slotsByReservation.put(slot.getReservationId(), slot);
+    }
+
+    private void remove(Long reservationId) {
+        ReservationSlotDTO slot = slotsByReservation.remove(reservationId);
+        if (slot == null) {
+            return;
+        }
+
+        IntervalTree tree = treesBySpace.get(slot.getSpaceId());
+        synchronized (tree) {
+            tree.remove(reservationId, toEpoch(slot.getStartDateTime()));
+        }
+    }
+
+    private static long toEpoch(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
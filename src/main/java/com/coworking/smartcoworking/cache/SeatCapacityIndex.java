@@ -0,0 +1,307 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.dto.reservation.ReservationSeatSlotDTO;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.event.ReservationChangedEvent;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import com.coworking.smartcoworking.repository.SpaceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Lugares ocupados por reservas ativas em espaços compartilhados (HOT_DESK, AUDITORIO),
+// uma árvore de segmentos por espaço. A admissão acontece aqui, dentro da transação que grava
+// a reserva. A árvore só vê as reservas deste nó e serve de pré-checagem: períodos já lotados
+// são recusados sem ir ao banco. A decisão é sempre do banco: a linha do espaço fica travada até
+// o fim da transação e o pico é recalculado das reservas gravadas, então duas admissões
+// concorrentes, em qualquer nó, nunca passam da capacidade juntas (a constraint de não
+// sobreposição não vale para espaços compartilhados). Se a transação não confirmar, a entrada
+// na árvore é desfeita.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatCapacityIndex {
+
+    private final ReservationRepository reservationRepository;
+    private final SpaceRepository spaceRepository;
+    private final SpaceCatalogCache spaceCatalogCache;
+
+    private final Map<Long, SpaceSeats> seatsBySpace = new ConcurrentHashMap<>();
+    private final Set<Long> changedDuringWarmUp = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<ReservationSeatSlotDTO> slots = reservationRepository.findActiveSeatSlots(LocalDateTime.now());
+
+        synchronized (this) {
+            for (ReservationSeatSlotDTO slot : slots) {
+                // Eventos recebidos durante a carga são mais novos que o snapshot
+                if (!changedDuringWarmUp.contains(slot.getReservationId())) {
+                    SpaceSeats spaceSeats = seats(slot.getSpaceId());
+                    synchronized (spaceSeats) {
+                        // Admissões feitas durante a carga já estão na árvore
+                        spaceSeats.putIfAbsent(Slot.of(slot));
+                    }
+                }
+            }
+            changedDuringWarmUp.clear();
+            ready = true;
+        }
+
+        log.info("Índice de lugares carregado com {} reservas em espaços compartilhados", slots.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReservationChanged(ReservationChangedEvent event) {
+        if (!ready) {
+            changedDuringWarmUp.add(event.reservationId());
+        }
+
+        SpaceSeats spaceSeats = seatsBySpace.get(event.spaceId());
+        if (!event.isLive()) {
+            if (spaceSeats != null) {
+                synchronized (spaceSeats) {
+                    spaceSeats.remove(event.reservationId());
+                }
+            }
+            return;
+        }
+
+        // Reservas admitidas por aqui já estão na árvore com o horário atual
+        if (spaceSeats != null) {
+            synchronized (spaceSeats) {
+                if (spaceSeats.slots.containsKey(event.reservationId())) {
+                    return;
+                }
+            }
+        }
+        boolean shared = spaceCatalogCache.findById(event.spaceId())
+                .map(space -> space.getType().isShared())
+                .orElse(false);
+        if (shared) {
+            // Reserva ativa que não passou pela admissão (ex.: alterada durante a carga)
+            reservationRepository.findActiveSeatSlot(event.reservationId()).ifPresent(slot -> {
+                SpaceSeats target = seats(slot.getSpaceId());
+                synchronized (target) {
+                    target.putIfAbsent(Slot.of(slot));
+                }
+            });
+        }
+    }
+
+    // Ocupa seats lugares de [start, end) se o pico de lugares no período, somado a eles, couber na
+    // capacidade. Uma reserva já indexada tem o horário anterior substituído. Precisa rodar dentro da
+    // transação que grava a reserva: se ela não confirmar, o estado anterior é restaurado.
+    public boolean tryReserve(Space space, Long reservationId, LocalDateTime start, LocalDateTime end, int seats) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Admissão de lugares requer uma transação ativa");
+        }
+
+        SpaceSeats spaceSeats = seats(space.getId());
+        Slot slot = new Slot(reservationId, toEpoch(start), toEpoch(end), seats);
+
+        // Pré-checagem em memória (sem o horário atual da própria reserva)
+        if (ready) {
+            synchronized (spaceSeats) {
+                Slot current = spaceSeats.remove(reservationId);
+                int peak = spaceSeats.tree.max(slot.start(), slot.end());
+                if (current != null) {
+                    spaceSeats.put(current);
+                }
+                if (peak + seats > space.getCapacity()) {
+                    return false;
+                }
+            }
+        }
+
+        // O lock da linha do espaço serializa as admissões de todos os nós até o commit
+        spaceRepository.lockById(space.getId());
+        if (peakInDatabase(space.getId(), reservationId, start, end) + seats > space.getCapacity()) {
+            return false;
+        }
+
+        Slot previous;
+        synchronized (spaceSeats) {
+            previous = spaceSeats.remove(reservationId);
+            spaceSeats.put(slot);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    synchronized (spaceSeats) {
+                        spaceSeats.remove(reservationId);
+                        if (previous != null) {
+                            spaceSeats.put(previous);
+                        }
+                    }
+                }
+            }
+        });
+        return true;
+    }
+
+    // Lugares livres no pior momento de [start, end)
+    public int availableSeats(Space space, LocalDateTime start, LocalDateTime end) {
+        int peak;
+        if (!ready) {
+            peak = peakInDatabase(space.getId(), null, start, end);
+        } else {
+            SpaceSeats spaceSeats = seatsBySpace.get(space.getId());
+            if (spaceSeats == null) {
+                peak = 0;
+            } else {
+                synchronized (spaceSeats) {
+                    peak = spaceSeats.tree.max(toEpoch(start), toEpoch(end));
+                }
+            }
+        }
+        return Math.max(0, space.getCapacity() - peak);
+    }
+
+    // Slots de slotMinutes em que o espaço fica lotado em algum momento, para cada dia de [from, from + days)
+    public Map<LocalDate, BitSet> findFullSlots(Space space, LocalDate from, int days, int slotMinutes) {
+        if (!ready) {
+            SeatSegmentTree tree = loadTree(space.getId(), null,
+                    from.atStartOfDay(), from.plusDays(days).atStartOfDay());
+            return fullSlots(tree, space.getCapacity(), from, days, slotMinutes);
+        }
+
+        SpaceSeats spaceSeats = seatsBySpace.get(space.getId());
+        if (spaceSeats == null) {
+            return fullSlots(new SeatSegmentTree(), space.getCapacity(), from, days, slotMinutes);
+        }
+        synchronized (spaceSeats) {
+            return fullSlots(spaceSeats.tree, space.getCapacity(), from, days, slotMinutes);
+        }
+    }
+
+    // Remove as reservas que já terminaram: reservas PENDENTE ou EM_USO sem check-out nunca recebem
+    // um evento final. A entrada do espaço fica (uma por espaço) para não correr com uma admissão
+    // que já a obteve; a árvore sem reservas não guarda nós.
+    public int prunePast(LocalDateTime now) {
+        long cutoff = toEpoch(now);
+        int pruned = 0;
+        for (SpaceSeats spaceSeats : seatsBySpace.values()) {
+            synchronized (spaceSeats) {
+                List<Long> ended = spaceSeats.slots.values().stream()
+                        .filter(slot -> slot.end() <= cutoff)
+                        .map(Slot::reservationId)
+                        .toList();
+                ended.forEach(spaceSeats::remove);
+                pruned += ended.size();
+            }
+        }
+        return pruned;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return seatsBySpace.values().stream()
+                .mapToInt(spaceSeats -> {
+                    synchronized (spaceSeats) {
+                        return spaceSeats.slots.size();
+                    }
+                })
+                .sum();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private SpaceSeats seats(Long spaceId) {
+        return seatsBySpace.computeIfAbsent(spaceId, id -> new SpaceSeats());
+    }
+
+    private int peakInDatabase(Long spaceId, Long ignoreReservationId, LocalDateTime start, LocalDateTime end) {
+        return loadTree(spaceId, ignoreReservationId, start, end).max(toEpoch(start), toEpoch(end));
+    }
+
+    private SeatSegmentTree loadTree(Long spaceId, Long ignoreReservationId, LocalDateTime start, LocalDateTime end) {
+        SeatSegmentTree tree = new SeatSegmentTree();
+        for (ReservationSeatSlotDTO slot : reservationRepository.findActiveSeatSlotsInPeriod(spaceId, start, end)) {
+            if (!slot.getReservationId().equals(ignoreReservationId)) {
+                tree.add(toEpoch(slot.getStartDateTime()), toEpoch(slot.getEndDateTime()), slot.getSeats());
+            }
+        }
+        return tree;
+    }
+
+    private static Map<LocalDate, BitSet> fullSlots(SeatSegmentTree tree, int capacity, LocalDate from, int days,
+                                                    int slotMinutes) {
+        long slotSeconds = slotMinutes * 60L;
+        int slotsPerDay = 24 * 60 / slotMinutes;
+        Map<LocalDate, BitSet> result = new LinkedHashMap<>();
+        for (int i = 0; i < days; i++) {
+            LocalDate date = from.plusDays(i);
+            long dayStart = toEpoch(date.atStartOfDay());
+            BitSet full = new BitSet(slotsPerDay);
+            for (int slot = 0; slot < slotsPerDay; slot++) {
+                long slotStart = dayStart + slot * slotSeconds;
+                if (tree.max(slotStart, slotStart + slotSeconds) >= capacity) {
+                    full.set(slot);
+                }
+            }
+            result.put(date, full);
+        }
+        return result;
+    }
+
+    private static long toEpoch(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private record Slot(Long reservationId, long start, long end, int seats) {
+
+        static Slot of(ReservationSeatSlotDTO slot) {
+            return new Slot(slot.getReservationId(), toEpoch(slot.getStartDateTime()),
+                    toEpoch(slot.getEndDateTime()), slot.getSeats());
+        }
+    }
+
+    // Acesso sempre sincronizado na própria instância
+    private static final class SpaceSeats {
+        private final SeatSegmentTree tree = new SeatSegmentTree();
+        private final Map<Long, Slot> slots = new HashMap<>();
+
+        private void put(Slot slot) {
+            slots.put(slot.reservationId(), slot);
+            tree.add(slot.start(), slot.end(), slot.seats());
+        }
+
+        private void putIfAbsent(Slot slot) {
+            if (!slots.containsKey(slot.reservationId())) {
+                put(slot);
+            }
+        }
+
+        private Slot remove(Long reservationId) {
+            Slot slot = slots.remove(reservationId);
+            if (slot != null) {
+                tree.add(slot.start(), slot.end(), -slot.seats());
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.coworking.smartcoworking.cache;
+
+// Árvore de segmentos dinâmica sobre o tempo (segundos desde a época, UTC) com a soma de
+// lugares ocupados em cada instante. Somar lugares em [start, end) e consultar o pico de um
+// intervalo custam O(log U): só existem nós nos trechos com reservas, e subárvores que voltam
+// a zero são descartadas. Não é thread-safe: quem usa deve sincronizar o acesso.
+class SeatSegmentTree {
+
+    // 2^37 segundos a partir de 1970 cobrem até o ano 6325
+    static final long DOMAIN = 1L << 37;
+
+    private Node root;
+
+    // seats negativo desfaz uma soma anterior do mesmo intervalo
+    void add(long start, long end, int seats) {
+        if (start < 0 || end > DOMAIN || start >= end) {
+            throw new IllegalArgumentException("Intervalo fora do domínio: [" + start + ", " + end + ")");
+        }
+        root = add(root, 0, DOMAIN, start, end, seats);
+    }
+
+    // Maior quantidade de lugares ocupados ao mesmo tempo em [start, end)
+    int max(long start, long end) {
+        return Math.max(0, max(root, 0, DOMAIN, start, end));
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static Node add(Node node, long lo, long hi, long start, long end, int seats) {
+        if (end <= lo || hi <= start) {
+            return node;
+        }
+        if (node == null) {
+            node = new Node();
+        }
+        if (start <= lo && hi <= end) {
+            node.max += seats;
+            node.pending += seats;
+        } else {
+            push(node);
+            long mid = (lo + hi) >>> 1;
+            node.left = add(node.left, lo, mid, start, end, seats);
+            node.right = add(node.right, mid, hi, start, end, seats);
+            node.max = Math.max(max(node.left), max(node.right));
+        }
+        // Depois do push os valores do nó são absolutos e nunca negativos: pico zero é subárvore vazia
+        return node.max == 0 ? null : node;
+    }
+
+    private static int max(Node node, long lo, long hi, long start, long end) {
+        if (end <= lo || hi <= start) {
+            return Integer.MIN_VALUE;
+        }
+        if (node == null) {
+            return 0;
+        }
+        if (start <= lo && hi <= end) {
+            return node.max;
+        }
+        long mid = (lo + hi) >>> 1;
+        // Sem push na leitura: o pendente do nó vale para toda a subárvore
+        return node.pending + Math.max(max(node.left, lo, mid, start, end), max(node.right, mid, hi, start, end));
+    }
+
+    private static void push(Node node) {
+        if (node.pending != 0) {
+            node.left = shift(node.left, node.pending);
+            node.right = shift(node.right, node.pending);
+            node.pending = 0;
+        }
+    }
+
+    private static Node shift(Node node, int seats) {
+        if (node == null) {
+            node = new Node();
+        }
+        node.max += seats;
+        node.pending += seats;
+        return node.max == 0 ? null : node;
+    }
+
+    private static int max(Node node) {
+        return node == null ? 0 : node.max;
+    }
+
+    private static final class Node {
+        private int max;
+        private int pending;
+        private Node left;
+        private Node right;
+    }
+}
@@ -0,0 +1,216 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.dto.reservation.ReservationSlotDTO;
+import com.coworking.smartcoworking.event.ReservationChangedEvent;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bitmap de ocupação por espaço e por dia: 96 slots de 15 minutos, bit ligado = ocupado.
+// Mantido de forma incremental pelos eventos de reserva; a leitura não toca o banco.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlotAvailabilityCache {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private static final long SLOT_SECONDS = SLOT_MINUTES * 60L;
+
+    private final ReservationRepository reservationRepository;
+
+    private final Map<Long, Map<LocalDate, DaySlots>> daysBySpace = new ConcurrentHashMap<>();
+    private final Map<Long, ReservationSlotDTO> slotsByReservation = new ConcurrentHashMap<>();
+    private final Set<Long> changedDuringWarmUp = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<ReservationSlotDTO> slots = reservationRepository.findActiveSlots(LocalDateTime.now());
+
+        synchronized (this) {
+            for (ReservationSlotDTO slot : slots) {
+                if (!changedDuringWarmUp.contains(slot.getReservationId())) {
+                    put(slot);
+                }
+            }
+            changedDuringWarmUp.clear();
+            ready = true;
+        }
+
+        log.info("Grade de disponibilidade carregada com {} reservas", slotsByReservation.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReservationChanged(ReservationChangedEvent event) {
+        if (!ready) {
+            changedDuringWarmUp.add(event.reservationId());
+        }
+
+        if (event.isLive()) {
+            put(new ReservationSlotDTO(
+                    event.reservationId(), event.spaceId(), event.startDateTime(), event.endDateTime()));
+        } else {
+            remove(event.reservationId());
+        }
+    }
+
+    // Slots ocupados de cada espaço para cada dia de [from, from + days)
+    public Map<Long, Map<LocalDate, BitSet>> findBusySlots(Collection<Long> spaceIds, LocalDate from, int days) {
+        if (!ready) {
+            return loadBusySlots(spaceIds, from, days);
+        }
+
+        Map<Long, Map<LocalDate, BitSet>> result = new LinkedHashMap<>();
+        for (Long spaceId : spaceIds) {
+            Map<LocalDate, DaySlots> spaceDays = daysBySpace.getOrDefault(spaceId, Map.of());
+            Map<LocalDate, BitSet> grid = new LinkedHashMap<>();
+            for (int i = 0; i < days; i++) {
+                LocalDate date = from.plusDays(i);
+                DaySlots daySlots = spaceDays.get(date);
+                grid.put(date, daySlots != null ? daySlots.snapshot() : new BitSet(SLOTS_PER_DAY));
+            }
+            result.put(spaceId, grid);
+        }
+        return result;
+    }
+
+    // Remove as reservas que já terminaram e, com elas, os dias que ficaram vazios: reservas
+    // PENDENTE ou EM_USO sem check-out nunca recebem um evento final
+    public synchronized int prunePast(LocalDateTime now) {
+        List<Long> ended = slotsByReservation.values().stream()
+                .filter(slot -> !slot.getEndDateTime().isAfter(now))
+                .map(ReservationSlotDTO::getReservationId)
+                .toList();
+        ended.forEach(this::remove);
+        daysBySpace.values().removeIf(Map::isEmpty);
+        return ended.size();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return slotsByReservation.size();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    // Fallback enquanto o cache aquece: uma única consulta para todos os espaços
+    private Map<Long, Map<LocalDate, BitSet>> loadBusySlots(Collection<Long> spaceIds, LocalDate from, int days) {
+        List<ReservationSlotDTO> slots = reservationRepository.findActiveSlotsBySpaces(
+                spaceIds, from.atStartOfDay(), from.plusDays(days).atStartOfDay());
+
+        Map<Long, Map<LocalDate, BitSet>> result = new LinkedHashMap<>();
+        for (Long spaceId : spaceIds) {
+            Map<LocalDate, BitSet> grid = new LinkedHashMap<>();
+            for (int i = 0; i < days; i++) {
+                grid.put(from.plusDays(i), new BitSet(SLOTS_PER_DAY));
+            }
+            result.put(spaceId, grid);
+        }
+
+        for (ReservationSlotDTO slot : slots) {
+            Map<LocalDate, BitSet> grid = result.get(slot.getSpaceId());
+            toDayMasks(slot.getStartDateTime(), slot.getEndDateTime()).forEach((date, mask) -> {
+                BitSet busy = grid.get(date);
+                if (busy != null) {
+                    busy.or(mask);
+                }
+            });
+        }
+        return result;
+    }
+
+    private void put(ReservationSlotDTO slot) {
+        remove(slot.getReservationId());
+
+        Map<LocalDate, DaySlots> spaceDays =
+                daysBySpace.computeIfAbsent(slot.getSpaceId(), id -> new ConcurrentHashMap<>());
+        toDayMasks(slot.getStartDateTime(), slot.getEndDateTime()).forEach((date, mask) ->
+                spaceDays.computeIfAbsent(date, d -> new DaySlots()).add(slot.getReservationId(), mask));
+        slotsByReservation.put(slot.getReservationId(), slot);
+    }
+
+    private void remove(Long reservationId) {
+        ReservationSlotDTO slot = slotsByReservation.remove(reservationId);
+        if (slot == null) {
+            return;
+        }
+
+        Map<LocalDate, DaySlots> spaceDays = daysBySpace.get(slot.getSpaceId());
+        for (LocalDate date : toDayMasks(slot.getStartDateTime(), slot.getEndDateTime()).keySet()) {
+            DaySlots daySlots = spaceDays.get(date);
+            if (daySlots != null && daySlots.remove(reservationId)) {
+                spaceDays.remove(date);
+            }
+        }
+    }
+
+    // Quebra [start, end) em máscaras diárias; slots parcialmente ocupados contam como ocupados
+    static Map<LocalDate, BitSet> toDayMasks(LocalDateTime start, LocalDateTime end) {
+        Map<LocalDate, BitSet> masks = new LinkedHashMap<>();
+        LocalDate date = start.toLocalDate();
+
+        while (date.atStartOfDay().isBefore(end)) {
+            LocalDateTime dayStart = date.atStartOfDay();
+            LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+            LocalDateTime from = start.isAfter(dayStart) ? start : dayStart;
+            LocalDateTime to = end.isBefore(dayEnd) ? end : dayEnd;
+
+            int firstSlot = (int) (Duration.between(dayStart, from).toSeconds() / SLOT_SECONDS);
+            int lastSlot = (int) ((Duration.between(dayStart, to).toSeconds() + SLOT_SECONDS - 1) / SLOT_SECONDS);
+
+            BitSet mask = new BitSet(SLOTS_PER_DAY);
+            mask.set(firstSlot, lastSlot);
+            masks.put(date, mask);
+
+            date = date.plusDays(1);
+        }
+        return masks;
+    }
+
+    // Máscaras de cada reserva do dia; o bitmap é o OR de todas elas
+    private static final class DaySlots {
+        private final Map<Long, BitSet> masks = new HashMap<>();
+        private final BitSet busy = new BitSet(SLOTS_PER_DAY);
+
+        synchronized void add(Long reservationId, BitSet mask) {
+            masks.put(reservationId, mask);
+            busy.or(mask);
+        }
+
+        // Retorna true quando o dia ficou vazio
+        synchronized boolean remove(Long reservationId) {
+            if (masks.remove(reservationId) == null) {
+                return masks.isEmpty();
+            }
+            busy.clear();
+            masks.values().forEach(busy::or);
+            return masks.isEmpty();
+        }
+
+        synchronized BitSet snapshot() {
+            return (BitSet) busy.clone();
+        }
+    }
+}
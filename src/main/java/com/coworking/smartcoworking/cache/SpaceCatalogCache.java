@@ -0,0 +1,196 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.dto.space.SpaceCacheStatsDTO;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.event.SpaceChangedEvent;
+import com.coworking.smartcoworking.repository.SpaceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Catálogo de espaços em memória, lido sob demanda (read-through) e limitado por LRU.
+// Guarda cópias desanexadas dos espaços e, para cada listagem, só os IDs na ordem do banco.
+// Uma alteração invalida só as listagens cuja pertinência mudou (o espaço entrou ou saiu do filtro).
+// As instâncias retornadas são compartilhadas entre threads: somente leitura.
+@Component
+public class SpaceCatalogCache {
+
+    private final SpaceRepository spaceRepository;
+    private final int maxEntries;
+    private final int maxQueries;
+
+    private final Map<Long, Space> entries;
+    private final Map<String, CachedQuery> queries;
+
+    // Incrementado a cada invalidação: uma carga iniciada antes dela não grava o valor antigo
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public SpaceCatalogCache(
+            SpaceRepository spaceRepository,
+            @Value("${coworking.spaces.cache.max-entries}") int maxEntries,
+            @Value("${coworking.spaces.cache.max-queries}") int maxQueries) {
+        this.spaceRepository = spaceRepository;
+        this.maxEntries = maxEntries;
+        this.maxQueries = maxQueries;
+        this.entries = lru(maxEntries);
+        this.queries = lru(maxQueries);
+    }
+
+    private record CachedQuery(Predicate<Space> filter, Set<Long> ids) {
+    }
+
+    public Optional<Space> findById(Long id) {
+        long loadGeneration;
+        synchronized (this) {
+            Space cached = entries.get(id);
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        Optional<Space> loaded = spaceRepository.findById(id).map(SpaceCatalogCache::copyOf);
+        loaded.ifPresent(space -> {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(id, space);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    // Listagem identificada por key; filter deve corresponder à consulta feita por loader
+    public List<Space> findAll(String key, Predicate<Space> filter, Supplier<List<Space>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            CachedQuery query = queries.get(key);
+            if (query != null) {
+                List<Space> spaces = resolve(query.ids());
+                if (spaces != null) {
+                    hits.increment();
+                    return spaces;
+                }
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        List<Space> loaded = loader.get().stream().map(SpaceCatalogCache::copyOf).toList();
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                Set<Long> ids = new LinkedHashSet<>();
+                for (Space space : loaded) {
+                    entries.put(space.getId(), space);
+                    ids.add(space.getId());
+                }
+                queries.put(key, new CachedQuery(filter, ids));
+            }
+        }
+        return loaded;
+    }
+
+    // Aplicado após o commit, para nenhuma leitura concorrente recarregar o valor antigo
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onSpaceChanged(SpaceChangedEvent event) {
+        generation++;
+        invalidations.increment();
+
+        Long id = event.spaceId();
+        Space space = event.isDeleted() ? null : copyOf(event.space());
+        if (space != null) {
+            entries.put(id, space);
+        } else {
+            entries.remove(id);
+        }
+
+        queries.values().removeIf(query ->
+                query.ids().contains(id) != (space != null && query.filter().test(space)));
+    }
+
+    public synchronized SpaceCacheStatsDTO getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return new SpaceCacheStatsDTO(
+                entries.size(),
+                maxEntries,
+                queries.size(),
+                maxQueries,
+                hitCount,
+                missCount,
+                total == 0 ? 0 : (double) hitCount / total,
+                evictions.sum(),
+                invalidations.sum()
+        );
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    // null se algum espaço da listagem já saiu do LRU (a listagem é recarregada)
+    private List<Space> resolve(Set<Long> ids) {
+        List<Space> spaces = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Space space = entries.get(id);
+            if (space == null) {
+                return null;
+            }
+            spaces.add(space);
+        }
+        return spaces;
+    }
+
+    private <K, V> Map<K, V> lru(int capacity) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Cópia desanexada: a instância em cache nunca pertence a um contexto de persistência
+    static Space copyOf(Space source) {
+        Space copy = new Space();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setType(source.getType());
+        copy.setCapacity(source.getCapacity());
+        copy.setPricePerHour(source.getPricePerHour());
+        copy.setPricePerDay(source.getPricePerDay());
+        copy.setPricePerMonth(source.getPricePerMonth());
+        copy.setFloor(source.getFloor());
+        copy.setHasWifi(source.getHasWifi());
+        copy.setHasProjector(source.getHasProjector());
+        copy.setHasWhiteboard(source.getHasWhiteboard());
+        copy.setHasAC(source.getHasAC());
+        copy.setActive(source.getActive());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+}
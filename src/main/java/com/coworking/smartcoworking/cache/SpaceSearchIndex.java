@@ -0,0 +1,254 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.enums.Amenity;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.event.SpaceChangedEvent;
+import com.coworking.smartcoworking.repository.SpaceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice de bitsets dos espaços ativos: cada espaço ocupa uma posição e liga um bit por
+// comodidade, tipo, andar e faixa de capacidade. Uma busca combina os filtros com OR dentro
+// do mesmo critério e AND entre critérios; só os candidatos restantes conferem capacidade e preço exatos.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SpaceSearchIndex {
+
+    // Faixas "capacidade >= limite"; a busca usa a maior faixa que não passa do mínimo pedido
+    static final int[] CAPACITY_BUCKETS = {1, 2, 4, 6, 8, 10, 15, 20, 30, 50, 100, 200};
+
+    private static final Comparator<Space> SEARCH_ORDER =
+            Comparator.comparing(Space::getFloor).thenComparing(Space::getName).thenComparing(Space::getId);
+
+    private final SpaceRepository spaceRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> positionById = new HashMap<>();
+    private final Deque<Integer> freePositions = new ArrayDeque<>();
+    private Space[] spaces = new Space[64];
+    private int[] capacities = new int[64];
+    // Preço por hora em centavos; -1 quando o espaço não cobra por hora
+    private long[] hourlyPrices = new long[64];
+    private int size;
+
+    private final BitSet present = new BitSet();
+    private final Map<Amenity, BitSet> byAmenity = new EnumMap<>(Amenity.class);
+    private final Map<SpaceType, BitSet> byType = new EnumMap<>(SpaceType.class);
+    private final Map<Integer, BitSet> byFloor = new HashMap<>();
+    private final BitSet[] byCapacity = new BitSet[CAPACITY_BUCKETS.length];
+
+    private final Set<Long> changedDuringWarmUp = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Space> active = spaceRepository.findByActiveTrue();
+        int indexed;
+
+        lock.writeLock().lock();
+        try {
+            for (Space space : active) {
+                if (!changedDuringWarmUp.contains(space.getId())) {
+                    put(SpaceCatalogCache.copyOf(space));
+                }
+            }
+            changedDuringWarmUp.clear();
+            indexed = positionById.size();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Índice de busca de espaços carregado com {} espaços ativos", indexed);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpaceChanged(SpaceChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                changedDuringWarmUp.add(event.spaceId());
+            }
+            remove(event.spaceId());
+            if (!event.isDeleted() && Boolean.TRUE.equals(event.space().getActive())) {
+                put(SpaceCatalogCache.copyOf(event.space()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Critérios nulos ou vazios não filtram; retorna espaços ativos ordenados por andar e nome
+    public List<Space> search(Collection<SpaceType> types, Collection<Integer> floors, Integer minCapacity,
+                              BigDecimal maxPricePerHour, Collection<Amenity> amenities) {
+        if (!ready) {
+            return spaceRepository.findByActiveTrue().stream()
+                    .filter(space -> matches(space, types, floors, minCapacity, maxPricePerHour, amenities))
+                    .sorted(SEARCH_ORDER)
+                    .toList();
+        }
+
+        long maxPriceCents = maxPricePerHour != null ? toCents(maxPricePerHour) : Long.MAX_VALUE;
+        List<Space> result = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            BitSet candidates = (BitSet) present.clone();
+            if (types != null && !types.isEmpty()) {
+                candidates.and(union(types, byType));
+            }
+            if (floors != null && !floors.isEmpty()) {
+                candidates.and(union(floors, byFloor));
+            }
+            if (amenities != null) {
+                for (Amenity amenity : amenities) {
+                    BitSet withAmenity = byAmenity.get(amenity);
+                    if (withAmenity == null) {
+                        return List.of();
+                    }
+                    candidates.and(withAmenity);
+                }
+            }
+            int bucket = minCapacity != null ? capacityBucket(minCapacity) : -1;
+            if (bucket >= 0) {
+                // Faixa ainda sem nenhum espaço: nada atinge a capacidade pedida
+                if (byCapacity[bucket] == null) {
+                    return List.of();
+                }
+                candidates.and(byCapacity[bucket]);
+            }
+
+            for (int pos = candidates.nextSetBit(0); pos >= 0; pos = candidates.nextSetBit(pos + 1)) {
+                if (minCapacity != null && capacities[pos] < minCapacity) {
+                    continue;
+                }
+                if (maxPricePerHour != null && (hourlyPrices[pos] < 0 || hourlyPrices[pos] > maxPriceCents)) {
+                    continue;
+                }
+                result.add(spaces[pos]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        result.sort(SEARCH_ORDER);
+        return result;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void put(Space space) {
+        int pos = freePositions.isEmpty() ? size++ : freePositions.pop();
+        ensureCapacity(pos + 1);
+
+        spaces[pos] = space;
+        capacities[pos] = space.getCapacity();
+        hourlyPrices[pos] = space.getPricePerHour() != null ? toCents(space.getPricePerHour()) : -1;
+        positionById.put(space.getId(), pos);
+
+        present.set(pos);
+        for (Amenity amenity : Amenity.values()) {
+            if (amenity.isAvailableIn(space)) {
+                byAmenity.computeIfAbsent(amenity, a -> new BitSet()).set(pos);
+            }
+        }
+        byType.computeIfAbsent(space.getType(), t -> new BitSet()).set(pos);
+        byFloor.computeIfAbsent(space.getFloor(), f -> new BitSet()).set(pos);
+        for (int i = 0; i < CAPACITY_BUCKETS.length && space.getCapacity() >= CAPACITY_BUCKETS[i]; i++) {
+            if (byCapacity[i] == null) {
+                byCapacity[i] = new BitSet();
+            }
+            byCapacity[i].set(pos);
+        }
+    }
+
+    private void remove(Long spaceId) {
+        Integer pos = positionById.remove(spaceId);
+        if (pos == null) {
+            return;
+        }
+
+        present.clear(pos);
+        byAmenity.values().forEach(bits -> bits.clear(pos));
+        byType.values().forEach(bits -> bits.clear(pos));
+        byFloor.values().forEach(bits -> bits.clear(pos));
+        for (BitSet bits : byCapacity) {
+            if (bits != null) {
+                bits.clear(pos);
+            }
+        }
+        spaces[pos] = null;
+        freePositions.push(pos);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > spaces.length) {
+            int length = Math.max(required, spaces.length * 2);
+            spaces = Arrays.copyOf(spaces, length);
+            capacities = Arrays.copyOf(capacities, length);
+            hourlyPrices = Arrays.copyOf(hourlyPrices, length);
+        }
+    }
+
+    private static <K> BitSet union(Collection<K> keys, Map<K, BitSet> index) {
+        BitSet bits = new BitSet();
+        for (K key : keys) {
+            BitSet keyBits = index.get(key);
+            if (keyBits != null) {
+                bits.or(keyBits);
+            }
+        }
+        return bits;
+    }
+
+    // Índice da maior faixa com limite <= minCapacity (-1 se nenhuma ajuda a filtrar)
+    private static int capacityBucket(int minCapacity) {
+        int bucket = -1;
+        for (int i = 0; i < CAPACITY_BUCKETS.length && CAPACITY_BUCKETS[i] <= minCapacity; i++) {
+            bucket = i;
+        }
+        return bucket;
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).longValue();
+    }
+
+    private static boolean matches(Space space, Collection<SpaceType> types, Collection<Integer> floors,
+                                   Integer minCapacity, BigDecimal maxPricePerHour, Collection<Amenity> amenities) {
+        return (types == null || types.isEmpty() || types.contains(space.getType()))
+                && (floors == null || floors.isEmpty() || floors.contains(space.getFloor()))
+                && (minCapacity == null || space.getCapacity() >= minCapacity)
+                && (maxPricePerHour == null || (space.getPricePerHour() != null
+                        && space.getPricePerHour().compareTo(maxPricePerHour) <= 0))
+                && (amenities == null || amenities.stream().allMatch(amenity -> amenity.isAvailableIn(space)));
+    }
+}
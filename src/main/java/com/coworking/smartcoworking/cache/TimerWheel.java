@@ -0,0 +1,77 @@
+package com.coworking.smartcoworking.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// Roda de temporização (hashed timing wheel): um anel de buckets de tickMillis cada.
+// Agendar custa O(1) e cada avanço visita só os buckets dos ticks decorridos; prazos além
+// de uma volta esperam no bucket até o tick absoluto chegar. Nunca dispara antes do prazo,
+// no máximo um tick depois. Não há cancelamento: quem agenda descarta, ao receber, as
+// entradas que já não valem.
+class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final List<List<Entry<T>>> buckets;
+
+    // Último tick já processado
+    private long currentTick;
+    private int size;
+
+    TimerWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 1) {
+            throw new IllegalArgumentException("Tick e tamanho da roda devem ser positivos");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    synchronized void schedule(T item, long deadlineMillis) {
+        // Arredonda para cima: o item só sai quando o prazo já passou
+        long tick = Math.max(-Math.floorDiv(-deadlineMillis, tickMillis), currentTick + 1);
+        buckets.get(bucketOf(tick)).add(new Entry<>(item, tick));
+        size++;
+    }
+
+    // Avança até nowMillis e devolve os itens vencidos
+    synchronized List<T> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        List<T> expired = new ArrayList<>();
+        if (targetTick <= currentTick) {
+            return expired;
+        }
+
+        // Depois de uma pausa maior que uma volta, basta percorrer o anel uma vez
+        long steps = Math.min(targetTick - currentTick, buckets.size());
+        for (long tick = targetTick - steps + 1; tick <= targetTick; tick++) {
+            Iterator<Entry<T>> entries = buckets.get(bucketOf(tick)).iterator();
+            while (entries.hasNext()) {
+                Entry<T> entry = entries.next();
+                if (entry.tick() <= targetTick) {
+                    entries.remove();
+                    size--;
+                    expired.add(entry.item());
+                }
+            }
+        }
+        currentTick = targetTick;
+        return expired;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private int bucketOf(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.size());
+    }
+
+    private record Entry<T>(T item, long tick) {
+    }
+}
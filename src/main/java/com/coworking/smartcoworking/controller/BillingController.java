@@ -1,16 +1,29 @@
 package com.coworking.smartcoworking.controller;
 
+import com.coworking.smartcoworking.dto.billing.BillingOutboxStatsDTO;
 import com.coworking.smartcoworking.dto.billing.BillingResponseDTO;
+import com.coworking.smartcoworking.dto.billing.BillingSummaryDTO;
 import com.coworking.smartcoworking.dto.billing.CreateBillingDTO;
 import com.coworking.smartcoworking.dto.billing.UpdateBillingDTO;
+import com.coworking.smartcoworking.job.SweepResult;
+import com.coworking.smartcoworking.service.BillingOutboxRelay;
 import com.coworking.smartcoworking.service.BillingService;
+import com.coworking.smartcoworking.service.ExportService;
+import com.coworking.smartcoworking.service.IdempotencyService;
+import com.coworking.smartcoworking.service.OptimisticRetryService;
+import com.coworking.smartcoworking.util.ExportFormat;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +33,10 @@ import java.util.Map;
 public class BillingController {
 
     private final BillingService billingService;
+    private final ExportService exportService;
+    private final BillingOutboxRelay billingOutboxRelay;
+    private final IdempotencyService idempotencyService;
+    private final OptimisticRetryService optimisticRetryService;
 
     @PostMapping
     public ResponseEntity<BillingResponseDTO> create(@Valid @RequestBody CreateBillingDTO dto) {
@@ -57,6 +74,17 @@ public class BillingController {
         return ResponseEntity.ok(billings);
     }
 
+    @PostMapping("/overdue/process")
+    public ResponseEntity<SweepResult> processOverdue() {
+        SweepResult result = billingService.processOverdueBillings();
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/outbox/stats")
+    public ResponseEntity<BillingOutboxStatsDTO> getOutboxStats() {
+        return ResponseEntity.ok(billingOutboxRelay.getStats());
+    }
+
     @GetMapping("/user/{userId}/debt")
     public ResponseEntity<BigDecimal> calculateTotalDebt(@PathVariable Long userId) {
         BigDecimal debt = billingService.calculateTotalDebt(userId);
@@ -70,21 +98,30 @@ public class BillingController {
     }
 
     @GetMapping("/user/{userId}/summary")
-    public ResponseEntity<Map<String, Object>> getUserBillingSummary(@PathVariable Long userId) {
-        BigDecimal debt = billingService.calculateTotalDebt(userId);
-        BigDecimal paid = billingService.calculateTotalPaid(userId);
-        boolean hasOverdue = billingService.hasOverdueBillings(userId);
-        List<BillingResponseDTO> pending = billingService.findPendingByUserId(userId);
+    public ResponseEntity<BillingSummaryDTO> getUserBillingSummary(@PathVariable Long userId) {
+        BillingSummaryDTO summary = billingService.getUserSummary(userId);
+        return ResponseEntity.ok(summary);
+    }
 
-        Map<String, Object> summary = Map.of(
-                "totalDebt", debt,
-                "totalPaid", paid,
-                "hasOverdueBillings", hasOverdue,
-                "pendingCount", pending.size(),
-                "status", hasOverdue ? "IRREGULAR" : "REGULAR"
-        );
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean paidOnly,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        exportService.validatePeriod(startDate, endDate);
+        StreamingResponseBody body = out -> exportService.exportBillings(startDate, endDate, paidOnly, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=billings_" + startDate + "_" + endDate + "." + format.getExtension())
+                .body(body);
+    }
 
-        return ResponseEntity.ok(summary);
+    @PostMapping("/ledger/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildLedger() {
+        int repaired = billingService.rebuildLedger();
+        return ResponseEntity.ok(Map.of("repairedUsers", repaired));
     }
 
     @GetMapping("/due-soon")
@@ -101,12 +138,19 @@ public class BillingController {
         return ResponseEntity.ok(updated);
     }
 
+    // Com Idempotency-Key, uma nova tentativa recebe a mesma resposta em vez de "Cobrança já está paga".
+    // Repetido automaticamente se outra requisição alterar a cobrança ao mesmo tempo.
     @PatchMapping("/{id}/pay")
     public ResponseEntity<BillingResponseDTO> markAsPaid(
             @PathVariable Long id,
-            @RequestParam String paymentMethod) {
-        BillingResponseDTO paid = billingService.markAsPaid(id, paymentMethod);
-        return ResponseEntity.ok(paid);
+            @RequestParam String paymentMethod,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return optimisticRetryService.execute("PATCH /api/billings/{id}/pay", () ->
+                idempotencyService.execute("PATCH /api/billings/{id}/pay", idempotencyKey, List.of(id, paymentMethod),
+                        BillingResponseDTO.class, () -> {
+                            BillingResponseDTO paid = billingService.markAsPaid(id, paymentMethod);
+                            return ResponseEntity.ok(paid);
+                        }));
     }
 
     @PatchMapping("/{id}/mark-overdue")
@@ -115,9 +159,11 @@ public class BillingController {
         return ResponseEntity.ok(overdue);
     }
 
+    // Repetido automaticamente se outra requisição alterar a cobrança ao mesmo tempo
     @PatchMapping("/{id}/cancel")
     public ResponseEntity<BillingResponseDTO> cancel(@PathVariable Long id) {
-        BillingResponseDTO cancelled = billingService.cancel(id);
+        BillingResponseDTO cancelled = optimisticRetryService.execute("PATCH /api/billings/{id}/cancel",
+                () -> billingService.cancel(id));
         return ResponseEntity.ok(cancelled);
     }
 
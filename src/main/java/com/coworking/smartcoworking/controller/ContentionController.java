@@ -0,0 +1,21 @@
+package com.coworking.smartcoworking.controller;
+
+import com.coworking.smartcoworking.dto.contention.ContentionStatsDTO;
+import com.coworking.smartcoworking.service.OptimisticRetryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/contention")
+@RequiredArgsConstructor
+public class ContentionController {
+
+    private final OptimisticRetryService optimisticRetryService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<ContentionStatsDTO> getStats() {
+        ContentionStatsDTO stats = optimisticRetryService.getStats();
+        return ResponseEntity.ok(stats);
+    }
+}
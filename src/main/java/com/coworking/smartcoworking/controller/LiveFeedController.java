@@ -0,0 +1,30 @@
+package com.coworking.smartcoworking.controller;
+
+import com.coworking.smartcoworking.dto.feed.LiveFeedStatsDTO;
+import com.coworking.smartcoworking.service.LiveFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/live")
+@RequiredArgsConstructor
+public class LiveFeedController {
+
+    private final LiveFeedService liveFeedService;
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Set<Long> spaceIds) {
+        return liveFeedService.subscribe(spaceIds);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<LiveFeedStatsDTO> getStats() {
+        LiveFeedStatsDTO stats = liveFeedService.getStats();
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,100 @@
+package com.coworking.smartcoworking.controller;
+
+import com.coworking.smartcoworking.dto.occupancy.FloorHeatmapDTO;
+import com.coworking.smartcoworking.dto.occupancy.OccupancyBatchDTO;
+import com.coworking.smartcoworking.dto.occupancy.OccupancyEventDTO;
+import com.coworking.smartcoworking.dto.occupancy.OccupancyIngestionStatsDTO;
+import com.coworking.smartcoworking.dto.occupancy.OccupancyMetricsDTO;
+import com.coworking.smartcoworking.dto.occupancy.OccupancyRetentionResultDTO;
+import com.coworking.smartcoworking.dto.occupancy.SpaceHeatmapDTO;
+import com.coworking.smartcoworking.dto.occupancy.SpaceOccupancyDTO;
+import com.coworking.smartcoworking.service.OccupancyIngestionService;
+import com.coworking.smartcoworking.service.OccupancyRetentionService;
+import com.coworking.smartcoworking.service.OccupancyService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/occupancy")
+@RequiredArgsConstructor
+public class OccupancyController {
+
+    private final OccupancyIngestionService ingestionService;
+    private final OccupancyService occupancyService;
+    private final OccupancyRetentionService occupancyRetentionService;
+
+    @PostMapping("/events")
+    public ResponseEntity<Map<String, Integer>> ingest(@Valid @RequestBody OccupancyEventDTO dto) {
+        int accepted = ingestionService.ingest(dto);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("accepted", accepted));
+    }
+
+    @PostMapping("/events/batch")
+    public ResponseEntity<Map<String, Integer>> ingestBatch(@Valid @RequestBody OccupancyBatchDTO dto) {
+        int accepted = ingestionService.ingest(dto.getEvents());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("accepted", accepted));
+    }
+
+    @GetMapping("/ingestion/stats")
+    public ResponseEntity<OccupancyIngestionStatsDTO> getIngestionStats() {
+        OccupancyIngestionStatsDTO stats = ingestionService.getStats();
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/live")
+    public ResponseEntity<List<SpaceOccupancyDTO>> findLiveStates(@RequestParam(required = false) Boolean occupied) {
+        List<SpaceOccupancyDTO> states = occupancyService.findLiveStates(occupied);
+        return ResponseEntity.ok(states);
+    }
+
+    @GetMapping("/live/{spaceId}")
+    public ResponseEntity<SpaceOccupancyDTO> findLiveState(@PathVariable Long spaceId) {
+        SpaceOccupancyDTO state = occupancyService.findLiveState(spaceId);
+        return ResponseEntity.ok(state);
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<List<OccupancyMetricsDTO>> calculateMetrics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        List<OccupancyMetricsDTO> metrics = occupancyService.calculateMetricsForAllSpaces(start, end);
+        return ResponseEntity.ok(metrics);
+    }
+
+    @GetMapping("/metrics/{spaceId}")
+    public ResponseEntity<OccupancyMetricsDTO> calculateSpaceMetrics(
+            @PathVariable Long spaceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        OccupancyMetricsDTO metrics = occupancyService.calculateMetrics(spaceId, start, end);
+        return ResponseEntity.ok(metrics);
+    }
+
+    @GetMapping("/heatmap")
+    public ResponseEntity<List<SpaceHeatmapDTO>> findHeatmap(
+            @RequestParam(required = false) Integer weeks,
+            @RequestParam(required = false) List<Long> spaceIds) {
+        List<SpaceHeatmapDTO> heatmap = occupancyService.findHeatmap(weeks, spaceIds);
+        return ResponseEntity.ok(heatmap);
+    }
+
+    @GetMapping("/heatmap/floors")
+    public ResponseEntity<List<FloorHeatmapDTO>> findFloorHeatmap(@RequestParam(required = false) Integer weeks) {
+        List<FloorHeatmapDTO> heatmap = occupancyService.findFloorHeatmap(weeks);
+        return ResponseEntity.ok(heatmap);
+    }
+
+    @PostMapping("/retention/process")
+    public ResponseEntity<OccupancyRetentionResultDTO> processRetention() {
+        OccupancyRetentionResultDTO result = occupancyRetentionService.process();
+        return ResponseEntity.ok(result);
+    }
+}
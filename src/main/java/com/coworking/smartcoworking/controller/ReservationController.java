@@ -1,15 +1,35 @@
 package com.coworking.smartcoworking.controller;
 
+import com.coworking.smartcoworking.cache.ReservationHoldRegistry;
 import com.coworking.smartcoworking.dto.reservation.CreateReservationDTO;
+import com.coworking.smartcoworking.dto.reservation.CreateReservationHoldDTO;
+import com.coworking.smartcoworking.dto.reservation.CreateReservationSeriesDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationFilterDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationHoldResponseDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationHoldStatsDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationOccurrenceDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationPageDTO;
 import com.coworking.smartcoworking.dto.reservation.ReservationResponseDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationSeriesResponseDTO;
 import com.coworking.smartcoworking.dto.reservation.UpdateReservationDTO;
+import com.coworking.smartcoworking.job.SweepResult;
+import com.coworking.smartcoworking.service.ExportService;
+import com.coworking.smartcoworking.service.IdempotencyService;
+import com.coworking.smartcoworking.service.OptimisticRetryService;
 import com.coworking.smartcoworking.service.ReservationService;
+import com.coworking.smartcoworking.util.ExportFormat;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,13 +38,75 @@ import java.util.List;
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final ExportService exportService;
+    private final IdempotencyService idempotencyService;
+    private final OptimisticRetryService optimisticRetryService;
+    private final ReservationHoldRegistry holdRegistry;
 
+    // Com Idempotency-Key, uma nova tentativa recebe a mesma reserva em vez de criar outra
     @PostMapping
-    public ResponseEntity<ReservationResponseDTO> create(@Valid @RequestBody CreateReservationDTO dto) {
-        ReservationResponseDTO created = reservationService.create(dto);
+    public ResponseEntity<ReservationResponseDTO> create(
+            @Valid @RequestBody CreateReservationDTO dto,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("POST /api/reservations", idempotencyKey, dto,
+                ReservationResponseDTO.class, () -> {
+                    ReservationResponseDTO created = reservationService.create(dto);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(created);
+                });
+    }
+
+    // Pré-reserva do checkout: bloqueia o horário por alguns minutos, sem reserva nem cobrança
+    @PostMapping("/holds")
+    public ResponseEntity<ReservationHoldResponseDTO> createHold(@Valid @RequestBody CreateReservationHoldDTO dto) {
+        ReservationHoldResponseDTO created = reservationService.createHold(dto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+
+    @GetMapping("/holds/stats")
+    public ResponseEntity<ReservationHoldStatsDTO> getHoldStats() {
+        return ResponseEntity.ok(holdRegistry.getStats());
+    }
+
+    @GetMapping("/holds/{holdId}")
+    public ResponseEntity<ReservationHoldResponseDTO> findHold(@PathVariable String holdId) {
+        ReservationHoldResponseDTO hold = reservationService.findHold(holdId);
+        return ResponseEntity.ok(hold);
+    }
+
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<ReservationResponseDTO> confirmHold(@PathVariable String holdId) {
+        ReservationResponseDTO created = reservationService.confirmHold(holdId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String holdId) {
+        reservationService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/series")
+    public ResponseEntity<ReservationSeriesResponseDTO> createSeries(
+            @Valid @RequestBody CreateReservationSeriesDTO dto) {
+        ReservationSeriesResponseDTO created = reservationService.createSeries(dto);
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @GetMapping("/series/{id}")
+    public ResponseEntity<ReservationSeriesResponseDTO> findSeriesById(@PathVariable Long id) {
+        ReservationSeriesResponseDTO series = reservationService.findSeriesById(id);
+        return ResponseEntity.ok(series);
+    }
+
+    @GetMapping("/series/{id}/occurrences")
+    public ResponseEntity<List<ReservationOccurrenceDTO>> findSeriesOccurrences(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        List<ReservationOccurrenceDTO> occurrences = reservationService.findSeriesOccurrences(id, from, to);
+        return ResponseEntity.ok(occurrences);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ReservationResponseDTO> findById(@PathVariable Long id) {
         ReservationResponseDTO reservation = reservationService.findById(id);
@@ -32,14 +114,43 @@ public class ReservationController {
     }
 
     @GetMapping
-    public ResponseEntity<List<ReservationResponseDTO>> findAll() {
-        List<ReservationResponseDTO> reservations = reservationService.findAll();
+    public ResponseEntity<List<ReservationResponseDTO>> findAll(@RequestParam(required = false) Integer limit) {
+        List<ReservationResponseDTO> reservations = limit != null
+                ? reservationService.findAll(limit)
+                : reservationService.findAll();
         return ResponseEntity.ok(reservations);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<ReservationPageDTO> search(
+            ReservationFilterDTO filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        ReservationPageDTO page = reservationService.search(filter, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        exportService.validatePeriod(startDate, endDate);
+        StreamingResponseBody body = out -> exportService.exportReservations(startDate, endDate, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=reservations_" + startDate + "_" + endDate + "." + format.getExtension())
+                .body(body);
+    }
+
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<ReservationResponseDTO>> findByUserId(@PathVariable Long userId) {
-        List<ReservationResponseDTO> reservations = reservationService.findByUserId(userId);
+    public ResponseEntity<List<ReservationResponseDTO>> findByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Integer limit) {
+        List<ReservationResponseDTO> reservations = limit != null
+                ? reservationService.findByUserId(userId, limit)
+                : reservationService.findByUserId(userId);
         return ResponseEntity.ok(reservations);
     }
 
@@ -50,34 +161,49 @@ public class ReservationController {
     }
 
     @GetMapping("/space/{spaceId}")
-    public ResponseEntity<List<ReservationResponseDTO>> findBySpaceId(@PathVariable Long spaceId) {
-        List<ReservationResponseDTO> reservations = reservationService.findBySpaceId(spaceId);
+    public ResponseEntity<List<ReservationResponseDTO>> findBySpaceId(
+            @PathVariable Long spaceId,
+            @RequestParam(required = false) Integer limit) {
+        List<ReservationResponseDTO> reservations = limit != null
+                ? reservationService.findBySpaceId(spaceId, limit)
+                : reservationService.findBySpaceId(spaceId);
         return ResponseEntity.ok(reservations);
     }
 
+    @PostMapping("/expired/process")
+    public ResponseEntity<SweepResult> processExpired() {
+        SweepResult result = reservationService.processExpiredReservations();
+        return ResponseEntity.ok(result);
+    }
+
+    // Transições abaixo são repetidas automaticamente se outra requisição alterar a reserva ao mesmo tempo
     @PutMapping("/{id}")
     public ResponseEntity<ReservationResponseDTO> update(
             @PathVariable Long id,
             @Valid @RequestBody UpdateReservationDTO dto) {
-        ReservationResponseDTO updated = reservationService.update(id, dto);
+        ReservationResponseDTO updated = optimisticRetryService.execute("PUT /api/reservations/{id}",
+                () -> reservationService.update(id, dto));
         return ResponseEntity.ok(updated);
     }
 
     @PatchMapping("/{id}/cancel")
     public ResponseEntity<ReservationResponseDTO> cancel(@PathVariable Long id) {
-        ReservationResponseDTO cancelled = reservationService.cancel(id);
+        ReservationResponseDTO cancelled = optimisticRetryService.execute("PATCH /api/reservations/{id}/cancel",
+                () -> reservationService.cancel(id));
         return ResponseEntity.ok(cancelled);
     }
 
     @PatchMapping("/{id}/check-in")
     public ResponseEntity<ReservationResponseDTO> checkIn(@PathVariable Long id) {
-        ReservationResponseDTO checkedIn = reservationService.checkIn(id);
+        ReservationResponseDTO checkedIn = optimisticRetryService.execute("PATCH /api/reservations/{id}/check-in",
+                () -> reservationService.checkIn(id));
         return ResponseEntity.ok(checkedIn);
     }
 
     @PatchMapping("/{id}/check-out")
     public ResponseEntity<ReservationResponseDTO> checkOut(@PathVariable Long id) {
-        ReservationResponseDTO checkedOut = reservationService.checkOut(id);
+        ReservationResponseDTO checkedOut = optimisticRetryService.execute("PATCH /api/reservations/{id}/check-out",
+                () -> reservationService.checkOut(id));
         return ResponseEntity.ok(checkedOut);
     }
 
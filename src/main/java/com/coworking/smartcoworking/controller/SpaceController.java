@@ -1,16 +1,23 @@
 package com.coworking.smartcoworking.controller;
 
 import com.coworking.smartcoworking.dto.space.CreateSpaceDTO;
+import com.coworking.smartcoworking.dto.space.SpaceCacheStatsDTO;
+import com.coworking.smartcoworking.dto.space.SpaceDayGridDTO;
 import com.coworking.smartcoworking.dto.space.SpaceResponseDTO;
 import com.coworking.smartcoworking.dto.space.UpdateSpaceDTO;
+import com.coworking.smartcoworking.enums.Amenity;
 import com.coworking.smartcoworking.enums.SpaceType;
 import com.coworking.smartcoworking.service.SpaceService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -50,6 +57,37 @@ public class SpaceController {
         return ResponseEntity.ok(spaces);
     }
 
+    @GetMapping("/available")
+    public ResponseEntity<List<SpaceResponseDTO>> findAvailable(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) SpaceType type,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(defaultValue = "") List<Amenity> amenities) {
+        List<SpaceResponseDTO> spaces = spaceService.findAvailable(start, end, type, minCapacity, amenities);
+        return ResponseEntity.ok(spaces);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<SpaceResponseDTO>> search(
+            @RequestParam(defaultValue = "") List<SpaceType> types,
+            @RequestParam(defaultValue = "") List<Integer> floors,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(required = false) BigDecimal maxPricePerHour,
+            @RequestParam(defaultValue = "") List<Amenity> amenities) {
+        List<SpaceResponseDTO> spaces = spaceService.search(types, floors, minCapacity, maxPricePerHour, amenities);
+        return ResponseEntity.ok(spaces);
+    }
+
+    @GetMapping("/grid")
+    public ResponseEntity<List<SpaceDayGridDTO>> findDayGrid(
+            @RequestParam List<Long> spaceIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "1") int days) {
+        List<SpaceDayGridDTO> grid = spaceService.findDayGrid(spaceIds, from, days);
+        return ResponseEntity.ok(grid);
+    }
+
     @GetMapping("/floor/{floor}")
     public ResponseEntity<List<SpaceResponseDTO>> findByFloor(@PathVariable Integer floor) {
         List<SpaceResponseDTO> spaces = spaceService.findByFloor(floor);
@@ -62,6 +100,12 @@ public class SpaceController {
         return ResponseEntity.ok(spaces);
     }
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<SpaceCacheStatsDTO> getCacheStats() {
+        SpaceCacheStatsDTO stats = spaceService.getCacheStats();
+        return ResponseEntity.ok(stats);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<SpaceResponseDTO> update(
             @PathVariable Long id,
@@ -0,0 +1,22 @@
+package com.coworking.smartcoworking.dto.billing;
+
+import com.coworking.smartcoworking.enums.BillingStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Linha plana de exportação (sem associações lazy)
+public record BillingExportRow(
+        Long id,
+        Long reservationId,
+        Long userId,
+        String userEmail,
+        BigDecimal amount,
+        BillingStatus status,
+        LocalDate dueDate,
+        LocalDate paidDate,
+        String paymentMethod,
+        LocalDateTime createdAt
+) {
+}
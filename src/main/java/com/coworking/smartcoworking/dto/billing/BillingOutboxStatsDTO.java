@@ -0,0 +1,26 @@
+package com.coworking.smartcoworking.dto.billing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillingOutboxStatsDTO {
+
+    // Eventos gravados pelas reservas e ainda não aplicados às cobranças
+    private long queueDepth;
+    // Idade do evento mais antigo da fila (atraso atual das cobranças)
+    private long lagMillis;
+    private long relayedEvents;
+    // Eventos de reservas que já não existiam quando o relay chegou a eles
+    private long discardedEvents;
+    private long batches;
+    private long failedBatches;
+    // Maior atraso entre a gravação e a aplicação no último lote
+    private long lastBatchLagMillis;
+    private LocalDateTime lastRelayAt;
+}
@@ -0,0 +1,32 @@
+package com.coworking.smartcoworking.dto.billing;
+
+import com.coworking.smartcoworking.entity.UserBillingLedger;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillingSummaryDTO {
+
+    private BigDecimal totalDebt;
+    private BigDecimal totalPaid;
+    private boolean hasOverdueBillings;
+    private long pendingCount;
+    private String status;
+
+    // Método helper para conversão
+    public static BillingSummaryDTO fromEntity(UserBillingLedger ledger) {
+        boolean hasOverdue = ledger.getOverdueCount() > 0;
+        return new BillingSummaryDTO(
+                ledger.getTotalDebt(),
+                ledger.getTotalPaid(),
+                hasOverdue,
+                ledger.getPendingCount(),
+                hasOverdue ? "IRREGULAR" : "REGULAR"
+        );
+    }
+}
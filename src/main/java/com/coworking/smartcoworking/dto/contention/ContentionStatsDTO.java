@@ -0,0 +1,24 @@
+package com.coworking.smartcoworking.dto.contention;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentionStatsDTO {
+
+    // Falhas de locking otimista (versão desatualizada no UPDATE), incluindo as recuperadas por retry
+    private long conflicts;
+    private long retries;
+    // Operações que só terminaram depois de ao menos um retry
+    private long recovered;
+    // Operações que esgotaram as tentativas e devolveram 409
+    private long exhausted;
+    // Ordenados do mais disputado para o menos
+    private Map<String, Long> conflictsByEndpoint;
+    private Map<String, Long> conflictsByEntity;
+}
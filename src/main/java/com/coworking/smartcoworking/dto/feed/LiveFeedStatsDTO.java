@@ -0,0 +1,21 @@
+package com.coworking.smartcoworking.dto.feed;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveFeedStatsDTO {
+
+    private int subscribers;
+    private int maxSubscribers;
+    private long publishedUpdates;
+    private long deliveredUpdates;
+    // Atualizações substituídas por outra mais nova do mesmo espaço/reserva antes do envio
+    private long coalescedUpdates;
+    private long disconnects;
+    // Assinantes derrubados por um envio parado além do limite
+    private long stalledDisconnects;
+}
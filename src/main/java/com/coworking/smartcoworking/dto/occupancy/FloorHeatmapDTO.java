@@ -0,0 +1,17 @@
+package com.coworking.smartcoworking.dto.occupancy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FloorHeatmapDTO {
+
+    private Integer floor;
+    private int spaceCount;
+    private int weeks;
+    // Média dos espaços do andar em cada hora da semana (segunda 00h = 0 ... domingo 23h = 167)
+    private double[] utilization;
+}
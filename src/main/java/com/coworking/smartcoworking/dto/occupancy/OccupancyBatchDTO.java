@@ -0,0 +1,20 @@
+package com.coworking.smartcoworking.dto.occupancy;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyBatchDTO {
+
+    @NotEmpty(message = "O lote deve conter pelo menos um evento")
+    @Size(max = 5000, message = "O lote deve conter no máximo 5000 eventos")
+    private List<@Valid OccupancyEventDTO> events;
+}
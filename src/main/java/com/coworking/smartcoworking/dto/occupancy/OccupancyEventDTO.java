@@ -0,0 +1,27 @@
+package com.coworking.smartcoworking.dto.occupancy;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyEventDTO {
+
+    @NotNull(message = "ID do espaço é obrigatório")
+    private Long spaceId;
+
+    @NotNull(message = "Estado de ocupação é obrigatório")
+    private Boolean occupied;
+
+    // Opcional: quando ausente, usa o horário de recebimento
+    private LocalDateTime timestamp;
+
+    @Size(max = 500, message = "Observações devem ter no máximo 500 caracteres")
+    private String notes;
+}
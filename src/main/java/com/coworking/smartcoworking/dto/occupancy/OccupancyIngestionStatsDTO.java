@@ -0,0 +1,22 @@
+package com.coworking.smartcoworking.dto.occupancy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyIngestionStatsDTO {
+
+    private long acceptedEvents;
+    private long rejectedEvents;
+    private long writtenEvents;
+    private long failedEvents;
+    private long batches;
+    private int queueSize;
+    private int queueCapacity;
+    private double averageBatchSize;
+    // Média de eventos gravados por segundo no último minuto
+    private double writtenPerSecond;
+}
@@ -0,0 +1,22 @@
+package com.coworking.smartcoworking.dto.occupancy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyMetricsDTO {
+
+    private Long spaceId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private long occupiedMinutes;
+    private long sessions;
+    private long longestSessionMinutes;
+    // Fração do período (até agora, se o período ainda não terminou) com o espaço ocupado
+    private double occupancyRate;
+}
@@ -0,0 +1,19 @@
+package com.coworking.smartcoworking.dto.occupancy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyRetentionResultDTO {
+
+    private List<YearMonth> createdPartitions;
+    private List<YearMonth> droppedPartitions;
+    private long rolledUpHours;
+    private long elapsedMillis;
+}
@@ -0,0 +1,17 @@
+package com.coworking.smartcoworking.dto.occupancy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpaceHeatmapDTO {
+
+    private Long spaceId;
+    private Integer floor;
+    private int weeks;
+    // 168 posições: segunda 00h = 0 ... domingo 23h = 167; fração da hora com o espaço ocupado
+    private double[] utilization;
+}
@@ -0,0 +1,26 @@
+package com.coworking.smartcoworking.dto.occupancy;
+
+import com.coworking.smartcoworking.cache.OccupancyStateCache.OccupancyState;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpaceOccupancyDTO {
+
+    private Long spaceId;
+    private Boolean occupied;
+    // Horário do último evento do sensor (null se o espaço nunca reportou)
+    private LocalDateTime updatedAt;
+
+    public static SpaceOccupancyDTO of(Long spaceId, OccupancyState state) {
+        if (state == null) {
+            return new SpaceOccupancyDTO(spaceId, false, null);
+        }
+        return new SpaceOccupancyDTO(spaceId, state.occupied(), state.updatedAt());
+    }
+}
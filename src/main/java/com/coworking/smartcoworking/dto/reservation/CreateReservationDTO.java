@@ -1,6 +1,7 @@
 package com.coworking.smartcoworking.dto.reservation;
 
 import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -28,4 +29,8 @@ public class CreateReservationDTO {
     private LocalDateTime endDateTime;
 
     private String notes;
+
+    // Lugares ocupados (padrão 1); permite reservas sobrepostas em HOT_DESK e AUDITORIO até a capacidade
+    @Min(value = 1, message = "Quantidade de lugares deve ser pelo menos 1")
+    private Integer seats;
 }
\ No newline at end of file
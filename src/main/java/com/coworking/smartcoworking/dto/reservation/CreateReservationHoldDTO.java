@@ -0,0 +1,36 @@
+package com.coworking.smartcoworking.dto.reservation;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateReservationHoldDTO {
+
+    @NotNull(message = "ID do usuário é obrigatório")
+    private Long userId;
+
+    @NotNull(message = "ID do espaço é obrigatório")
+    private Long spaceId;
+
+    @NotNull(message = "Data/hora de início é obrigatória")
+    @Future(message = "Data/hora de início deve ser no futuro")
+    private LocalDateTime startDateTime;
+
+    @NotNull(message = "Data/hora de fim é obrigatória")
+    @Future(message = "Data/hora de fim deve ser no futuro")
+    private LocalDateTime endDateTime;
+
+    private String notes;
+
+    // Minutos até a pré-reserva expirar (padrão em coworking.holds.default-ttl-minutes)
+    @Min(value = 1, message = "Validade da pré-reserva deve ser de pelo menos 1 minuto")
+    private Integer ttlMinutes;
+}
@@ -0,0 +1,49 @@
+package com.coworking.smartcoworking.dto.reservation;
+
+import com.coworking.smartcoworking.enums.RecurrenceFrequency;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateReservationSeriesDTO {
+
+    @NotNull(message = "ID do usuário é obrigatório")
+    private Long userId;
+
+    @NotNull(message = "ID do espaço é obrigatório")
+    private Long spaceId;
+
+    // Horário da primeira ocorrência; as demais repetem o mesmo horário
+    @NotNull(message = "Data/hora de início é obrigatória")
+    @Future(message = "Data/hora de início deve ser no futuro")
+    private LocalDateTime startDateTime;
+
+    @NotNull(message = "Data/hora de fim é obrigatória")
+    @Future(message = "Data/hora de fim deve ser no futuro")
+    private LocalDateTime endDateTime;
+
+    @NotNull(message = "Frequência é obrigatória")
+    private RecurrenceFrequency frequency;
+
+    @Min(value = 1, message = "Intervalo deve ser pelo menos 1")
+    private Integer interval;
+
+    @NotNull(message = "Quantidade de ocorrências é obrigatória")
+    @Min(value = 2, message = "Uma série deve ter pelo menos 2 ocorrências")
+    @Max(value = 366, message = "Uma série pode ter no máximo 366 ocorrências")
+    private Integer occurrences;
+
+    @Min(value = 1, message = "Quantidade de lugares deve ser pelo menos 1")
+    private Integer seats;
+
+    private String notes;
+}
@@ -0,0 +1,22 @@
+package com.coworking.smartcoworking.dto.reservation;
+
+import com.coworking.smartcoworking.enums.ReservationStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Linha plana de exportação (sem associações lazy)
+public record ReservationExportRow(
+        Long id,
+        Long userId,
+        Long spaceId,
+        String spaceName,
+        LocalDateTime startDateTime,
+        LocalDateTime endDateTime,
+        BigDecimal totalPrice,
+        ReservationStatus status,
+        LocalDateTime checkInTime,
+        LocalDateTime checkOutTime,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,31 @@
+package com.coworking.smartcoworking.dto.reservation;
+
+import com.coworking.smartcoworking.enums.ReservationStatus;
+import com.coworking.smartcoworking.enums.SpaceType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationFilterDTO {
+
+    private ReservationStatus status;
+
+    private Long spaceId;
+
+    private Long userId;
+
+    private SpaceType spaceType;
+
+    // Início da reserva dentro de [from, to)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+}
@@ -0,0 +1,40 @@
+package com.coworking.smartcoworking.dto.reservation;
+
+import com.coworking.smartcoworking.cache.ReservationHoldRegistry.Hold;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationHoldResponseDTO {
+
+    private String id;
+    private Long userId;
+    private Long spaceId;
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+    // Preço garantido na confirmação
+    private BigDecimal totalPrice;
+    private String notes;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+
+    public static ReservationHoldResponseDTO fromHold(Hold hold) {
+        return new ReservationHoldResponseDTO(
+                hold.id(),
+                hold.userId(),
+                hold.spaceId(),
+                hold.startDateTime(),
+                hold.endDateTime(),
+                hold.totalPrice(),
+                hold.notes(),
+                hold.createdAt(),
+                hold.expiresAt()
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package com.coworking.smartcoworking.dto.reservation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationHoldStatsDTO {
+
+    // Pré-reservas bloqueando horário agora
+    private long active;
+    private long created;
+    private long confirmed;
+    private long released;
+    // Abandonadas e recolhidas pela roda de temporização (sem nenhuma escrita no banco)
+    private long expired;
+    // Entradas ainda agendadas na roda (inclui as já confirmadas ou liberadas, descartadas ao vencer)
+    private long scheduled;
+}
@@ -0,0 +1,22 @@
+package com.coworking.smartcoworking.dto.reservation;
+
+import com.coworking.smartcoworking.enums.ReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Ocorrência de uma série expandida a partir da regra; reservationId/status vêm da reserva gravada
+// (nulos se ela foi removida) e o horário reflete uma eventual remarcação da ocorrência
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationOccurrenceDTO {
+
+    private Integer occurrenceIndex;
+    private Long reservationId;
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+    private ReservationStatus status;
+}
@@ -0,0 +1,20 @@
+package com.coworking.smartcoworking.dto.reservation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationPageDTO {
+
+    private List<ReservationResponseDTO> content;
+
+    // Enviar no parâmetro "cursor" para buscar a próxima página (null na última)
+    private String nextCursor;
+
+    private boolean hasNext;
+}
@@ -20,11 +20,13 @@ public class ReservationResponseDTO {
     private SpaceResponseDTO space;
     private LocalDateTime startDateTime;
     private LocalDateTime endDateTime;
+    private Integer seats;
     private BigDecimal totalPrice;
     private ReservationStatus status;
     private LocalDateTime checkInTime;
     private LocalDateTime checkOutTime;
     private String notes;
+    private Long seriesId;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -41,11 +43,13 @@ public class ReservationResponseDTO {
 
         dto.setStartDateTime(reservation.getStartDateTime());
         dto.setEndDateTime(reservation.getEndDateTime());
+        dto.setSeats(reservation.getSeats());
         dto.setTotalPrice(reservation.getTotalPrice());
         dto.setStatus(reservation.getStatus());
         dto.setCheckInTime(reservation.getCheckInTime());
         dto.setCheckOutTime(reservation.getCheckOutTime());
         dto.setNotes(reservation.getNotes());
+        dto.setSeriesId(reservation.getSeries() != null ? reservation.getSeries().getId() : null);
         dto.setCreatedAt(reservation.getCreatedAt());
         dto.setUpdatedAt(reservation.getUpdatedAt());
 
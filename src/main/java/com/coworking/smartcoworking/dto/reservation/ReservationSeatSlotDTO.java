@@ -0,0 +1,20 @@
+package com.coworking.smartcoworking.dto.reservation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Projeção enxuta de uma reserva em espaço compartilhado: horário e lugares ocupados
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationSeatSlotDTO {
+
+    private Long reservationId;
+    private Long spaceId;
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+    private Integer seats;
+}
@@ -0,0 +1,51 @@
+package com.coworking.smartcoworking.dto.reservation;
+
+import com.coworking.smartcoworking.entity.ReservationSeries;
+import com.coworking.smartcoworking.enums.RecurrenceFrequency;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationSeriesResponseDTO {
+
+    private Long id;
+    private Long userId;
+    private Long spaceId;
+    private RecurrenceFrequency frequency;
+    private Integer interval;
+    private Integer occurrences;
+    private LocalDateTime firstStartDateTime;
+    private LocalDateTime firstEndDateTime;
+    private LocalDateTime lastEndDateTime;
+    private Integer seats;
+    private BigDecimal occurrencePrice;
+    private BigDecimal totalPrice;
+    private String notes;
+    private LocalDateTime createdAt;
+
+    // Só lê os IDs das associações (sem carregar usuário e espaço)
+    public static ReservationSeriesResponseDTO fromEntity(ReservationSeries series) {
+        return new ReservationSeriesResponseDTO(
+                series.getId(),
+                series.getUser().getId(),
+                series.getSpace().getId(),
+                series.getFrequency(),
+                series.getInterval(),
+                series.getOccurrences(),
+                series.getFirstStartDateTime(),
+                series.getFirstEndDateTime(),
+                series.endOf(series.getOccurrences() - 1),
+                series.getSeats(),
+                series.getOccurrencePrice(),
+                series.getOccurrencePrice().multiply(BigDecimal.valueOf(series.getOccurrences())),
+                series.getNotes(),
+                series.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package com.coworking.smartcoworking.dto.reservation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Projeção enxuta (sem associações) usada para carregar índices em memória
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationSlotDTO {
+
+    private Long reservationId;
+    private Long spaceId;
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+}
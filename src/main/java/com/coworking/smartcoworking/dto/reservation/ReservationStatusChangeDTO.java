@@ -0,0 +1,34 @@
+package com.coworking.smartcoworking.dto.reservation;
+
+import com.coworking.smartcoworking.enums.ReservationStatus;
+import com.coworking.smartcoworking.event.ReservationChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationStatusChangeDTO {
+
+    private Long reservationId;
+    private Long spaceId;
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+    private ReservationStatus previousStatus;
+    // null quando a reserva foi removida
+    private ReservationStatus status;
+
+    public static ReservationStatusChangeDTO of(ReservationChangedEvent event) {
+        return new ReservationStatusChangeDTO(
+                event.reservationId(),
+                event.spaceId(),
+                event.startDateTime(),
+                event.endDateTime(),
+                event.previousStatus(),
+                event.status()
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package com.coworking.smartcoworking.dto.space;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpaceCacheStatsDTO {
+
+    private int entries;
+    private int maxEntries;
+    private int cachedQueries;
+    private int maxQueries;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    // Entradas descartadas por falta de espaço (LRU)
+    private long evictions;
+    private long invalidations;
+}
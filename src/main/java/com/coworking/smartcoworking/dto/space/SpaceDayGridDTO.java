@@ -0,0 +1,20 @@
+package com.coworking.smartcoworking.dto.space;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpaceDayGridDTO {
+
+    private Long spaceId;
+    private LocalDate date;
+    private Integer slotMinutes;
+
+    // Um caractere por slot a partir de 00:00: '1' = ocupado, '0' = livre
+    private String busySlots;
+}
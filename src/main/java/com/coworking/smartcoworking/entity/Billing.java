@@ -18,9 +18,15 @@ import java.time.LocalDateTime;
 public class Billing {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "billings_seq")
+    @SequenceGenerator(name = "billings_seq", sequenceName = "billings_seq", allocationSize = 50)
     private Long id;
 
+    // Locking otimista: atualização a partir de uma leitura desatualizada falha em vez de sobrescrever
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "reservation_id", nullable = false)
     private Reservation reservation;
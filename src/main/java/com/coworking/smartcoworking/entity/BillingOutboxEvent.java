@@ -0,0 +1,62 @@
+package com.coworking.smartcoworking.entity;
+
+import com.coworking.smartcoworking.enums.BillingOutboxType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Efeito de cobrança de uma mudança de reserva, gravado na mesma transação da reserva e aplicado
+// depois pelo relay. A ordem de aplicação é a da transação que gravou (coluna tx_id, preenchida pelo
+// banco) e, dentro dela, a dos IDs: os IDs sozinhos só crescem dentro de uma instância.
+@Entity
+@Table(name = "billing_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillingOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "billing_outbox_seq")
+    @SequenceGenerator(name = "billing_outbox_seq", sequenceName = "billing_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    // Só os IDs: o relay carrega reservas e cobranças do lote de uma vez
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BillingOutboxType type;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "due_date")
+    private LocalDate dueDate;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public static BillingOutboxEvent of(Reservation reservation, BillingOutboxType type) {
+        BillingOutboxEvent event = new BillingOutboxEvent();
+        event.setReservationId(reservation.getId());
+        event.setUserId(reservation.getUser().getId());
+        event.setType(type);
+        event.setAmount(reservation.getTotalPrice());
+        event.setDueDate(reservation.getStartDateTime().toLocalDate());
+        return event;
+    }
+}
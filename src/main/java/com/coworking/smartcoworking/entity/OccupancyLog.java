@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+// Particionada por mês nas migrations (partições, índice (space_id, timestamp) e chave (id, timestamp))
 @Table(name = "occupancy_logs")
 @Data
 @NoArgsConstructor
@@ -15,7 +16,8 @@ import java.time.LocalDateTime;
 public class OccupancyLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "occupancy_logs_seq")
+    @SequenceGenerator(name = "occupancy_logs_seq", sequenceName = "occupancy_logs_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -5,11 +5,13 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+// Índices, coluna period e constraint de sobreposição nas migrations (db/migration)
 @Table(name = "reservations")
 @Data
 @NoArgsConstructor
@@ -17,9 +19,15 @@ import java.time.LocalDateTime;
 public class Reservation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_seq")
+    @SequenceGenerator(name = "reservations_seq", sequenceName = "reservations_seq", allocationSize = 50)
     private Long id;
 
+    // Locking otimista: atualização a partir de uma leitura desatualizada falha em vez de sobrescrever
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -34,6 +42,16 @@ public class Reservation {
     @Column(name = "end_date_time", nullable = false)
     private LocalDateTime endDateTime;
 
+    // Lugares ocupados; em espaços exclusivos a reserva fica com o espaço inteiro
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private Integer seats = 1;
+
+    // Cópia de space.type.isShared(): a constraint de não sobreposição vale só para espaços exclusivos
+    @Column(name = "shared_space", nullable = false)
+    @ColumnDefault("false")
+    private Boolean sharedSpace = false;
+
     @Column(name = "total_price", nullable = false, precision = 10, scale = 2)
     private BigDecimal totalPrice;
 
@@ -50,6 +68,14 @@ public class Reservation {
     @Column(length = 1000)
     private String notes;
 
+    // Preenchidos só nas ocorrências de uma reserva recorrente
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "series_id")
+    private ReservationSeries series;
+
+    @Column(name = "occurrence_index")
+    private Integer occurrenceIndex;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
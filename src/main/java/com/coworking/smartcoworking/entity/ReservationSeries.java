@@ -0,0 +1,77 @@
+package com.coworking.smartcoworking.entity;
+
+import com.coworking.smartcoworking.enums.RecurrenceFrequency;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Regra de recorrência gravada uma vez; cada ocorrência vira uma reserva com series_id e occurrence_index
+@Entity
+@Table(name = "reservation_series")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_series_seq")
+    @SequenceGenerator(name = "reservation_series_seq", sequenceName = "reservation_series_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "space_id", nullable = false)
+    private Space space;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RecurrenceFrequency frequency;
+
+    // A cada quantos dias/semanas/meses
+    @Column(name = "repeat_interval", nullable = false)
+    private Integer interval = 1;
+
+    @Column(nullable = false)
+    private Integer occurrences;
+
+    @Column(name = "first_start_date_time", nullable = false)
+    private LocalDateTime firstStartDateTime;
+
+    @Column(name = "first_end_date_time", nullable = false)
+    private LocalDateTime firstEndDateTime;
+
+    @Column(nullable = false)
+    private Integer seats = 1;
+
+    // Preço de cada ocorrência
+    @Column(name = "occurrence_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal occurrencePrice;
+
+    @Column(length = 1000)
+    private String notes;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public LocalDateTime startOf(int occurrenceIndex) {
+        return frequency.shift(firstStartDateTime, (long) occurrenceIndex * interval);
+    }
+
+    // Mesma duração da primeira: deslocar o fim à parte quebra com o ajuste de fim de mês (31/01 -> 28/02)
+    public LocalDateTime endOf(int occurrenceIndex) {
+        return startOf(occurrenceIndex).plus(Duration.between(firstStartDateTime, firstEndDateTime));
+    }
+}
@@ -17,9 +17,15 @@ import java.time.LocalDateTime;
 public class Space {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "spaces_seq")
+    @SequenceGenerator(name = "spaces_seq", sequenceName = "spaces_seq", allocationSize = 50)
     private Long id;
 
+    // Locking otimista: atualização a partir de uma leitura desatualizada falha em vez de sobrescrever
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false, length = 100)
     private String name;
 
@@ -0,0 +1,37 @@
+package com.coworking.smartcoworking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Totais financeiros de cada usuário, mantidos por deltas a cada mudança de cobrança
+@Entity
+@Table(name = "user_billing_ledgers")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBillingLedger {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "total_debt", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalDebt = BigDecimal.ZERO;
+
+    @Column(name = "total_paid", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+
+    @Column(name = "pending_count", nullable = false)
+    private Long pendingCount = 0L;
+
+    @Column(name = "overdue_count", nullable = false)
+    private Long overdueCount = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
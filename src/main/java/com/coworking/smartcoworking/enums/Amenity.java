@@ -0,0 +1,29 @@
+package com.coworking.smartcoworking.enums;
+
+import com.coworking.smartcoworking.entity.Space;
+
+public enum Amenity {
+    WIFI("Wi-Fi"),
+    PROJETOR("Projetor"),
+    QUADRO_BRANCO("Quadro Branco"),
+    AR_CONDICIONADO("Ar-condicionado");
+
+    private final String displayName;
+
+    Amenity(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public boolean isAvailableIn(Space space) {
+        return switch (this) {
+            case WIFI -> Boolean.TRUE.equals(space.getHasWifi());
+            case PROJETOR -> Boolean.TRUE.equals(space.getHasProjector());
+            case QUADRO_BRANCO -> Boolean.TRUE.equals(space.getHasWhiteboard());
+            case AR_CONDICIONADO -> Boolean.TRUE.equals(space.getHasAC());
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.coworking.smartcoworking.enums;
+
+public enum BillingOutboxType {
+    CRIADA("Reserva criada"),
+    VALOR_ALTERADO("Valor alterado"),
+    CANCELADA("Reserva cancelada");
+
+    private final String displayName;
+
+    BillingOutboxType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,28 @@
+package com.coworking.smartcoworking.enums;
+
+import java.time.LocalDateTime;
+
+public enum RecurrenceFrequency {
+    DIARIA("Diária"),
+    SEMANAL("Semanal"),
+    MENSAL("Mensal");
+
+    private final String displayName;
+
+    RecurrenceFrequency(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    // Sempre a partir da primeira ocorrência: no mensal, dia 31 cai no último dia dos meses curtos
+    public LocalDateTime shift(LocalDateTime first, long steps) {
+        return switch (this) {
+            case DIARIA -> first.plusDays(steps);
+            case SEMANAL -> first.plusWeeks(steps);
+            case MENSAL -> first.plusMonths(steps);
+        };
+    }
+}
@@ -17,4 +17,9 @@ public enum ReservationStatus {
     public String getDisplayName() {
         return displayName;
     }
+
+    // Status finais não ocupam mais o horário do espaço
+    public boolean isTerminal() {
+        return this == CONCLUIDA || this == CANCELADA || this == EXPIRADA;
+    }
 }
\ No newline at end of file
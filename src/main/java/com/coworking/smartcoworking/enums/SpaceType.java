@@ -16,4 +16,9 @@ public enum SpaceType {
     public String getDisplayName() {
         return displayName;
     }
+
+    // Espaços compartilhados aceitam reservas sobrepostas até a capacidade (cada uma ocupa lugares)
+    public boolean isShared() {
+        return this == HOT_DESK || this == AUDITORIO;
+    }
 }
\ No newline at end of file
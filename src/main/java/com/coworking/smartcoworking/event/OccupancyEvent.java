@@ -0,0 +1,12 @@
+package com.coworking.smartcoworking.event;
+
+import java.time.LocalDateTime;
+
+// Leitura de sensor aceita pela ingestão, aguardando gravação em lote
+public record OccupancyEvent(
+        long spaceId,
+        boolean occupied,
+        LocalDateTime timestamp,
+        String notes
+) {
+}
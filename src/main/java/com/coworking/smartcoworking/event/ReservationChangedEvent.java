@@ -0,0 +1,49 @@
+package com.coworking.smartcoworking.event;
+
+import com.coworking.smartcoworking.entity.Reservation;
+import com.coworking.smartcoworking.enums.ReservationStatus;
+
+import java.time.LocalDateTime;
+
+// Publicado pelo ReservationService a cada mudança no ciclo de vida de uma reserva.
+// status == null indica que a reserva foi removida do banco.
+public record ReservationChangedEvent(
+        Long reservationId,
+        Long spaceId,
+        LocalDateTime startDateTime,
+        LocalDateTime endDateTime,
+        ReservationStatus previousStatus,
+        ReservationStatus status
+) {
+
+    public static ReservationChangedEvent of(Reservation reservation, ReservationStatus previousStatus) {
+        return new ReservationChangedEvent(
+                reservation.getId(),
+                reservation.getSpace().getId(),
+                reservation.getStartDateTime(),
+                reservation.getEndDateTime(),
+                previousStatus,
+                reservation.getStatus()
+        );
+    }
+
+    public static ReservationChangedEvent deleted(Reservation reservation) {
+        return new ReservationChangedEvent(
+                reservation.getId(),
+                reservation.getSpace().getId(),
+                reservation.getStartDateTime(),
+                reservation.getEndDateTime(),
+                reservation.getStatus(),
+                null
+        );
+    }
+
+    public boolean isDeleted() {
+        return status == null;
+    }
+
+    // Reserva ainda ocupa o horário no espaço
+    public boolean isLive() {
+        return status != null && !status.isTerminal();
+    }
+}
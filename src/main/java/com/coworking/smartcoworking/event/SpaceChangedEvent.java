@@ -0,0 +1,20 @@
+package com.coworking.smartcoworking.event;
+
+import com.coworking.smartcoworking.entity.Space;
+
+// Publicado pelo SpaceService a cada alteração no catálogo de espaços.
+// space == null indica que o espaço foi removido do banco.
+public record SpaceChangedEvent(Long spaceId, Space space) {
+
+    public static SpaceChangedEvent of(Space space) {
+        return new SpaceChangedEvent(space.getId(), space);
+    }
+
+    public static SpaceChangedEvent deleted(Long spaceId) {
+        return new SpaceChangedEvent(spaceId, null);
+    }
+
+    public boolean isDeleted() {
+        return space == null;
+    }
+}
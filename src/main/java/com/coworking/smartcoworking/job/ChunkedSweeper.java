@@ -0,0 +1,43 @@
+package com.coworking.smartcoworking.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.IntUnaryOperator;
+
+// Executa uma atualização em massa em lotes, cada lote em sua própria transação curta,
+// para que os locks de linha sejam liberados rapidamente entre um lote e outro.
+@Slf4j
+@Component
+public class ChunkedSweeper {
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ChunkedSweeper(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // chunk recebe o tamanho do lote e devolve quantas linhas alterou; termina no primeiro lote incompleto
+    public SweepResult sweep(String name, int chunkSize, IntUnaryOperator chunk) {
+        long startedAt = System.nanoTime();
+        long rows = 0;
+        int chunks = 0;
+        int changed;
+
+        do {
+            Integer result = transactionTemplate.execute(status -> chunk.applyAsInt(chunkSize));
+            changed = result != null ? result : 0;
+            rows += changed;
+            chunks++;
+        } while (changed == chunkSize);
+
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        log.info("Varredura '{}': {} linhas alteradas em {} lotes ({} ms)", name, rows, chunks, elapsedMillis);
+
+        return new SweepResult(name, rows, chunks, elapsedMillis);
+    }
+}
@@ -0,0 +1,70 @@
+package com.coworking.smartcoworking.job;
+
+import com.coworking.smartcoworking.cache.ReservationHoldRegistry;
+import com.coworking.smartcoworking.cache.ReservationIntervalIndex;
+import com.coworking.smartcoworking.cache.SeatCapacityIndex;
+import com.coworking.smartcoworking.cache.SlotAvailabilityCache;
+import com.coworking.smartcoworking.service.BillingOutboxRelay;
+import com.coworking.smartcoworking.service.BillingService;
+import com.coworking.smartcoworking.service.IdempotencyService;
+import com.coworking.smartcoworking.service.OccupancyRetentionService;
+import com.coworking.smartcoworking.service.ReservationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+public class MaintenanceJobs {
+
+    private final BillingService billingService;
+    private final BillingOutboxRelay billingOutboxRelay;
+    private final ReservationService reservationService;
+    private final OccupancyRetentionService occupancyRetentionService;
+    private final IdempotencyService idempotencyService;
+    private final ReservationHoldRegistry reservationHoldRegistry;
+    private final ReservationIntervalIndex reservationIntervalIndex;
+    private final SlotAvailabilityCache slotAvailabilityCache;
+    private final SeatCapacityIndex seatCapacityIndex;
+
+    @Scheduled(cron = "${coworking.jobs.overdue-billings.cron}")
+    public void markOverdueBillings() {
+        billingService.processOverdueBillings();
+    }
+
+    @Scheduled(fixedDelayString = "${coworking.billing-outbox.relay-interval-ms}")
+    public void relayBillingOutbox() {
+        billingOutboxRelay.relayPending();
+    }
+
+    @Scheduled(fixedRateString = "${coworking.holds.tick-ms}")
+    public void reclaimExpiredHolds() {
+        reservationHoldRegistry.reclaimExpired();
+    }
+
+    @Scheduled(cron = "${coworking.jobs.expired-reservations.cron}")
+    public void expireReservations() {
+        reservationService.processExpiredReservations();
+    }
+
+    // Reservas que terminaram sem evento final (ex.: EM_USO sem check-out) saem dos índices em memória
+    @Scheduled(cron = "${coworking.jobs.expired-reservations.cron}")
+    public void prunePastReservationSlots() {
+        LocalDateTime now = LocalDateTime.now();
+        reservationIntervalIndex.prunePast(now);
+        slotAvailabilityCache.prunePast(now);
+        seatCapacityIndex.prunePast(now);
+    }
+
+    @Scheduled(cron = "${coworking.jobs.occupancy-retention.cron}")
+    public void maintainOccupancyPartitions() {
+        occupancyRetentionService.process();
+    }
+
+    @Scheduled(cron = "${coworking.jobs.idempotency-purge.cron}")
+    public void purgeIdempotencyKeys() {
+        idempotencyService.purgeExpired();
+    }
+}
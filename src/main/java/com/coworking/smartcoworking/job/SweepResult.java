@@ -0,0 +1,5 @@
+package com.coworking.smartcoworking.job;
+
+// Resumo de uma varredura em lotes: linhas alteradas, lotes executados e duração
+public record SweepResult(String name, long rows, int chunks, long elapsedMillis) {
+}
@@ -0,0 +1,27 @@
+package com.coworking.smartcoworking.repository;
+
+import com.coworking.smartcoworking.entity.BillingOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BillingOutboxRepository extends JpaRepository<BillingOutboxEvent, Long> {
+
+    // Assumir o relay até o fim da transação, esperando o lote de outra instância terminar
+    // (um lote por vez mantém a ordem por reserva)
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:key)", nativeQuery = true)
+    int lockRelay(@Param("key") long key);
+
+    // Buscar os eventos mais antigos, na ordem das transações que os gravaram (ver V6)
+    @Query(value = "SELECT * FROM billing_outbox ORDER BY tx_id, id LIMIT :limit", nativeQuery = true)
+    List<BillingOutboxEvent> findOldest(@Param("limit") int limit);
+
+    // Buscar a data do evento mais antigo ainda na fila
+    @Query("SELECT MIN(e.createdAt) FROM BillingOutboxEvent e")
+    LocalDateTime findOldestCreatedAt();
+}
@@ -1,18 +1,27 @@
 package com.coworking.smartcoworking.repository;
 
+import com.coworking.smartcoworking.dto.billing.BillingExportRow;
 import com.coworking.smartcoworking.entity.Billing;
 import com.coworking.smartcoworking.entity.Reservation;
 import com.coworking.smartcoworking.entity.User;
 import com.coworking.smartcoworking.enums.BillingStatus;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface BillingRepository extends JpaRepository<Billing, Long> {
@@ -20,6 +29,9 @@ public interface BillingRepository extends JpaRepository<Billing, Long> {
     // Buscar cobrança por reserva
     Optional<Billing> findByReservation(Reservation reservation);
 
+    // Buscar cobranças de várias reservas de uma vez
+    List<Billing> findByReservationIdIn(Collection<Long> reservationIds);
+
     // Buscar cobranças por usuário
     List<Billing> findByUser(User user);
 
@@ -37,6 +49,15 @@ public interface BillingRepository extends JpaRepository<Billing, Long> {
             "AND b.dueDate < :today")
     List<Billing> findOverdueBillings(@Param("today") LocalDate today);
 
+    // Marcar um lote de cobranças vencidas como ATRASADA (linhas bloqueadas por outra transação ficam
+    // para o próximo lote), devolvendo o user_id de cada linha alterada. ANY(ARRAY(...)) resolve o lote
+    // uma vez e atualiza pela chave primária; com IN o planner faz semi join varrendo a tabela inteira
+    @Query(value = "UPDATE billings SET status = 'ATRASADA', updated_at = now(), version = version + 1 " +
+            "WHERE id = ANY(ARRAY(" +
+            "SELECT id FROM billings WHERE status = 'PENDENTE' AND due_date < :today " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED)) RETURNING user_id", nativeQuery = true)
+    List<Long> markOverdueChunk(@Param("today") LocalDate today, @Param("limit") int limit);
+
     // Buscar cobranças a vencer em X dias
     @Query("SELECT b FROM Billing b WHERE b.status = 'PENDENTE' " +
             "AND b.dueDate BETWEEN :today AND :futureDate")
@@ -78,4 +99,27 @@ public interface BillingRepository extends JpaRepository<Billing, Long> {
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate
     );
-}
\ No newline at end of file
+
+    // Exportação: cursor com fetch size limitado, projeção plana ordenada por criação
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.coworking.smartcoworking.dto.billing.BillingExportRow(" +
+            "b.id, b.reservation.id, u.id, u.email, b.amount, b.status, b.dueDate, b.paidDate, " +
+            "b.paymentMethod, b.createdAt) FROM Billing b JOIN b.user u " +
+            "WHERE b.createdAt >= :start AND b.createdAt < :end ORDER BY b.createdAt, b.id")
+    Stream<BillingExportRow> streamForExport(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    // Exportação de cobranças pagas no período (data de pagamento)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.coworking.smartcoworking.dto.billing.BillingExportRow(" +
+            "b.id, b.reservation.id, u.id, u.email, b.amount, b.status, b.dueDate, b.paidDate, " +
+            "b.paymentMethod, b.createdAt) FROM Billing b JOIN b.user u " +
+            "WHERE b.status = 'PAGA' AND b.paidDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY b.paidDate, b.id")
+    Stream<BillingExportRow> streamPaidForExport(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+}
@@ -0,0 +1,64 @@
+package com.coworking.smartcoworking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Tabela de respostas das requisições com Idempotency-Key (JDBC: upsert e leitura por chave)
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    // Chave nova ou expirada: (re)inicia a linha; chave válida de outra transação: não altera nada.
+    // Com a mesma chave sendo inserida por outra transação, espera o commit ou rollback dela.
+    private static final String CLAIM_SQL =
+            "INSERT INTO idempotency_keys (scope, idempotency_key, request_hash, created_at, expires_at) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (scope, idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, " +
+            "status_code = NULL, response_body = NULL, created_at = EXCLUDED.created_at, " +
+            "expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotency_keys.expires_at <= EXCLUDED.created_at";
+
+    private static final String FIND_SQL =
+            "SELECT request_hash, status_code, response_body FROM idempotency_keys " +
+            "WHERE scope = ? AND idempotency_key = ?";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE idempotency_keys SET status_code = ?, response_body = ? WHERE scope = ? AND idempotency_key = ?";
+
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM idempotency_keys WHERE expires_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record StoredResponse(String requestHash, Integer status, String body) {
+    }
+
+    // Reservar a chave para esta transação (false = já existe uma resposta válida para ela)
+    public boolean claim(String scope, String key, String requestHash, LocalDateTime now, LocalDateTime expiresAt) {
+        return jdbcTemplate.update(CLAIM_SQL, scope, key, requestHash,
+                Timestamp.valueOf(now), Timestamp.valueOf(expiresAt)) == 1;
+    }
+
+    // Buscar a resposta gravada para a chave
+    public Optional<StoredResponse> find(String scope, String key) {
+        List<StoredResponse> rows = jdbcTemplate.query(FIND_SQL,
+                (rs, i) -> new StoredResponse(rs.getString(1), (Integer) rs.getObject(2), rs.getString(3)),
+                scope, key);
+        return rows.stream().findFirst();
+    }
+
+    // Gravar a resposta da operação (mesma transação do claim)
+    public void complete(String scope, String key, int status, String body) {
+        jdbcTemplate.update(COMPLETE_SQL, status, body, scope, key);
+    }
+
+    // Remover chaves expiradas
+    public int deleteExpired(LocalDateTime now) {
+        return jdbcTemplate.update(DELETE_EXPIRED_SQL, Timestamp.valueOf(now));
+    }
+}
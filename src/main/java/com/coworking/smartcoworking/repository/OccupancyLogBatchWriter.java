@@ -0,0 +1,56 @@
+package com.coworking.smartcoworking.repository;
+
+import com.coworking.smartcoworking.event.OccupancyEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+// Gravação em lote de leituras de sensores (JDBC batch, sem passar pelo contexto JPA)
+@Repository
+@RequiredArgsConstructor
+public class OccupancyLogBatchWriter {
+
+    // Mesma sequência e tamanho de bloco da entidade OccupancyLog: cada nextval reserva (valor - 49 .. valor]
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String NEXT_ID_BLOCKS_SQL =
+            "SELECT nextval('occupancy_logs_seq') FROM generate_series(1, ?)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO occupancy_logs (id, space_id, timestamp, occupied, notes) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<OccupancyEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // Um round trip reserva os IDs do lote inteiro
+        List<Long> blocks = jdbcTemplate.queryForList(NEXT_ID_BLOCKS_SQL, Long.class,
+                (events.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE);
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OccupancyEvent event = events.get(i);
+                ps.setLong(1, blocks.get(i / ID_BLOCK_SIZE) - ID_BLOCK_SIZE + 1 + i % ID_BLOCK_SIZE);
+                ps.setLong(2, event.spaceId());
+                ps.setTimestamp(3, Timestamp.valueOf(event.timestamp()));
+                ps.setBoolean(4, event.occupied());
+                ps.setString(5, event.notes());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return events.size();
+            }
+        });
+    }
+}
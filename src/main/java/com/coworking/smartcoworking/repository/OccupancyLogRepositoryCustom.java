@@ -0,0 +1,32 @@
+package com.coworking.smartcoworking.repository;
+
+import com.coworking.smartcoworking.entity.Space;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Consultas por período que leem do dado bruto ou do agregado horário, conforme o intervalo.
+// Antes do horizonte de retenção a granularidade é de uma hora.
+public interface OccupancyLogRepositoryCustom {
+
+    // Contar quantas vezes um espaço ficou ocupado em [start, end]
+    Long countOccupanciesByPeriod(Space space, LocalDateTime start, LocalDateTime end);
+
+    // Tempo ocupado, sessões e maior sessão de um espaço em [start, end); sessão aberta conta até :until
+    OccupancySessions summarizeSessions(Long spaceId, LocalDateTime start, LocalDateTime end, LocalDateTime until);
+
+    // Segundos ocupados por espaço e hora em [start, end), entregues linha a linha ao handler
+    void forEachOccupiedHour(LocalDateTime start, LocalDateTime end, OccupiedHourHandler handler);
+
+    // Estado de cada espaço no instante at (espaços sem nenhum evento anterior ficam de fora)
+    Map<Long, Boolean> findStatesAt(LocalDateTime at);
+
+    @FunctionalInterface
+    interface OccupiedHourHandler {
+        void accept(long spaceId, LocalDateTime hour, int occupiedSeconds);
+    }
+
+    // No trecho agregado, sessões que cruzam a virada do mês são medidas separadamente em cada mês
+    record OccupancySessions(long occupiedSeconds, long sessions, long longestSessionSeconds) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.coworking.smartcoworking.repository;
+
+import com.coworking.smartcoworking.entity.Space;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class OccupancyLogRepositoryCustomImpl implements OccupancyLogRepositoryCustom {
+
+    private static final String COUNT_RAW_SQL =
+            "SELECT COUNT(*) FROM occupancy_logs WHERE space_id = :spaceId AND occupied " +
+            "AND timestamp >= :start AND timestamp <= :end";
+
+    private static final String COUNT_ROLLED_SQL =
+            "SELECT COALESCE(SUM(occupied_events), 0) FROM occupancy_hourly WHERE space_id = :spaceId " +
+            "AND hour >= date_trunc('hour', CAST(:start AS timestamp)) AND hour < :end";
+
+    private static final String SUM_ROLLED_SQL =
+            "SELECT COALESCE(SUM(occupied_seconds), 0), COALESCE(SUM(sessions_started), 0), " +
+            "  COALESCE(MAX(longest_session_seconds), 0) " +
+            "FROM occupancy_hourly WHERE space_id = :spaceId " +
+            "AND hour >= date_trunc('hour', CAST(:start AS timestamp)) AND hour < :end";
+
+    // Sessões em uma única passada ordenada: parte do estado anterior ao período (dado bruto ou,
+    // se já descartado, o agregado horário), colapsa leituras repetidas em transições e mede cada
+    // sessão até a próxima transição (ou até :until se ainda aberta). Com countSeed = false, a sessão
+    // que já estava aberta no início não entra na contagem (foi contada no trecho anterior).
+    private static final String SESSIONS_RAW_SQL =
+            "WITH raw_seed AS (" +
+            "  SELECT occupied FROM occupancy_logs WHERE space_id = :spaceId AND timestamp < :start " +
+            "  ORDER BY timestamp DESC, id DESC LIMIT 1" +
+            "), rolled_seed AS (" +
+            "  SELECT occupied_at_end AS occupied FROM occupancy_hourly WHERE space_id = :spaceId " +
+            "  AND hour <= CAST(:start AS timestamp) - interval '1 hour' ORDER BY hour DESC LIMIT 1" +
+            "), events AS (" +
+            "  SELECT 0 AS id, CAST(:start AS timestamp) AS ts, occupied, true AS seed FROM (" +
+            "    SELECT occupied FROM raw_seed " +
+            "    UNION ALL SELECT occupied FROM rolled_seed WHERE NOT EXISTS (SELECT 1 FROM raw_seed)) s " +
+            "  UNION ALL " +
+            "  SELECT id, timestamp, occupied, false FROM occupancy_logs " +
+            "  WHERE space_id = :spaceId AND timestamp >= :start AND timestamp < :end" +
+            "), changes AS (" +
+            "  SELECT ts, occupied, seed, LAG(occupied) OVER (ORDER BY ts, id) AS previous FROM events" +
+            "), transitions AS (" +
+            "  SELECT ts, occupied, seed, LEAD(ts) OVER (ORDER BY ts) AS next_ts FROM changes " +
+            "  WHERE previous IS DISTINCT FROM occupied" +
+            "), sessions AS (" +
+            "  SELECT seed, GREATEST(EXTRACT(EPOCH FROM (COALESCE(next_ts, CAST(:until AS timestamp)) - ts)), 0) AS seconds " +
+            "  FROM transitions WHERE occupied" +
+            ") " +
+            "SELECT COALESCE(SUM(seconds), 0), COUNT(*) FILTER (WHERE :countSeed OR NOT seed), " +
+            "  COALESCE(MAX(seconds), 0) FROM sessions";
+
+    // Estado de cada espaço antes de :start: último evento bruto ou, se já descartado, o agregado horário
+    private static final String SEEDS_SQL =
+            "SELECT s.id AS space_id, COALESCE(r.occupied, h.occupied_at_end) AS occupied FROM spaces s " +
+            "LEFT JOIN LATERAL (SELECT occupied FROM occupancy_logs WHERE space_id = s.id " +
+            "  AND timestamp < :start ORDER BY timestamp DESC, id DESC LIMIT 1) r ON true " +
+            "LEFT JOIN LATERAL (SELECT occupied_at_end FROM occupancy_hourly WHERE space_id = s.id " +
+            "  AND hour <= CAST(:start AS timestamp) - interval '1 hour' ORDER BY hour DESC LIMIT 1) h ON true " +
+            "WHERE COALESCE(r.occupied, h.occupied_at_end) IS NOT NULL";
+
+    // Mesma passada por transições do agregado mensal, para todos os espaços de uma vez
+    private static final String OCCUPIED_HOURS_RAW_SQL =
+            "WITH seeds AS (" + SEEDS_SQL + "), events AS (" +
+            "  SELECT 0 AS id, space_id, CAST(:start AS timestamp) AS ts, occupied FROM seeds " +
+            "  UNION ALL SELECT id, space_id, timestamp, occupied FROM occupancy_logs " +
+            "  WHERE timestamp >= :start AND timestamp < :end" +
+            "), changes AS (" +
+            "  SELECT space_id, ts, occupied, " +
+            "    LAG(occupied) OVER (PARTITION BY space_id ORDER BY ts, id) AS previous FROM events" +
+            "), transitions AS (" +
+            "  SELECT space_id, ts, occupied, " +
+            "    COALESCE(LEAD(ts) OVER (PARTITION BY space_id ORDER BY ts), CAST(:end AS timestamp)) AS next_ts " +
+            "  FROM changes WHERE previous IS DISTINCT FROM occupied" +
+            ") " +
+            "SELECT space_id, h AS hour, " +
+            "  SUM(EXTRACT(EPOCH FROM LEAST(next_ts, h + interval '1 hour') - GREATEST(ts, h)))::int " +
+            "FROM transitions CROSS JOIN LATERAL generate_series(" +
+            "  date_trunc('hour', ts), next_ts - interval '1 microsecond', interval '1 hour') AS h " +
+            "WHERE occupied AND next_ts > ts GROUP BY space_id, h";
+
+    private static final String OCCUPIED_HOURS_ROLLED_SQL =
+            "SELECT space_id, hour, occupied_seconds FROM occupancy_hourly " +
+            "WHERE hour >= date_trunc('hour', CAST(:start AS timestamp)) AND hour < :end AND occupied_seconds > 0";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final OccupancyPartitionRepository partitionRepository;
+
+    @Override
+    public Long countOccupanciesByPeriod(Space space, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime horizon = partitionRepository.findRawHorizon();
+        long count = 0;
+
+        if (horizon != null && start.isBefore(horizon)) {
+            LocalDateTime rolledEnd = end.isBefore(horizon) ? end : horizon;
+            count += jdbcTemplate.queryForObject(COUNT_ROLLED_SQL,
+                    params(space.getId(), start, rolledEnd), Long.class);
+        }
+        if (horizon == null || !end.isBefore(horizon)) {
+            LocalDateTime rawStart = horizon != null && start.isBefore(horizon) ? horizon : start;
+            count += jdbcTemplate.queryForObject(COUNT_RAW_SQL,
+                    params(space.getId(), rawStart, end), Long.class);
+        }
+        return count;
+    }
+
+    @Override
+    public OccupancySessions summarizeSessions(Long spaceId, LocalDateTime start, LocalDateTime end,
+                                               LocalDateTime until) {
+        LocalDateTime horizon = partitionRepository.findRawHorizon();
+        if (horizon == null || !start.isBefore(horizon)) {
+            return summarizeRaw(spaceId, start, end, until, true);
+        }
+
+        // Trecho agregado: [start, horizon) com granularidade de hora
+        LocalDateTime rolledEnd = end.isBefore(horizon) ? end : horizon;
+        long[] rolled = jdbcTemplate.queryForObject(SUM_ROLLED_SQL, params(spaceId, start, rolledEnd),
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+
+        // Sessão já aberta no início do período também conta
+        OccupancySessions atStart = summarizeRaw(spaceId, start, start, start, true);
+        long sessions = rolled[1] + atStart.sessions();
+
+        if (!end.isAfter(horizon)) {
+            return new OccupancySessions(rolled[0], sessions, rolled[2]);
+        }
+
+        OccupancySessions raw = summarizeRaw(spaceId, horizon, end, until, false);
+        return new OccupancySessions(
+                rolled[0] + raw.occupiedSeconds(),
+                sessions + raw.sessions(),
+                Math.max(rolled[2], raw.longestSessionSeconds()));
+    }
+
+    @Override
+    public void forEachOccupiedHour(LocalDateTime start, LocalDateTime end, OccupiedHourHandler handler) {
+        LocalDateTime horizon = partitionRepository.findRawHorizon();
+        RowCallbackHandler rowHandler = rs -> handler.accept(
+                rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(), rs.getInt(3));
+
+        if (horizon != null && start.isBefore(horizon)) {
+            LocalDateTime rolledEnd = end.isBefore(horizon) ? end : horizon;
+            jdbcTemplate.query(OCCUPIED_HOURS_ROLLED_SQL, params(null, start, rolledEnd), rowHandler);
+        }
+        if (horizon == null || end.isAfter(horizon)) {
+            LocalDateTime rawStart = horizon != null && start.isBefore(horizon) ? horizon : start;
+            jdbcTemplate.query(OCCUPIED_HOURS_RAW_SQL, params(null, rawStart, end), rowHandler);
+        }
+    }
+
+    @Override
+    public Map<Long, Boolean> findStatesAt(LocalDateTime at) {
+        Map<Long, Boolean> states = new HashMap<>();
+        jdbcTemplate.query(SEEDS_SQL, params(null, at, at),
+                (RowCallbackHandler) rs -> states.put(rs.getLong(1), rs.getBoolean(2)));
+        return states;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private OccupancySessions summarizeRaw(Long spaceId, LocalDateTime start, LocalDateTime end,
+                                           LocalDateTime until, boolean countSeed) {
+        MapSqlParameterSource params = params(spaceId, start, end)
+                .addValue("until", until)
+                .addValue("countSeed", countSeed);
+        return jdbcTemplate.queryForObject(SESSIONS_RAW_SQL, params,
+                (rs, rowNum) -> new OccupancySessions(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+    }
+
+    private static MapSqlParameterSource params(Long spaceId, LocalDateTime start, LocalDateTime end) {
+        return new MapSqlParameterSource()
+                .addValue("spaceId", spaceId)
+                .addValue("start", start)
+                .addValue("end", end);
+    }
+}
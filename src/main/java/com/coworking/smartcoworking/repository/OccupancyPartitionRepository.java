@@ -0,0 +1,175 @@
+package com.coworking.smartcoworking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// Manutenção das partições mensais de occupancy_logs e do agregado horário (occupancy_hourly)
+@Repository
+@RequiredArgsConstructor
+public class OccupancyPartitionRepository {
+
+    // Primeira metade da chave do advisory lock por mês (a segunda é o mês, yyyyMM)
+    private static final int RETENTION_LOCK_KEY = 0x6f63_6375;
+
+    private static final String PARTITION_PREFIX = "occupancy_logs_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    // Agrega um mês de eventos brutos em linhas por espaço e hora. O estado no início do mês
+    // vem do agregado do mês anterior (occupied_at_end), já que as partições anteriores foram descartadas.
+    private static final String ROLLUP_SQL =
+            "INSERT INTO occupancy_hourly (space_id, hour, occupied_seconds, events, occupied_events, " +
+            "  sessions_started, longest_session_seconds, occupied_at_end) " +
+            "WITH seeds AS (" +
+            "  SELECT s.id AS space_id, h.occupied_at_end AS occupied FROM spaces s CROSS JOIN LATERAL (" +
+            "    SELECT occupied_at_end FROM occupancy_hourly " +
+            "    WHERE space_id = s.id AND hour < :monthStart ORDER BY hour DESC LIMIT 1) h" +
+            "), raw AS (" +
+            "  SELECT id, space_id, timestamp AS ts, occupied FROM occupancy_logs " +
+            "  WHERE timestamp >= :monthStart AND timestamp < :monthEnd" +
+            "), events AS (" +
+            "  SELECT 0 AS id, space_id, CAST(:monthStart AS timestamp) AS ts, occupied, true AS seed FROM seeds " +
+            "  UNION ALL SELECT id, space_id, ts, occupied, false FROM raw" +
+            "), changes AS (" +
+            "  SELECT space_id, ts, occupied, seed, " +
+            "    LAG(occupied) OVER (PARTITION BY space_id ORDER BY ts, id) AS previous FROM events" +
+            "), transitions AS (" +
+            "  SELECT space_id, ts, occupied, seed, " +
+            "    COALESCE(LEAD(ts) OVER (PARTITION BY space_id ORDER BY ts), CAST(:monthEnd AS timestamp)) AS next_ts " +
+            "  FROM changes WHERE previous IS DISTINCT FROM occupied" +
+            "), occupied_hours AS (" +
+            "  SELECT space_id, h AS hour, " +
+            "    SUM(EXTRACT(EPOCH FROM LEAST(next_ts, h + interval '1 hour') - GREATEST(ts, h)))::int AS occupied_seconds, " +
+            "    bool_or(next_ts >= h + interval '1 hour') AS occupied_at_end " +
+            "  FROM transitions CROSS JOIN LATERAL generate_series(" +
+            "    date_trunc('hour', ts), next_ts - interval '1 microsecond', interval '1 hour') AS h " +
+            "  WHERE occupied AND next_ts > ts GROUP BY space_id, h" +
+            "), end_hours AS (" +
+            "  SELECT space_id, date_trunc('hour', next_ts - interval '1 microsecond') AS hour, " +
+            "    MAX(EXTRACT(EPOCH FROM next_ts - ts))::int AS longest_session_seconds " +
+            "  FROM transitions WHERE occupied AND next_ts > ts GROUP BY 1, 2" +
+            "), event_hours AS (" +
+            "  SELECT space_id, date_trunc('hour', ts) AS hour, COUNT(*) AS events, " +
+            "    COUNT(*) FILTER (WHERE occupied) AS occupied_events FROM raw GROUP BY 1, 2" +
+            "), start_hours AS (" +
+            "  SELECT space_id, date_trunc('hour', ts) AS hour, COUNT(*) AS sessions_started " +
+            "  FROM transitions WHERE occupied AND NOT seed GROUP BY 1, 2" +
+            ") " +
+            "SELECT COALESCE(o.space_id, e.space_id, st.space_id), COALESCE(o.hour, e.hour, st.hour), " +
+            "  COALESCE(o.occupied_seconds, 0), COALESCE(e.events, 0), COALESCE(e.occupied_events, 0), " +
+            "  COALESCE(st.sessions_started, 0), COALESCE(eh.longest_session_seconds, 0), " +
+            "  COALESCE(o.occupied_at_end, false) " +
+            "FROM occupied_hours o " +
+            "LEFT JOIN end_hours eh ON eh.space_id = o.space_id AND eh.hour = o.hour " +
+            "FULL JOIN event_hours e ON e.space_id = o.space_id AND e.hour = o.hour " +
+            "FULL JOIN start_hours st ON st.space_id = COALESCE(o.space_id, e.space_id) " +
+            "  AND st.hour = COALESCE(o.hour, e.hour) " +
+            "ON CONFLICT (space_id, hour) DO UPDATE SET " +
+            "  occupied_seconds = EXCLUDED.occupied_seconds, events = EXCLUDED.events, " +
+            "  occupied_events = EXCLUDED.occupied_events, sessions_started = EXCLUDED.sessions_started, " +
+            "  longest_session_seconds = EXCLUDED.longest_session_seconds, " +
+            "  occupied_at_end = EXCLUDED.occupied_at_end";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Meses com partição própria, do mais antigo para o mais recente
+    public List<YearMonth> findPartitionMonths() {
+        List<String> names = jdbcTemplate.getJdbcTemplate().queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'occupancy_logs'::regclass AND c.relname ~ '^occupancy_logs_p[0-9]{6}$' " +
+                "ORDER BY c.relname", String.class);
+        return names.stream()
+                .map(name -> YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX))
+                .toList();
+    }
+
+    // Meses anteriores a before com linhas na partição padrão (eventos fora das partições mensais)
+    public List<YearMonth> findDefaultPartitionMonthsBefore(YearMonth before) {
+        List<Date> months = jdbcTemplate.getJdbcTemplate().queryForList(
+                "SELECT DISTINCT CAST(date_trunc('month', timestamp) AS date) FROM occupancy_logs_default " +
+                "WHERE timestamp < ? ORDER BY 1", Date.class, before.atDay(1).atStartOfDay());
+        return months.stream()
+                .map(date -> YearMonth.from(date.toLocalDate()))
+                .toList();
+    }
+
+    // Início do dado bruto mais antigo retido (antes disso, só o agregado horário); null se não houver partições.
+    // Eventos antigos que caíram na partição padrão ainda são brutos até a retenção agregá-los, mas nunca
+    // antes do fim do último mês agregado: sobras ali não representam o mês e o agregado prevalece.
+    public LocalDateTime findRawHorizon() {
+        List<YearMonth> months = findPartitionMonths();
+        if (months.isEmpty()) {
+            return null;
+        }
+        LocalDateTime firstPartition = months.get(0).atDay(1).atStartOfDay();
+        LocalDateTime firstDefault = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT date_trunc('month', MIN(timestamp)) FROM occupancy_logs_default", LocalDateTime.class);
+        LocalDateTime horizon = firstDefault != null && firstDefault.isBefore(firstPartition)
+                ? firstDefault : firstPartition;
+
+        LocalDateTime rolledUpUntil = findRolledUpUntil();
+        return rolledUpUntil != null && horizon.isBefore(rolledUpUntil) ? rolledUpUntil : horizon;
+    }
+
+    // Fim do último mês agregado em occupancy_hourly; null se nada foi agregado ainda
+    public LocalDateTime findRolledUpUntil() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT date_trunc('month', MAX(hour)) + interval '1 month' FROM occupancy_hourly",
+                LocalDateTime.class);
+    }
+
+    // Trava o mês até o fim da transação, esperando a retenção de outra instância terminar com ele
+    public void lockMonth(YearMonth month) {
+        jdbcTemplate.getJdbcTemplate().queryForList("SELECT 1 FROM pg_advisory_xact_lock(?, ?)",
+                RETENTION_LOCK_KEY, Integer.parseInt(month.format(PARTITION_SUFFIX)));
+    }
+
+    public boolean hasPartition(YearMonth month) {
+        return Boolean.TRUE.equals(jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, partitionName(month)));
+    }
+
+    // Eventos do mês que caíram na partição padrão
+    public boolean hasDefaultPartitionRows(YearMonth month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM occupancy_logs_default " +
+                "WHERE timestamp >= :monthStart AND timestamp < :monthEnd)", monthParams(month), Boolean.class));
+    }
+
+    public void ensurePartition(YearMonth month) {
+        jdbcTemplate.getJdbcTemplate().queryForList(
+                "SELECT ensure_occupancy_partition(CAST(? AS date))", month.atDay(1));
+    }
+
+    // Retorna quantas linhas horárias foram gravadas
+    public int rollupMonth(YearMonth month) {
+        return jdbcTemplate.update(ROLLUP_SQL, monthParams(month));
+    }
+
+    // Descarta o mês inteiro de uma vez (DROP da partição), incluindo sobras na partição padrão
+    public void dropMonth(YearMonth month) {
+        jdbcTemplate.getJdbcTemplate().execute("DROP TABLE IF EXISTS " + partitionName(month));
+        jdbcTemplate.update(
+                "DELETE FROM occupancy_logs_default WHERE timestamp >= :monthStart AND timestamp < :monthEnd",
+                monthParams(month));
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    private static MapSqlParameterSource monthParams(YearMonth month) {
+        return new MapSqlParameterSource()
+                .addValue("monthStart", month.atDay(1).atStartOfDay())
+                .addValue("monthEnd", month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+}
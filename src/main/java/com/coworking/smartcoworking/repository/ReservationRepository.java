@@ -1,19 +1,44 @@
 package com.coworking.smartcoworking.repository;
 
+import com.coworking.smartcoworking.dto.reservation.ReservationExportRow;
+import com.coworking.smartcoworking.dto.reservation.ReservationOccurrenceDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationSeatSlotDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationSlotDTO;
 import com.coworking.smartcoworking.entity.Reservation;
 import com.coworking.smartcoworking.entity.Space;
 import com.coworking.smartcoworking.entity.User;
 import com.coworking.smartcoworking.enums.ReservationStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>,
+        JpaSpecificationExecutor<Reservation>, ReservationRepositoryCustom {
+
+    // Listagens carregam user e space no mesmo SELECT (evita N+1 na conversão para DTO)
+    @Override
+    @EntityGraph(attributePaths = {"user", "space"})
+    List<Reservation> findAll();
+
+    // Versão limitada da listagem geral (mais recentes primeiro)
+    @EntityGraph(attributePaths = {"user", "space"})
+    List<Reservation> findAllByOrderByStartDateTimeDescIdDesc(Limit limit);
 
     // Buscar reservas por usuário
     List<Reservation> findByUser(User user);
@@ -22,8 +47,12 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     List<Reservation> findByUserAndStatus(User user, ReservationStatus status);
 
     // Buscar reservas por espaço
+    @EntityGraph(attributePaths = {"user", "space"})
     List<Reservation> findBySpace(Space space);
 
+    @EntityGraph(attributePaths = {"user", "space"})
+    List<Reservation> findBySpaceOrderByStartDateTimeDescIdDesc(Space space, Limit limit);
+
     // Buscar reservas por espaço e status
     List<Reservation> findBySpaceAndStatus(Space space, ReservationStatus status);
 
@@ -35,8 +64,12 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     List<Reservation> findActiveReservations();
 
     // Buscar reservas de um usuário ordenadas por data
+    @EntityGraph(attributePaths = {"user", "space"})
     List<Reservation> findByUserOrderByStartDateTimeDesc(User user);
 
+    @EntityGraph(attributePaths = {"user", "space"})
+    List<Reservation> findByUserOrderByStartDateTimeDescIdDesc(User user, Limit limit);
+
     // Verificar se existe conflito de horário para um espaço
     @Query("SELECT r FROM Reservation r WHERE r.space = :space " +
             "AND r.status NOT IN ('CANCELADA', 'CONCLUIDA', 'EXPIRADA') " +
@@ -47,6 +80,67 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             @Param("endDateTime") LocalDateTime endDateTime
     );
 
+    // Buscar horários ocupados por reservas ativas (carga dos índices em memória)
+    @Query("SELECT new com.coworking.smartcoworking.dto.reservation.ReservationSlotDTO(" +
+            "r.id, r.space.id, r.startDateTime, r.endDateTime) FROM Reservation r " +
+            "WHERE r.status NOT IN ('CANCELADA', 'CONCLUIDA', 'EXPIRADA') " +
+            "AND r.endDateTime > :now")
+    List<ReservationSlotDTO> findActiveSlots(@Param("now") LocalDateTime now);
+
+    // Buscar horários ocupados de vários espaços em um período
+    @Query("SELECT new com.coworking.smartcoworking.dto.reservation.ReservationSlotDTO(" +
+            "r.id, r.space.id, r.startDateTime, r.endDateTime) FROM Reservation r " +
+            "WHERE r.space.id IN :spaceIds " +
+            "AND r.status NOT IN ('CANCELADA', 'CONCLUIDA', 'EXPIRADA') " +
+            "AND r.startDateTime < :end AND r.endDateTime > :start")
+    List<ReservationSlotDTO> findActiveSlotsBySpaces(
+            @Param("spaceIds") Collection<Long> spaceIds,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    // Buscar lugares ocupados por reservas ativas em espaços compartilhados (carga do índice de lugares)
+    @Query("SELECT new com.coworking.smartcoworking.dto.reservation.ReservationSeatSlotDTO(" +
+            "r.id, r.space.id, r.startDateTime, r.endDateTime, r.seats) FROM Reservation r " +
+            "WHERE r.sharedSpace = true " +
+            "AND r.status NOT IN ('CANCELADA', 'CONCLUIDA', 'EXPIRADA') " +
+            "AND r.endDateTime > :now")
+    List<ReservationSeatSlotDTO> findActiveSeatSlots(@Param("now") LocalDateTime now);
+
+    // Buscar lugares ocupados em um espaço compartilhado no período
+    @Query("SELECT new com.coworking.smartcoworking.dto.reservation.ReservationSeatSlotDTO(" +
+            "r.id, r.space.id, r.startDateTime, r.endDateTime, r.seats) FROM Reservation r " +
+            "WHERE r.space.id = :spaceId " +
+            "AND r.status NOT IN ('CANCELADA', 'CONCLUIDA', 'EXPIRADA') " +
+            "AND r.startDateTime < :end AND r.endDateTime > :start")
+    List<ReservationSeatSlotDTO> findActiveSeatSlotsInPeriod(
+            @Param("spaceId") Long spaceId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    // Buscar lugares de uma reserva ativa em espaço compartilhado
+    @Query("SELECT new com.coworking.smartcoworking.dto.reservation.ReservationSeatSlotDTO(" +
+            "r.id, r.space.id, r.startDateTime, r.endDateTime, r.seats) FROM Reservation r " +
+            "WHERE r.id = :id AND r.sharedSpace = true " +
+            "AND r.status NOT IN ('CANCELADA', 'CONCLUIDA', 'EXPIRADA')")
+    Optional<ReservationSeatSlotDTO> findActiveSeatSlot(@Param("id") Long id);
+
+    // Buscar as ocorrências gravadas de uma série em uma faixa de índices
+    @Query("SELECT new com.coworking.smartcoworking.dto.reservation.ReservationOccurrenceDTO(" +
+            "r.occurrenceIndex, r.id, r.startDateTime, r.endDateTime, r.status) FROM Reservation r " +
+            "WHERE r.series.id = :seriesId " +
+            "AND r.occurrenceIndex BETWEEN :fromIndex AND :toIndex")
+    List<ReservationOccurrenceDTO> findOccurrences(
+            @Param("seriesId") Long seriesId,
+            @Param("fromIndex") int fromIndex,
+            @Param("toIndex") int toIndex
+    );
+
+    // Buscar quais dos IDs ainda existem (reservas removidas antes do relay de cobranças)
+    @Query("SELECT r.id FROM Reservation r WHERE r.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
     // Buscar reservas de um espaço em um período
     @Query("SELECT r FROM Reservation r WHERE r.space = :space " +
             "AND r.startDateTime >= :start AND r.endDateTime <= :end " +
@@ -62,6 +156,15 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             "AND r.startDateTime < :now AND r.checkInTime IS NULL")
     List<Reservation> findExpiredReservations(@Param("now") LocalDateTime now);
 
+    // Expirar um lote de reservas sem check-in, devolvendo id, space_id, início e fim das linhas alteradas
+    // (ANY(ARRAY(...)) atualiza pela chave primária; ver BillingRepository.markOverdueChunk)
+    @Query(value = "UPDATE reservations SET status = 'EXPIRADA', updated_at = now(), version = version + 1 " +
+            "WHERE id = ANY(ARRAY(" +
+            "SELECT id FROM reservations WHERE status = 'CONFIRMADA' AND start_date_time < :now " +
+            "AND check_in_time IS NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED)) " +
+            "RETURNING id, space_id, start_date_time, end_date_time", nativeQuery = true)
+    List<Object[]> expireChunk(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
     // Buscar reservas em uso (com check-in mas sem check-out)
     @Query("SELECT r FROM Reservation r WHERE r.status = 'EM_USO' " +
             "AND r.checkInTime IS NOT NULL AND r.checkOutTime IS NULL")
@@ -71,6 +174,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     Long countByUserAndStatus(User user, ReservationStatus status);
 
     // Buscar próximas reservas de um usuário
+    @EntityGraph(attributePaths = {"user", "space"})
     @Query("SELECT r FROM Reservation r WHERE r.user = :user " +
             "AND r.status = 'CONFIRMADA' AND r.startDateTime > :now " +
             "ORDER BY r.startDateTime ASC")
@@ -78,4 +182,15 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             @Param("user") User user,
             @Param("now") LocalDateTime now
     );
-}
\ No newline at end of file
+
+    // Exportação: cursor com fetch size limitado, projeção plana por data de início
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.coworking.smartcoworking.dto.reservation.ReservationExportRow(" +
+            "r.id, r.user.id, s.id, s.name, r.startDateTime, r.endDateTime, r.totalPrice, r.status, " +
+            "r.checkInTime, r.checkOutTime, r.createdAt) FROM Reservation r JOIN r.space s " +
+            "WHERE r.startDateTime >= :start AND r.startDateTime < :end ORDER BY r.startDateTime, r.id")
+    Stream<ReservationExportRow> streamForExport(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+}
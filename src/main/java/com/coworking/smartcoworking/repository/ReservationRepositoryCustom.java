@@ -0,0 +1,11 @@
+package com.coworking.smartcoworking.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ReservationRepositoryCustom {
+
+    // Posições (a partir de 0) dos períodos [starts[i], ends[i]) que sobrepõem reservas ativas do espaço,
+    // verificadas todas em uma única consulta
+    List<Integer> findConflictingPeriods(Long spaceId, List<LocalDateTime> starts, List<LocalDateTime> ends);
+}
@@ -0,0 +1,37 @@
+package com.coworking.smartcoworking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ReservationRepositoryCustomImpl implements ReservationRepositoryCustom {
+
+    // Os períodos viram linhas via unnest e cada um sonda o índice GiST de reservations_no_overlap
+    private static final String CONFLICTING_PERIODS_SQL =
+            "SELECT DISTINCT p.position - 1 FROM unnest(" +
+            "  CAST(ARRAY[:starts] AS timestamp[]), CAST(ARRAY[:ends] AS timestamp[])" +
+            ") WITH ORDINALITY AS p(period_start, period_end, position) " +
+            "JOIN reservations r ON r.space_id = :spaceId " +
+            "  AND r.period && tsrange(p.period_start, p.period_end, '[)') " +
+            "  AND r.status NOT IN ('CANCELADA', 'CONCLUIDA', 'EXPIRADA') " +
+            "ORDER BY 1";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Integer> findConflictingPeriods(Long spaceId, List<LocalDateTime> starts, List<LocalDateTime> ends) {
+        if (starts.isEmpty()) {
+            return List.of();
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("spaceId", spaceId)
+                .addValue("starts", starts)
+                .addValue("ends", ends);
+        return jdbcTemplate.queryForList(CONFLICTING_PERIODS_SQL, params, Integer.class);
+    }
+}
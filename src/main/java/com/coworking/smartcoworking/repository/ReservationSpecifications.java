@@ -0,0 +1,56 @@
+package com.coworking.smartcoworking.repository;
+
+import com.coworking.smartcoworking.dto.reservation.ReservationFilterDTO;
+import com.coworking.smartcoworking.entity.Reservation;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ReservationSpecifications {
+
+    private ReservationSpecifications() {
+    }
+
+    // Somente os filtros informados viram predicados, para o planner escolher o índice certo
+    public static Specification<Reservation> matching(ReservationFilterDTO filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getSpaceId() != null) {
+                predicates.add(cb.equal(root.get("space").get("id"), filter.getSpaceId()));
+            }
+            if (filter.getUserId() != null) {
+                predicates.add(cb.equal(root.get("user").get("id"), filter.getUserId()));
+            }
+            if (filter.getSpaceType() != null) {
+                predicates.add(cb.equal(root.get("space").get("type"), filter.getSpaceType()));
+            }
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("startDateTime"), filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThan(root.get("startDateTime"), filter.getTo()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Keyset: (startDateTime, id) > (start, id). O ">=" isolado delimita a faixa do índice;
+    // o OR só descarta as linhas com o mesmo início já entregues.
+    public static Specification<Reservation> after(LocalDateTime startDateTime, Long id) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("startDateTime"), startDateTime),
+                cb.or(
+                        cb.greaterThan(root.get("startDateTime"), startDateTime),
+                        cb.greaterThan(root.get("id"), id)
+                )
+        );
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -25,6 +26,11 @@ public interface SpaceRepository extends JpaRepository<Space, Long> {
     // Buscar espaços com capacidade mínima
     List<Space> findByCapacityGreaterThanEqual(Integer capacity);
 
+    // Travar a linha do espaço até o fim da transação (serializa admissões por lugares). NO KEY UPDATE
+    // não conflita com o FOR KEY SHARE que a FK da reserva já gravada na transação tomou no espaço
+    @Query(value = "SELECT id FROM spaces WHERE id = :id FOR NO KEY UPDATE", nativeQuery = true)
+    Long lockById(@Param("id") Long id);
+
     // Buscar espaços com WiFi
     List<Space> findByHasWifiTrue();
 
@@ -50,4 +56,36 @@ public interface SpaceRepository extends JpaRepository<Space, Long> {
             @Param("hasWhiteboard") Boolean hasWhiteboard,
             @Param("hasAC") Boolean hasAC
     );
-}
\ No newline at end of file
+
+    // Buscar espaços ativos sem reserva ativa no período (anti-join em uma única consulta). Reservas
+    // de espaços compartilhados não tornam o espaço indisponível: os lugares livres são conferidos no serviço
+    @Query("SELECT s FROM Space s WHERE s.active = true " +
+            "AND (:type IS NULL OR s.type = :type) " +
+            "AND (:minCapacity IS NULL OR s.capacity >= :minCapacity) " +
+            "AND (:hasWifi = false OR s.hasWifi = true) " +
+            "AND (:hasProjector = false OR s.hasProjector = true) " +
+            "AND (:hasWhiteboard = false OR s.hasWhiteboard = true) " +
+            "AND (:hasAC = false OR s.hasAC = true) " +
+            "AND NOT EXISTS (SELECT 1 FROM Reservation r WHERE r.space = s AND r.sharedSpace = false " +
+            "AND r.status NOT IN ('CANCELADA', 'CONCLUIDA', 'EXPIRADA') " +
+            "AND r.startDateTime < :end AND r.endDateTime > :start) " +
+            "ORDER BY s.floor, s.name")
+    List<Space> findFreeSpacesInPeriod(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("type") SpaceType type,
+            @Param("minCapacity") Integer minCapacity,
+            @Param("hasWifi") Boolean hasWifi,
+            @Param("hasProjector") Boolean hasProjector,
+            @Param("hasWhiteboard") Boolean hasWhiteboard,
+            @Param("hasAC") Boolean hasAC
+    );
+
+    // Buscar IDs de todos os espaços
+    @Query("SELECT s.id FROM Space s ORDER BY s.id")
+    List<Long> findAllIds();
+
+    // Buscar ID e andar de todos os espaços
+    @Query("SELECT s.id, s.floor FROM Space s ORDER BY s.floor, s.id")
+    List<Object[]> findAllIdsAndFloors();
+}
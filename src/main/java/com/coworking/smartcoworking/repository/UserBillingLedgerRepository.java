@@ -0,0 +1,65 @@
+package com.coworking.smartcoworking.repository;
+
+import com.coworking.smartcoworking.entity.UserBillingLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface UserBillingLedgerRepository extends JpaRepository<UserBillingLedger, Long> {
+
+    // Somar deltas ao resumo do usuário (cria a linha se ainda não existir)
+    @Modifying
+    @Query(value = "INSERT INTO user_billing_ledgers " +
+            "(user_id, total_debt, total_paid, pending_count, overdue_count, updated_at) " +
+            "VALUES (:userId, :debt, :paid, :pending, :overdue, now()) " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "total_debt = user_billing_ledgers.total_debt + EXCLUDED.total_debt, " +
+            "total_paid = user_billing_ledgers.total_paid + EXCLUDED.total_paid, " +
+            "pending_count = user_billing_ledgers.pending_count + EXCLUDED.pending_count, " +
+            "overdue_count = user_billing_ledgers.overdue_count + EXCLUDED.overdue_count, " +
+            "updated_at = now()", nativeQuery = true)
+    void applyDelta(
+            @Param("userId") Long userId,
+            @Param("debt") BigDecimal debt,
+            @Param("paid") BigDecimal paid,
+            @Param("pending") long pending,
+            @Param("overdue") long overdue
+    );
+
+    // Bloqueia deltas concorrentes até o fim da reconstrução (eles aplicam depois, sobre os valores novos)
+    @Modifying
+    @Query(value = "LOCK TABLE user_billing_ledgers IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    // Recalcular os resumos a partir de billings; retorna quantas linhas foram criadas ou corrigidas
+    @Modifying
+    @Query(value = "INSERT INTO user_billing_ledgers " +
+            "(user_id, total_debt, total_paid, pending_count, overdue_count, updated_at) " +
+            "SELECT u.id, " +
+            "COALESCE(SUM(b.amount) FILTER (WHERE b.status IN ('PENDENTE', 'ATRASADA')), 0), " +
+            "COALESCE(SUM(b.amount) FILTER (WHERE b.status = 'PAGA'), 0), " +
+            "COUNT(b.id) FILTER (WHERE b.status = 'PENDENTE'), " +
+            "COUNT(b.id) FILTER (WHERE b.status = 'ATRASADA'), " +
+            "now() " +
+            "FROM users u LEFT JOIN billings b ON b.user_id = u.id GROUP BY u.id " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "total_debt = EXCLUDED.total_debt, total_paid = EXCLUDED.total_paid, " +
+            "pending_count = EXCLUDED.pending_count, overdue_count = EXCLUDED.overdue_count, " +
+            "updated_at = now() " +
+            "WHERE (user_billing_ledgers.total_debt, user_billing_ledgers.total_paid, " +
+            "user_billing_ledgers.pending_count, user_billing_ledgers.overdue_count) IS DISTINCT FROM " +
+            "(EXCLUDED.total_debt, EXCLUDED.total_paid, EXCLUDED.pending_count, EXCLUDED.overdue_count)",
+            nativeQuery = true)
+    int rebuildAll();
+
+    // Remover resumos de usuários que não existem mais
+    @Modifying
+    @Query(value = "DELETE FROM user_billing_ledgers l " +
+            "WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.id = l.user_id)", nativeQuery = true)
+    int deleteOrphans();
+}
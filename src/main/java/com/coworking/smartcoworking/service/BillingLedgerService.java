@@ -0,0 +1,137 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.dto.billing.BillingSummaryDTO;
+import com.coworking.smartcoworking.entity.Billing;
+import com.coworking.smartcoworking.entity.UserBillingLedger;
+import com.coworking.smartcoworking.enums.BillingStatus;
+import com.coworking.smartcoworking.exception.ResourceNotFoundException;
+import com.coworking.smartcoworking.repository.UserBillingLedgerRepository;
+import com.coworking.smartcoworking.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+// Resumo financeiro por usuário mantido de forma incremental. Cada mudança de cobrança
+// aplica um delta na mesma transação; a reconstrução periódica corrige qualquer desvio.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BillingLedgerService {
+
+    private final UserBillingLedgerRepository ledgerRepository;
+    private final UserRepository userRepository;
+
+    @Transactional(readOnly = true)
+    public BillingSummaryDTO getSummary(Long userId) {
+        UserBillingLedger ledger = ledgerRepository.findById(userId).orElseGet(() -> {
+            // Usuário sem nenhuma cobrança ainda não tem linha no resumo
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("Usuário", userId);
+            }
+            UserBillingLedger empty = new UserBillingLedger();
+            empty.setUserId(userId);
+            return empty;
+        });
+
+        return BillingSummaryDTO.fromEntity(ledger);
+    }
+
+    // Registra a transição de uma cobrança (status/valor nulos = cobrança inexistente)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Long userId,
+                             BillingStatus oldStatus, BigDecimal oldAmount,
+                             BillingStatus newStatus, BigDecimal newAmount) {
+        Delta delta = new Delta();
+        delta.add(oldStatus, oldAmount, newStatus, newAmount);
+        apply(userId, delta);
+    }
+
+    // Transições de várias cobranças somadas por usuário (ex.: um lote do outbox de cobranças)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(Map<Long, Delta> deltaByUser) {
+        deltaByUser.forEach(this::apply);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Billing billing) {
+        recordChange(billing.getUser().getId(), null, null, billing.getStatus(), billing.getAmount());
+    }
+
+    // Cobranças que passaram de PENDENTE para ATRASADA em massa, contadas por usuário
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOverdue(Map<Long, Long> overdueByUser) {
+        overdueByUser.forEach((userId, count) ->
+                ledgerRepository.applyDelta(userId, BigDecimal.ZERO, BigDecimal.ZERO, -count, count));
+    }
+
+    @Scheduled(cron = "${coworking.jobs.billing-ledger-rebuild.cron}")
+    @Transactional
+    public int rebuild() {
+        long startedAt = System.nanoTime();
+
+        ledgerRepository.lockForRebuild();
+        int repaired = ledgerRepository.rebuildAll();
+        int removed = ledgerRepository.deleteOrphans();
+
+        log.info("Resumo financeiro reconstruído: {} usuários corrigidos, {} removidos ({} ms)",
+                repaired, removed, (System.nanoTime() - startedAt) / 1_000_000);
+        return repaired;
+    }
+
+    // Primeira subida com a tabela vazia: popula a partir das cobranças existentes
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (ledgerRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    // Soma de transições de cobranças de um mesmo usuário, gravada com um único upsert
+    public static class Delta {
+        private BigDecimal debt = BigDecimal.ZERO;
+        private BigDecimal paid = BigDecimal.ZERO;
+        private long pending;
+        private long overdue;
+
+        public void add(BillingStatus oldStatus, BigDecimal oldAmount,
+                        BillingStatus newStatus, BigDecimal newAmount) {
+            debt = debt.add(debt(newStatus, newAmount)).subtract(debt(oldStatus, oldAmount));
+            paid = paid.add(paid(newStatus, newAmount)).subtract(paid(oldStatus, oldAmount));
+            pending += count(newStatus, BillingStatus.PENDENTE) - count(oldStatus, BillingStatus.PENDENTE);
+            overdue += count(newStatus, BillingStatus.ATRASADA) - count(oldStatus, BillingStatus.ATRASADA);
+        }
+
+        private boolean isEmpty() {
+            return debt.signum() == 0 && paid.signum() == 0 && pending == 0 && overdue == 0;
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void apply(Long userId, Delta delta) {
+        if (!delta.isEmpty()) {
+            ledgerRepository.applyDelta(userId, delta.debt, delta.paid, delta.pending, delta.overdue);
+        }
+    }
+
+    private static BigDecimal debt(BillingStatus status, BigDecimal amount) {
+        return status == BillingStatus.PENDENTE || status == BillingStatus.ATRASADA ? amount : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal paid(BillingStatus status, BigDecimal amount) {
+        return status == BillingStatus.PAGA ? amount : BigDecimal.ZERO;
+    }
+
+    private static long count(BillingStatus status, BillingStatus counted) {
+        return status == counted ? 1 : 0;
+    }
+}
@@ -0,0 +1,203 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.dto.billing.BillingOutboxStatsDTO;
+import com.coworking.smartcoworking.entity.Billing;
+import com.coworking.smartcoworking.entity.BillingOutboxEvent;
+import com.coworking.smartcoworking.enums.BillingStatus;
+import com.coworking.smartcoworking.repository.BillingOutboxRepository;
+import com.coworking.smartcoworking.repository.BillingRepository;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import com.coworking.smartcoworking.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Aplica os eventos do outbox de cobranças gravados pelas reservas. Cada lote roda em uma transação:
+// cobranças, resumo financeiro e remoção dos eventos entram juntos ou não entram (exatamente uma vez).
+// Os eventos são aplicados na ordem das transações que os gravaram, um lote por vez entre instâncias
+// (advisory lock).
+@Slf4j
+@Service
+public class BillingOutboxRelay {
+
+    // Chave do advisory lock do relay (qualquer valor fixo, único na aplicação)
+    private static final long RELAY_LOCK_KEY = 0x6269_6c6cL;
+
+    private final BillingOutboxRepository outboxRepository;
+    private final BillingRepository billingRepository;
+    private final ReservationRepository reservationRepository;
+    private final UserRepository userRepository;
+    private final BillingLedgerService billingLedgerService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final AtomicLong lastBatchLagMillis = new AtomicLong();
+    private final AtomicReference<LocalDateTime> lastRelayAt = new AtomicReference<>();
+
+    public BillingOutboxRelay(
+            BillingOutboxRepository outboxRepository,
+            BillingRepository billingRepository,
+            ReservationRepository reservationRepository,
+            UserRepository userRepository,
+            BillingLedgerService billingLedgerService,
+            PlatformTransactionManager transactionManager,
+            @Value("${coworking.billing-outbox.batch-size}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.billingRepository = billingRepository;
+        this.reservationRepository = reservationRepository;
+        this.userRepository = userRepository;
+        this.billingLedgerService = billingLedgerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+    }
+
+    // Esvazia a fila em lotes; termina no primeiro lote incompleto. Devolve quantos eventos aplicou.
+    public synchronized int relayPending() {
+        int total = 0;
+        int processed;
+
+        do {
+            BatchResult result;
+            try {
+                result = transactionTemplate.execute(status -> relayBatch());
+            } catch (RuntimeException ex) {
+                // O lote inteiro volta para a fila e é tentado de novo na próxima rodada, na mesma ordem
+                failedBatches.increment();
+                log.error("Falha ao aplicar lote do outbox de cobranças", ex);
+                break;
+            }
+            processed = result != null ? result.events() : 0;
+            if (processed > 0) {
+                recordBatch(result);
+            }
+            total += processed;
+        } while (processed == batchSize);
+
+        return total;
+    }
+
+    public BillingOutboxStatsDTO getStats() {
+        LocalDateTime oldest = outboxRepository.findOldestCreatedAt();
+        return new BillingOutboxStatsDTO(
+                outboxRepository.count(),
+                oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis(),
+                relayed.sum(),
+                discarded.sum(),
+                batches.sum(),
+                failedBatches.sum(),
+                lastBatchLagMillis.get(),
+                lastRelayAt.get()
+        );
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    // Eventos lidos do lote, quantos foram descartados e a gravação do mais antigo
+    private record BatchResult(int events, int discarded, LocalDateTime oldestCreatedAt) {
+    }
+
+    private BatchResult relayBatch() {
+        // Lotes de instâncias diferentes se revezam: cada um lê a fila depois do commit do anterior
+        outboxRepository.lockRelay(RELAY_LOCK_KEY);
+        List<BillingOutboxEvent> events = outboxRepository.findOldest(batchSize);
+        if (events.isEmpty()) {
+            return null;
+        }
+
+        Set<Long> reservationIds = events.stream().map(BillingOutboxEvent::getReservationId).collect(Collectors.toSet());
+        Set<Long> existing = new HashSet<>(reservationRepository.findExistingIds(reservationIds));
+        Map<Long, Billing> billingByReservation = billingRepository.findByReservationIdIn(existing).stream()
+                .collect(Collectors.toMap(b -> b.getReservation().getId(), Function.identity()));
+
+        Map<Long, BillingLedgerService.Delta> deltaByUser = new HashMap<>();
+        List<Billing> created = new ArrayList<>();
+        int skipped = 0;
+
+        for (BillingOutboxEvent event : events) {
+            if (!existing.contains(event.getReservationId())) {
+                skipped++;
+                continue;
+            }
+            Billing billing = billingByReservation.get(event.getReservationId());
+            BillingLedgerService.Delta delta =
+                    deltaByUser.computeIfAbsent(event.getUserId(), id -> new BillingLedgerService.Delta());
+
+            switch (event.getType()) {
+                case CRIADA -> {
+                    // Cobrança já criada manualmente para a reserva: mantém a existente
+                    if (billing == null) {
+                        billing = newBilling(event);
+                        billingByReservation.put(event.getReservationId(), billing);
+                        created.add(billing);
+                        delta.add(null, null, billing.getStatus(), billing.getAmount());
+                    }
+                }
+                case VALOR_ALTERADO -> {
+                    if (billing != null) {
+                        BigDecimal oldAmount = billing.getAmount();
+                        billing.setAmount(event.getAmount());
+                        delta.add(billing.getStatus(), oldAmount, billing.getStatus(), event.getAmount());
+                    }
+                }
+                case CANCELADA -> {
+                    if (billing != null && billing.getStatus() == BillingStatus.PENDENTE) {
+                        billing.setStatus(BillingStatus.CANCELADA);
+                        delta.add(BillingStatus.PENDENTE, billing.getAmount(), BillingStatus.CANCELADA, billing.getAmount());
+                    }
+                }
+            }
+        }
+
+        // Novas em um JDBC batch; as alteradas saem no flush do commit
+        billingRepository.saveAll(created);
+        billingLedgerService.recordChanges(deltaByUser);
+        outboxRepository.deleteAllByIdInBatch(events.stream().map(BillingOutboxEvent::getId).toList());
+
+        LocalDateTime oldest = events.stream().map(BillingOutboxEvent::getCreatedAt)
+                .min(LocalDateTime::compareTo).orElseThrow();
+        return new BatchResult(events.size(), skipped, oldest);
+    }
+
+    // Contadores só depois do commit do lote
+    private void recordBatch(BatchResult result) {
+        LocalDateTime now = LocalDateTime.now();
+        relayed.add(result.events() - result.discarded());
+        discarded.add(result.discarded());
+        batches.increment();
+        lastBatchLagMillis.set(Duration.between(result.oldestCreatedAt(), now).toMillis());
+        lastRelayAt.set(now);
+    }
+
+    private Billing newBilling(BillingOutboxEvent event) {
+        Billing billing = new Billing();
+        billing.setReservation(reservationRepository.getReferenceById(event.getReservationId()));
+        billing.setUser(userRepository.getReferenceById(event.getUserId()));
+        billing.setAmount(event.getAmount());
+        billing.setStatus(BillingStatus.PENDENTE);
+        billing.setDueDate(event.getDueDate());
+        return billing;
+    }
+}
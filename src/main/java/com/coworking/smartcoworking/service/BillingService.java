@@ -1,6 +1,7 @@
 package com.coworking.smartcoworking.service;
 
 import com.coworking.smartcoworking.dto.billing.BillingResponseDTO;
+import com.coworking.smartcoworking.dto.billing.BillingSummaryDTO;
 import com.coworking.smartcoworking.dto.billing.CreateBillingDTO;
 import com.coworking.smartcoworking.dto.billing.UpdateBillingDTO;
 import com.coworking.smartcoworking.entity.Billing;
@@ -9,16 +10,21 @@ import com.coworking.smartcoworking.entity.User;
 import com.coworking.smartcoworking.enums.BillingStatus;
 import com.coworking.smartcoworking.exception.BusinessException;
 import com.coworking.smartcoworking.exception.ResourceNotFoundException;
+import com.coworking.smartcoworking.job.ChunkedSweeper;
+import com.coworking.smartcoworking.job.SweepResult;
 import com.coworking.smartcoworking.repository.BillingRepository;
 import com.coworking.smartcoworking.repository.ReservationRepository;
 import com.coworking.smartcoworking.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +34,11 @@ public class BillingService {
     private final BillingRepository billingRepository;
     private final UserRepository userRepository;
     private final ReservationRepository reservationRepository;
+    private final ChunkedSweeper chunkedSweeper;
+    private final BillingLedgerService billingLedgerService;
+
+    @Value("${coworking.jobs.chunk-size:500}")
+    private int chunkSize;
 
     @Transactional
     public BillingResponseDTO create(CreateBillingDTO dto) {
@@ -54,6 +65,7 @@ public class BillingService {
         billing.setNotes(dto.getNotes());
 
         Billing saved = billingRepository.save(billing);
+        billingLedgerService.recordCreated(saved);
         return BillingResponseDTO.fromEntity(saved);
     }
 
@@ -128,6 +140,9 @@ public class BillingService {
         Billing billing = billingRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cobrança", id));
 
+        BillingStatus oldStatus = billing.getStatus();
+        BigDecimal oldAmount = billing.getAmount();
+
         // Atualizar campos não nulos
         if (dto.getAmount() != null) {
             billing.setAmount(dto.getAmount());
@@ -149,6 +164,7 @@ public class BillingService {
         }
 
         Billing updated = billingRepository.save(billing);
+        recordChange(updated, oldStatus, oldAmount);
         return BillingResponseDTO.fromEntity(updated);
     }
 
@@ -165,11 +181,13 @@ public class BillingService {
             throw new BusinessException("Não é possível pagar uma cobrança cancelada");
         }
 
+        BillingStatus oldStatus = billing.getStatus();
         billing.setStatus(BillingStatus.PAGA);
         billing.setPaidDate(LocalDate.now());
         billing.setPaymentMethod(paymentMethod);
 
         Billing updated = billingRepository.save(billing);
+        recordChange(updated, oldStatus, updated.getAmount());
         return BillingResponseDTO.fromEntity(updated);
     }
 
@@ -182,9 +200,11 @@ public class BillingService {
             throw new BusinessException("Apenas cobranças pendentes podem ser marcadas como atrasadas");
         }
 
+        BillingStatus oldStatus = billing.getStatus();
         billing.setStatus(BillingStatus.ATRASADA);
 
         Billing updated = billingRepository.save(billing);
+        recordChange(updated, oldStatus, updated.getAmount());
         return BillingResponseDTO.fromEntity(updated);
     }
 
@@ -197,9 +217,11 @@ public class BillingService {
             throw new BusinessException("Não é possível cancelar uma cobrança já paga");
         }
 
+        BillingStatus oldStatus = billing.getStatus();
         billing.setStatus(BillingStatus.CANCELADA);
 
         Billing updated = billingRepository.save(billing);
+        recordChange(updated, oldStatus, updated.getAmount());
         return BillingResponseDTO.fromEntity(updated);
     }
 
@@ -212,9 +234,11 @@ public class BillingService {
             throw new BusinessException("Apenas cobranças pagas podem ser reembolsadas");
         }
 
+        BillingStatus oldStatus = billing.getStatus();
         billing.setStatus(BillingStatus.REEMBOLSADA);
 
         Billing updated = billingRepository.save(billing);
+        recordChange(updated, oldStatus, updated.getAmount());
         return BillingResponseDTO.fromEntity(updated);
     }
 
@@ -229,18 +253,35 @@ public class BillingService {
         }
 
         billingRepository.delete(billing);
+        billingLedgerService.recordChange(billing.getUser().getId(),
+                billing.getStatus(), billing.getAmount(), null, null);
     }
 
     // ==================== MÉTODOS PARA JOBS AUTOMÁTICOS ====================
 
-    @Transactional
-    public void processOverdueBillings() {
-        List<Billing> overdueBillings = billingRepository.findOverdueBillings(LocalDate.now());
+    // UPDATE em lotes, cada um em transação própria, para não segurar locks que bloqueiem markAsPaid
+    public SweepResult processOverdueBillings() {
+        LocalDate today = LocalDate.now();
+        return chunkedSweeper.sweep("cobranças atrasadas", chunkSize, limit -> {
+            List<Long> userIds = billingRepository.markOverdueChunk(today, limit);
 
-        for (Billing billing : overdueBillings) {
-            billing.setStatus(BillingStatus.ATRASADA);
-            billingRepository.save(billing);
-        }
+            // Atualiza o resumo financeiro no mesmo lote
+            Map<Long, Long> overdueByUser = userIds.stream()
+                    .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+            billingLedgerService.recordOverdue(overdueByUser);
+
+            return userIds.size();
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public BillingSummaryDTO getUserSummary(Long userId) {
+        return billingLedgerService.getSummary(userId);
+    }
+
+    @Transactional
+    public int rebuildLedger() {
+        return billingLedgerService.rebuild();
     }
 
     @Transactional(readOnly = true)
@@ -252,4 +293,11 @@ public class BillingService {
                 .map(BillingResponseDTO::fromEntity)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void recordChange(Billing billing, BillingStatus oldStatus, BigDecimal oldAmount) {
+        billingLedgerService.recordChange(billing.getUser().getId(),
+                oldStatus, oldAmount, billing.getStatus(), billing.getAmount());
+    }
+}
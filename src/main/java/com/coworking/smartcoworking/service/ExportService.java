@@ -0,0 +1,74 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.dto.billing.BillingExportRow;
+import com.coworking.smartcoworking.dto.reservation.ReservationExportRow;
+import com.coworking.smartcoworking.exception.BusinessException;
+import com.coworking.smartcoworking.repository.BillingRepository;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import com.coworking.smartcoworking.util.ExportFormat;
+import com.coworking.smartcoworking.util.ExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+// Exportações em streaming: as linhas vêm de um cursor do banco e vão direto
+// para a resposta, sem materializar a lista nem entidades gerenciadas
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final BillingRepository billingRepository;
+    private final ReservationRepository reservationRepository;
+    private final ObjectMapper objectMapper;
+
+    public void validatePeriod(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new BusinessException("Data final deve ser posterior ou igual à data inicial");
+        }
+    }
+
+    // Cobranças criadas no período, ou pagas no período quando paidOnly = true
+    @Transactional(readOnly = true)
+    public long exportBillings(LocalDate startDate, LocalDate endDate, boolean paidOnly,
+                               ExportFormat format, OutputStream out) {
+        long startedAt = System.currentTimeMillis();
+
+        try (Stream<BillingExportRow> rows = paidOnly
+                ? billingRepository.streamPaidForExport(startDate, endDate)
+                : billingRepository.streamForExport(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+             ExportWriter<BillingExportRow> writer =
+                     new ExportWriter<>(out, format, BillingExportRow.class, objectMapper, FLUSH_EVERY)) {
+            rows.forEach(writer::write);
+
+            log.info("Exportação de cobranças: {} linhas em {} ms", writer.getCount(),
+                    System.currentTimeMillis() - startedAt);
+            return writer.getCount();
+        }
+    }
+
+    // Reservas com início no período
+    @Transactional(readOnly = true)
+    public long exportReservations(LocalDate startDate, LocalDate endDate, ExportFormat format, OutputStream out) {
+        long startedAt = System.currentTimeMillis();
+
+        try (Stream<ReservationExportRow> rows = reservationRepository.streamForExport(
+                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+             ExportWriter<ReservationExportRow> writer =
+                     new ExportWriter<>(out, format, ReservationExportRow.class, objectMapper, FLUSH_EVERY)) {
+            rows.forEach(writer::write);
+
+            log.info("Exportação de reservas: {} linhas em {} ms", writer.getCount(),
+                    System.currentTimeMillis() - startedAt);
+            return writer.getCount();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.exception.BusinessException;
+import com.coworking.smartcoworking.exception.ConflictException;
+import com.coworking.smartcoworking.repository.IdempotencyKeyRepository;
+import com.coworking.smartcoworking.repository.IdempotencyKeyRepository.StoredResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Idempotency-Key para mutações que clientes repetem em redes instáveis (criar reserva, pagar cobrança).
+// A primeira execução grava a resposta na mesma transação da operação; repetições recebem a resposta
+// gravada sem executar de novo. Ordem de consulta: cache LRU com expiração, execução em andamento na
+// instância (requisições simultâneas esperam a mesma) e, por fim, a tabela idempotency_keys.
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    // Marca as respostas repetidas a partir de uma execução anterior
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+
+    private final Map<String, CachedResponse> cache;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${coworking.idempotency.ttl-hours}") long ttlHours,
+            @Value("${coworking.idempotency.cache.max-entries}") int maxEntries) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private record CachedResponse(StoredResponse response, LocalDateTime expiresAt) {
+    }
+
+    // scope identifica a operação (método e rota); request é o que a chave precisa repetir igual
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Class<T> responseType,
+                                         Supplier<ResponseEntity<T>> operation) {
+        if (key == null || key.isBlank()) {
+            return operation.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key deve ter no máximo " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        String cacheKey = scope + " " + key;
+        String requestHash = hash(request);
+
+        StoredResponse cached = findCached(cacheKey);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(cacheKey, execution);
+        if (running != null) {
+            return replay(await(running), requestHash, responseType);
+        }
+
+        try {
+            ExecutionResult<T> result = transactionTemplate.execute(status ->
+                    executeOnce(scope, key, requestHash, operation));
+            execution.complete(result.stored());
+            cache(cacheKey, result.stored());
+            return result.response() != null ? result.response() : replay(result.stored(), requestHash, responseType);
+        } catch (RuntimeException ex) {
+            // Falhas não são gravadas: a próxima tentativa com a mesma chave executa de novo
+            execution.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(cacheKey, execution);
+        }
+    }
+
+    // Chamado pelo job de manutenção
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (cache) {
+            cache.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+        }
+        int removed = idempotencyKeyRepository.deleteExpired(now);
+        log.info("Idempotency-Keys expiradas removidas: {}", removed);
+        return removed;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    // response nula = a chave já tinha resposta gravada por outra execução
+    private record ExecutionResult<T>(ResponseEntity<T> response, StoredResponse stored) {
+    }
+
+    private <T> ExecutionResult<T> executeOnce(String scope, String key, String requestHash,
+                                               Supplier<ResponseEntity<T>> operation) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!idempotencyKeyRepository.claim(scope, key, requestHash, now, now.plus(ttl))) {
+            StoredResponse stored = idempotencyKeyRepository.find(scope, key)
+                    .orElseThrow(() -> new ConflictException("Requisição com esta Idempotency-Key ainda em processamento"));
+            if (stored.status() == null) {
+                throw new ConflictException("Requisição com esta Idempotency-Key ainda em processamento");
+            }
+            return new ExecutionResult<>(null, stored);
+        }
+
+        ResponseEntity<T> response = operation.get();
+        String body = toJson(response.getBody());
+        idempotencyKeyRepository.complete(scope, key, response.getStatusCode().value(), body);
+        return new ExecutionResult<>(response, new StoredResponse(requestHash, response.getStatusCode().value(), body));
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new BusinessException("Idempotency-Key já utilizada com outra requisição");
+        }
+        try {
+            T body = stored.body() == null ? null : objectMapper.readValue(stored.body(), responseType);
+            return ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true").body(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Resposta gravada ilegível para a Idempotency-Key", ex);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            // A execução original falhou: a repetição simultânea recebe o mesmo erro
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private StoredResponse findCached(String cacheKey) {
+        synchronized (cache) {
+            CachedResponse entry = cache.get(cacheKey);
+            if (entry == null) {
+                return null;
+            }
+            if (!entry.expiresAt().isAfter(LocalDateTime.now())) {
+                cache.remove(cacheKey);
+                return null;
+            }
+            return entry.response();
+        }
+    }
+
+    private void cache(String cacheKey, StoredResponse response) {
+        synchronized (cache) {
+            cache.put(cacheKey, new CachedResponse(response, LocalDateTime.now().plus(ttl)));
+        }
+    }
+
+    // Só para testes: força a leitura da tabela
+    void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Falha ao serializar para a Idempotency-Key", ex);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.cache.OccupancyStateCache;
+import com.coworking.smartcoworking.dto.feed.LiveFeedStatsDTO;
+import com.coworking.smartcoworking.dto.occupancy.SpaceOccupancyDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationStatusChangeDTO;
+import com.coworking.smartcoworking.event.OccupancyEvent;
+import com.coworking.smartcoworking.event.ReservationChangedEvent;
+import com.coworking.smartcoworking.exception.TooManyRequestsException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Feed SSE de mudanças de ocupação e de status de reservas.
+// Quem publica só grava a última atualização de cada espaço/reserva em um mapa (nunca bloqueia);
+// um despachante distribui o mapa aos assinantes em intervalos curtos e um pool pequeno faz o envio.
+// Assinante lento não segura os demais: enquanto um envio está em andamento, as atualizações
+// seguintes do mesmo espaço/reserva se sobrescrevem e ele recebe só a mais recente.
+// Um envio travado (cliente que não lê o socket) além de send-timeout-ms derruba o assinante e
+// a thread presa nele é reposta no pool, para que clientes parados não esgotem os remetentes.
+@Slf4j
+@Service
+public class LiveFeedService {
+
+    static final String OCCUPANCY_EVENT = "occupancy";
+    static final String RESERVATION_EVENT = "reservation";
+
+    private final OccupancyStateCache occupancyStateCache;
+    private final int maxSubscribers;
+    private final long dispatchIntervalMillis;
+    private final long heartbeatMillis;
+    private final long timeoutMillis;
+    private final int senderThreads;
+    private final long sendTimeoutMillis;
+
+    // Última atualização de cada chave desde o último despacho
+    private final Map<String, FeedUpdate> changed = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+    private final LongAdder stalledDisconnects = new LongAdder();
+
+    private ScheduledExecutorService dispatcher;
+    private ThreadPoolExecutor senders;
+    // Threads extras repondo as que estão presas em envios de assinantes derrubados
+    private int replacementThreads;
+
+    public LiveFeedService(
+            OccupancyStateCache occupancyStateCache,
+            @Value("${coworking.live-feed.max-subscribers}") int maxSubscribers,
+            @Value("${coworking.live-feed.dispatch-interval-ms}") long dispatchIntervalMillis,
+            @Value("${coworking.live-feed.heartbeat-seconds}") long heartbeatSeconds,
+            @Value("${coworking.live-feed.timeout-minutes}") long timeoutMinutes,
+            @Value("${coworking.live-feed.sender-threads}") int senderThreads,
+            @Value("${coworking.live-feed.send-timeout-ms}") long sendTimeoutMillis) {
+        this.occupancyStateCache = occupancyStateCache;
+        this.maxSubscribers = maxSubscribers;
+        this.dispatchIntervalMillis = dispatchIntervalMillis;
+        this.heartbeatMillis = TimeUnit.SECONDS.toMillis(heartbeatSeconds);
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.senderThreads = senderThreads;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+    }
+
+    // Uma update pendente: nome do evento SSE, espaço (para o filtro) e corpo
+    record FeedUpdate(String event, Long spaceId, Object payload) {
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger senderIndex = new AtomicInteger();
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> daemon(runnable, "live-feed-sender-" + senderIndex.incrementAndGet()));
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "live-feed-dispatcher"));
+        dispatcher.scheduleWithFixedDelay(this::dispatch, dispatchIntervalMillis, dispatchIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    // spaceIds vazio ou nulo recebe todos os espaços
+    public SseEmitter subscribe(Set<Long> spaceIds) {
+        return register(new SseEmitter(timeoutMillis), spaceIds);
+    }
+
+    public void publishOccupancy(OccupancyEvent event) {
+        publish(occupancyKey(event.spaceId()), new FeedUpdate(OCCUPANCY_EVENT, event.spaceId(),
+                new SpaceOccupancyDTO(event.spaceId(), event.occupied(), event.timestamp())));
+    }
+
+    // Entregue só após o commit, como os índices em memória
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        publish("reservation:" + event.reservationId(), new FeedUpdate(RESERVATION_EVENT, event.spaceId(),
+                ReservationStatusChangeDTO.of(event)));
+    }
+
+    public LiveFeedStatsDTO getStats() {
+        return new LiveFeedStatsDTO(
+                subscriberCount.get(),
+                maxSubscribers,
+                published.sum(),
+                delivered.sum(),
+                coalesced.sum(),
+                disconnects.sum(),
+                stalledDisconnects.sum()
+        );
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    SseEmitter register(SseEmitter emitter, Set<Long> spaceIds) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new TooManyRequestsException("Limite de assinantes do feed atingido. Tente novamente em instantes");
+        }
+
+        Subscriber subscriber = new Subscriber(emitter, spaceIds == null || spaceIds.isEmpty() ? null : Set.copyOf(spaceIds));
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(ex -> unregister(subscriber));
+        subscribers.add(subscriber);
+
+        // Estado atual primeiro, para o cliente não precisar de uma consulta inicial
+        Map<String, FeedUpdate> snapshot = new LinkedHashMap<>();
+        occupancyStateCache.findAll().forEach((spaceId, state) -> snapshot.put(occupancyKey(spaceId),
+                new FeedUpdate(OCCUPANCY_EVENT, spaceId, SpaceOccupancyDTO.of(spaceId, state))));
+        if (subscriber.offer(snapshot)) {
+            senders.execute(subscriber::drain);
+        }
+        return emitter;
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            disconnects.increment();
+        }
+    }
+
+    private void publish(String key, FeedUpdate update) {
+        published.increment();
+        if (changed.put(key, update) != null) {
+            coalesced.increment();
+        }
+    }
+
+    private void dispatch() {
+        try {
+            Map<String, FeedUpdate> batch = new LinkedHashMap<>();
+            for (Map.Entry<String, FeedUpdate> entry : changed.entrySet()) {
+                // remove(key, value) preserva uma atualização que chegou depois da leitura
+                if (changed.remove(entry.getKey(), entry.getValue())) {
+                    batch.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.isStalled(now)) {
+                    evict(subscriber);
+                    continue;
+                }
+                boolean schedule = !batch.isEmpty() && subscriber.offer(batch);
+                if (!schedule && now - subscriber.lastSentAt > heartbeatMillis) {
+                    schedule = subscriber.requestHeartbeat();
+                }
+                if (schedule) {
+                    senders.execute(subscriber::drain);
+                }
+            }
+        } catch (RuntimeException ex) {
+            // O despachante agendado não pode morrer por uma falha pontual
+            log.error("Falha ao despachar atualizações do feed", ex);
+        }
+    }
+
+    // Derruba um assinante cujo envio passou do limite. A thread presa nele só volta quando a escrita
+    // falhar ou terminar (timeout de escrita do container); até lá outra a substitui. Cada extra
+    // corresponde a uma conexão derrubada, então nunca passam do limite de assinantes.
+    private void evict(Subscriber subscriber) {
+        unregister(subscriber);
+        stalledDisconnects.increment();
+        boolean replace;
+        synchronized (this) {
+            replace = replacementThreads < maxSubscribers;
+            if (replace) {
+                resizeSenders(++replacementThreads);
+            }
+        }
+        subscriber.abort(replace);
+        log.warn("Assinante do feed derrubado: envio parado há mais de {} ms", sendTimeoutMillis);
+    }
+
+    private synchronized void releaseReplacement() {
+        resizeSenders(--replacementThreads);
+    }
+
+    // O máximo precisa acompanhar o núcleo: aumenta primeiro, diminui depois
+    private void resizeSenders(int extra) {
+        int size = senderThreads + extra;
+        if (size > senders.getMaximumPoolSize()) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private static String occupancyKey(Long spaceId) {
+        return "space:" + spaceId;
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> spaceIds;
+        // Atualizações ainda não enviadas, uma por chave
+        private final Map<String, FeedUpdate> pending = new LinkedHashMap<>();
+        private boolean sending;
+        private boolean heartbeat;
+        private volatile long lastSentAt = System.currentTimeMillis();
+        // Início do envio em andamento (0 = nenhum) e a thread que o executa
+        private volatile long sendingSince;
+        private Thread sender;
+        private boolean aborted;
+        private boolean replaced;
+
+        private Subscriber(SseEmitter emitter, Set<Long> spaceIds) {
+            this.emitter = emitter;
+            this.spaceIds = spaceIds;
+        }
+
+        // Retorna true se é preciso agendar um envio
+        private synchronized boolean offer(Map<String, FeedUpdate> batch) {
+            batch.forEach((key, update) -> {
+                if (spaceIds == null || spaceIds.contains(update.spaceId())) {
+                    if (pending.put(key, update) != null) {
+                        coalesced.increment();
+                    }
+                }
+            });
+            return schedule();
+        }
+
+        private synchronized boolean requestHeartbeat() {
+            heartbeat = true;
+            return schedule();
+        }
+
+        private boolean isStalled(long now) {
+            long since = sendingSince;
+            return since != 0 && now - since > sendTimeoutMillis;
+        }
+
+        // Interrompe o envio travado (se a escrita atender a interrupção, a thread volta antes)
+        private synchronized void abort(boolean replaced) {
+            aborted = true;
+            this.replaced = replaced;
+            pending.clear();
+            heartbeat = false;
+            if (sender != null) {
+                sender.interrupt();
+            }
+        }
+
+        private boolean schedule() {
+            if (aborted || sending || (pending.isEmpty() && !heartbeat)) {
+                return false;
+            }
+            sending = true;
+            return true;
+        }
+
+        // Roda em uma thread do pool; só uma por assinante de cada vez
+        private void drain() {
+            while (true) {
+                List<FeedUpdate> updates;
+                boolean sendHeartbeat;
+                synchronized (this) {
+                    if (aborted || (pending.isEmpty() && !heartbeat)) {
+                        sending = false;
+                        return;
+                    }
+                    updates = new ArrayList<>(pending.values());
+                    pending.clear();
+                    sendHeartbeat = heartbeat;
+                    heartbeat = false;
+                    sender = Thread.currentThread();
+                    sendingSince = System.currentTimeMillis();
+                }
+
+                try {
+                    for (FeedUpdate update : updates) {
+                        emitter.send(SseEmitter.event().name(update.event()).data(update.payload()));
+                        delivered.increment();
+                    }
+                    if (sendHeartbeat && updates.isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    lastSentAt = System.currentTimeMillis();
+                    if (finishSend()) {
+                        // Derrubado durante o envio: a conexão é encerrada agora que a escrita soltou
+                        emitter.complete();
+                        return;
+                    }
+                } catch (IOException | IllegalStateException ex) {
+                    finishSend();
+                    // Cliente desconectado: o container também avisa via onError, mas não espera por isso
+                    unregister(this);
+                    synchronized (this) {
+                        pending.clear();
+                        sending = false;
+                    }
+                    return;
+                }
+            }
+        }
+
+        // Fim de um envio; retorna true se o assinante foi derrubado enquanto ele durava
+        private boolean finishSend() {
+            boolean release;
+            synchronized (this) {
+                sender = null;
+                sendingSince = 0;
+                // Uma interrupção de abort() que chegou depois da escrita não vaza para a próxima tarefa
+                Thread.interrupted();
+                if (!aborted) {
+                    return false;
+                }
+                sending = false;
+                release = replaced;
+                replaced = false;
+            }
+            if (release) {
+                releaseReplacement();
+            }
+            return true;
+        }
+    }
+}
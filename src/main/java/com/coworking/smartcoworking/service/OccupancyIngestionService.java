@@ -0,0 +1,257 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.cache.OccupancyHeatmapCache;
+import com.coworking.smartcoworking.cache.OccupancyStateCache;
+import com.coworking.smartcoworking.dto.occupancy.OccupancyEventDTO;
+import com.coworking.smartcoworking.dto.occupancy.OccupancyIngestionStatsDTO;
+import com.coworking.smartcoworking.event.OccupancyEvent;
+import com.coworking.smartcoworking.exception.BusinessException;
+import com.coworking.smartcoworking.exception.ResourceNotFoundException;
+import com.coworking.smartcoworking.exception.TooManyRequestsException;
+import com.coworking.smartcoworking.repository.OccupancyLogBatchWriter;
+import com.coworking.smartcoworking.repository.SpaceRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Recebe leituras dos sensores, enfileira em uma fila limitada e grava em lotes
+// por uma única thread. Quando a fila enche, rejeita o lote inteiro (HTTP 429).
+@Slf4j
+@Service
+public class OccupancyIngestionService {
+
+    private static final int RATE_WINDOW_SECONDS = 60;
+
+    private final OccupancyLogBatchWriter batchWriter;
+    private final SpaceRepository spaceRepository;
+    private final OccupancyStateCache occupancyStateCache;
+    private final OccupancyHeatmapCache occupancyHeatmapCache;
+    private final LiveFeedService liveFeedService;
+    private final BlockingQueue<OccupancyEvent> queue;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final int retentionMonths;
+
+    // Espaços já confirmados no banco (evita uma consulta por evento)
+    private final Set<Long> knownSpaceIds = ConcurrentHashMap.newKeySet();
+    // Garante que um lote entra inteiro na fila ou não entra
+    private final Object enqueueLock = new Object();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    // Eventos gravados por segundo (índice = segundo % janela), atualizado só pela thread de gravação
+    private final AtomicLongArray writtenBySecond = new AtomicLongArray(RATE_WINDOW_SECONDS);
+    private final AtomicLongArray bucketSecond = new AtomicLongArray(RATE_WINDOW_SECONDS);
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public OccupancyIngestionService(
+            OccupancyLogBatchWriter batchWriter,
+            SpaceRepository spaceRepository,
+            OccupancyStateCache occupancyStateCache,
+            OccupancyHeatmapCache occupancyHeatmapCache,
+            LiveFeedService liveFeedService,
+            @Value("${coworking.occupancy.queue-capacity}") int queueCapacity,
+            @Value("${coworking.occupancy.batch-size}") int batchSize,
+            @Value("${coworking.occupancy.flush-interval-ms}") long flushIntervalMillis,
+            @Value("${coworking.occupancy.retention-months}") int retentionMonths) {
+        this.batchWriter = batchWriter;
+        this.spaceRepository = spaceRepository;
+        this.occupancyStateCache = occupancyStateCache;
+        this.occupancyHeatmapCache = occupancyHeatmapCache;
+        this.liveFeedService = liveFeedService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "occupancy-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Para de aceitar eventos e grava o que restou antes de fechar o pool de conexões
+    // (sem interromper a thread: um lote em gravação termina normalmente e o poll percebe o running)
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    public int ingest(OccupancyEventDTO dto) {
+        return ingest(List.of(dto));
+    }
+
+    public int ingest(List<OccupancyEventDTO> dtos) {
+        LocalDateTime receivedAt = LocalDateTime.now();
+        // Meses anteriores à retenção já foram (ou serão na próxima execução) agregados e descartados:
+        // um evento atrasado ali cairia na partição padrão e não entraria no agregado
+        LocalDateTime oldestAccepted = YearMonth.from(receivedAt).minusMonths(retentionMonths).atDay(1).atStartOfDay();
+        List<OccupancyEvent> events = new ArrayList<>(dtos.size());
+
+        for (OccupancyEventDTO dto : dtos) {
+            validateSpace(dto.getSpaceId());
+            LocalDateTime timestamp = dto.getTimestamp() != null ? dto.getTimestamp() : receivedAt;
+            if (timestamp.isBefore(oldestAccepted)) {
+                throw new BusinessException("Eventos anteriores a " + oldestAccepted.toLocalDate()
+                        + " estão fora do período de retenção");
+            }
+            events.add(new OccupancyEvent(dto.getSpaceId(), dto.getOccupied(), timestamp, dto.getNotes()));
+        }
+
+        synchronized (enqueueLock) {
+            // Só a thread de gravação consome, então a capacidade livre não diminui até o addAll
+            if (!running || queue.remainingCapacity() < events.size()) {
+                rejected.add(events.size());
+                throw new TooManyRequestsException(
+                        "Fila de ingestão cheia. Tente novamente em instantes");
+            }
+            queue.addAll(events);
+        }
+
+        accepted.add(events.size());
+        return events.size();
+    }
+
+    public OccupancyIngestionStatsDTO getStats() {
+        long batchCount = batches.sum();
+        long writtenCount = written.sum();
+
+        long now = currentSecond();
+        long windowTotal = 0;
+        for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+            // Ignora o segundo corrente (incompleto) e buckets fora da janela
+            long second = bucketSecond.get(i);
+            if (second < now && second >= now - RATE_WINDOW_SECONDS) {
+                windowTotal += writtenBySecond.get(i);
+            }
+        }
+
+        return new OccupancyIngestionStatsDTO(
+                accepted.sum(),
+                rejected.sum(),
+                writtenCount,
+                failed.sum(),
+                batchCount,
+                queue.size(),
+                queueCapacity,
+                batchCount == 0 ? 0 : (double) writtenCount / batchCount,
+                (double) windowTotal / RATE_WINDOW_SECONDS
+        );
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void validateSpace(Long spaceId) {
+        if (knownSpaceIds.contains(spaceId)) {
+            return;
+        }
+        if (!spaceRepository.existsById(spaceId)) {
+            throw new ResourceNotFoundException("Espaço", spaceId);
+        }
+        knownSpaceIds.add(spaceId);
+    }
+
+    private void writeLoop() {
+        List<OccupancyEvent> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                OccupancyEvent first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            queue.drainTo(batch, batchSize - 1);
+            try {
+                flush(batch);
+            } catch (RuntimeException ex) {
+                // A thread de gravação não pode morrer: contabiliza o lote como perdido e segue
+                failed.add(batch.size());
+                log.error("Lote de {} eventos de ocupação descartado", batch.size(), ex);
+            }
+            batch.clear();
+        }
+    }
+
+    private void flush(List<OccupancyEvent> batch) {
+        try {
+            batchWriter.insertAll(batch);
+            batch.forEach(this::applyToCaches);
+            recordWritten(batch.size());
+        } catch (DataAccessException ex) {
+            // Um evento inválido (ex: espaço excluído) não deve descartar o lote todo
+            log.warn("Falha ao gravar lote de {} eventos de ocupação, gravando individualmente: {}",
+                    batch.size(), ex.getMessage());
+            int ok = 0;
+            for (OccupancyEvent event : batch) {
+                try {
+                    batchWriter.insertAll(List.of(event));
+                    applyToCaches(event);
+                    ok++;
+                } catch (DataAccessException rowEx) {
+                    knownSpaceIds.remove(event.spaceId());
+                    failed.increment();
+                    log.error("Evento de ocupação descartado para o espaço {}: {}",
+                            event.spaceId(), rowEx.getMessage());
+                }
+            }
+            recordWritten(ok);
+        }
+    }
+
+    // Só eventos já gravados entram no estado ao vivo e no mapa de calor; o feed recebe só mudanças de estado
+    private void applyToCaches(OccupancyEvent event) {
+        if (occupancyStateCache.apply(event)) {
+            liveFeedService.publishOccupancy(event);
+        }
+        occupancyHeatmapCache.apply(event);
+    }
+
+    private void recordWritten(int count) {
+        written.add(count);
+        batches.increment();
+
+        long second = currentSecond();
+        int index = (int) (second % RATE_WINDOW_SECONDS);
+        if (bucketSecond.get(index) != second) {
+            writtenBySecond.set(index, 0);
+            bucketSecond.set(index, second);
+        }
+        writtenBySecond.addAndGet(index, count);
+    }
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
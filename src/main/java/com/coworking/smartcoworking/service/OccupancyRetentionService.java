@@ -0,0 +1,121 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.dto.occupancy.OccupancyRetentionResultDTO;
+import com.coworking.smartcoworking.repository.OccupancyPartitionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+// Mantém as partições mensais de occupancy_logs: cria as dos próximos meses e, para os meses
+// fora da retenção, agrega em occupancy_hourly e só então descarta a partição inteira. Agregado e
+// descarte de um mês rodam juntos em uma transação, sob um advisory lock do mês: o job roda em
+// todas as instâncias e só a primeira encontra o mês; as outras esperam e o acham descartado.
+@Slf4j
+@Service
+public class OccupancyRetentionService {
+
+    private final OccupancyPartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionMonths;
+    private final int partitionsAhead;
+
+    public OccupancyRetentionService(
+            OccupancyPartitionRepository partitionRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${coworking.occupancy.retention-months}") int retentionMonths,
+            @Value("${coworking.occupancy.partitions-ahead}") int partitionsAhead) {
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retentionMonths = retentionMonths;
+        this.partitionsAhead = partitionsAhead;
+    }
+
+    // Na subida garante as partições dos próximos meses, mesmo que o job diário não tenha rodado
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void ensureUpcomingPartitionsOnStartup() {
+        List<YearMonth> created = ensureUpcomingPartitions(YearMonth.now(), partitionRepository.findPartitionMonths());
+        if (!created.isEmpty()) {
+            log.info("Partições de ocupação criadas na subida: {}", created);
+        }
+    }
+
+    // Sincronizado: execução manual e agendada desta instância não disputam o advisory lock entre si
+    public synchronized OccupancyRetentionResultDTO process() {
+        long startedAt = System.currentTimeMillis();
+        YearMonth current = YearMonth.now();
+        List<YearMonth> existing = partitionRepository.findPartitionMonths();
+
+        List<YearMonth> created = ensureUpcomingPartitions(current, existing);
+
+        // Do mais antigo para o mais recente: o agregado de um mês parte do estado final do anterior
+        YearMonth oldestRetained = current.minusMonths(retentionMonths);
+        TreeSet<YearMonth> expired = new TreeSet<>(partitionRepository.findDefaultPartitionMonthsBefore(oldestRetained));
+        existing.stream().filter(month -> month.isBefore(oldestRetained)).forEach(expired::add);
+
+        List<YearMonth> dropped = new ArrayList<>();
+        long rolledUpHours = 0;
+        for (YearMonth month : expired) {
+            Integer hours = transactionTemplate.execute(status -> retireMonth(month));
+            if (hours != null) {
+                rolledUpHours += hours;
+                dropped.add(month);
+            }
+        }
+
+        long elapsedMillis = System.currentTimeMillis() - startedAt;
+        log.info("Retenção de ocupação: {} partições criadas, {} descartadas ({} horas agregadas) em {} ms",
+                created.size(), dropped.size(), rolledUpHours, elapsedMillis);
+
+        return new OccupancyRetentionResultDTO(created, dropped, rolledUpHours, elapsedMillis);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    // Agrega e descarta o mês; devolve as horas agregadas ou null se outra instância já o descartou
+    private Integer retireMonth(YearMonth month) {
+        partitionRepository.lockMonth(month);
+        boolean partitioned = partitionRepository.hasPartition(month);
+        if (!partitioned && !partitionRepository.hasDefaultPartitionRows(month)) {
+            return null;
+        }
+
+        // Sobras na partição padrão de um mês já agregado não são o mês inteiro: agregá-las de novo
+        // sobrescreveria o agregado correto, então só são descartadas
+        LocalDateTime rolledUpUntil = partitionRepository.findRolledUpUntil();
+        boolean alreadyRolledUp = !partitioned && rolledUpUntil != null
+                && month.atDay(1).atStartOfDay().isBefore(rolledUpUntil);
+
+        int hours = 0;
+        if (alreadyRolledUp) {
+            log.warn("Eventos de ocupação atrasados de {} descartados: o mês já estava agregado", month);
+        } else {
+            hours = partitionRepository.rollupMonth(month);
+        }
+        partitionRepository.dropMonth(month);
+        return hours;
+    }
+
+    private List<YearMonth> ensureUpcomingPartitions(YearMonth current, List<YearMonth> existing) {
+        List<YearMonth> created = new ArrayList<>();
+        for (int i = 0; i <= partitionsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month)) {
+                partitionRepository.ensurePartition(month);
+                created.add(month);
+            }
+        }
+        return created;
+    }
+}
@@ -0,0 +1,217 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.cache.OccupancyHeatmapCache;
+import com.coworking.smartcoworking.cache.OccupancyStateCache;
+import com.coworking.smartcoworking.cache.OccupancyStateCache.OccupancyState;
+import com.coworking.smartcoworking.dto.occupancy.FloorHeatmapDTO;
+import com.coworking.smartcoworking.dto.occupancy.OccupancyMetricsDTO;
+import com.coworking.smartcoworking.dto.occupancy.SpaceHeatmapDTO;
+import com.coworking.smartcoworking.dto.occupancy.SpaceOccupancyDTO;
+import com.coworking.smartcoworking.exception.BusinessException;
+import com.coworking.smartcoworking.exception.ResourceNotFoundException;
+import com.coworking.smartcoworking.repository.OccupancyLogRepository;
+import com.coworking.smartcoworking.repository.OccupancyLogRepositoryCustom.OccupancySessions;
+import com.coworking.smartcoworking.repository.SpaceRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Service
+public class OccupancyService {
+
+    private final OccupancyStateCache occupancyStateCache;
+    private final OccupancyHeatmapCache occupancyHeatmapCache;
+    private final SpaceRepository spaceRepository;
+    private final OccupancyLogRepository occupancyLogRepository;
+    // Consultas por espaço em paralelo (cada uma usa sua própria conexão)
+    private final ExecutorService metricsExecutor;
+
+    public OccupancyService(
+            OccupancyStateCache occupancyStateCache,
+            OccupancyHeatmapCache occupancyHeatmapCache,
+            SpaceRepository spaceRepository,
+            OccupancyLogRepository occupancyLogRepository,
+            @Value("${coworking.occupancy.metrics-parallelism}") int metricsParallelism) {
+        this.occupancyStateCache = occupancyStateCache;
+        this.occupancyHeatmapCache = occupancyHeatmapCache;
+        this.spaceRepository = spaceRepository;
+        this.occupancyLogRepository = occupancyLogRepository;
+        this.metricsExecutor = Executors.newFixedThreadPool(metricsParallelism);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        metricsExecutor.shutdownNow();
+    }
+
+    // Estado ao vivo de todos os espaços; occupied filtra quando informado
+    @Transactional(readOnly = true)
+    public List<SpaceOccupancyDTO> findLiveStates(Boolean occupied) {
+        Map<Long, OccupancyState> states = occupancyStateCache.findAll();
+        List<SpaceOccupancyDTO> result = new ArrayList<>();
+
+        for (Long spaceId : spaceRepository.findAllIds()) {
+            SpaceOccupancyDTO dto = SpaceOccupancyDTO.of(spaceId, states.get(spaceId));
+            if (occupied == null || occupied.equals(dto.getOccupied())) {
+                result.add(dto);
+            }
+        }
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public SpaceOccupancyDTO findLiveState(Long spaceId) {
+        if (!spaceRepository.existsById(spaceId)) {
+            throw new ResourceNotFoundException("Espaço", spaceId);
+        }
+        return SpaceOccupancyDTO.of(spaceId, occupancyStateCache.find(spaceId));
+    }
+
+    public OccupancyMetricsDTO calculateMetrics(Long spaceId, LocalDateTime start, LocalDateTime end) {
+        validatePeriod(start, end);
+        if (!spaceRepository.existsById(spaceId)) {
+            throw new ResourceNotFoundException("Espaço", spaceId);
+        }
+        return computeMetrics(spaceId, start, end, LocalDateTime.now());
+    }
+
+    // Métricas de todos os espaços, calculadas em paralelo
+    public List<OccupancyMetricsDTO> calculateMetricsForAllSpaces(LocalDateTime start, LocalDateTime end) {
+        validatePeriod(start, end);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<CompletableFuture<OccupancyMetricsDTO>> futures = spaceRepository.findAllIds().stream()
+                .map(spaceId -> CompletableFuture.supplyAsync(
+                        () -> computeMetrics(spaceId, start, end, now), metricsExecutor))
+                .toList();
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .toList();
+    }
+
+    // Mapa de calor por espaço; spaceIds vazio ou nulo traz todos
+    @Transactional(readOnly = true)
+    public List<SpaceHeatmapDTO> findHeatmap(Integer weeks, Collection<Long> spaceIds) {
+        int window = resolveWeeks(weeks);
+        Map<Long, Integer> floors = findFloors();
+
+        List<Long> ids;
+        if (spaceIds == null || spaceIds.isEmpty()) {
+            ids = new ArrayList<>(floors.keySet());
+        } else {
+            Set<Long> requested = new HashSet<>(spaceIds);
+            for (Long spaceId : requested) {
+                if (!floors.containsKey(spaceId)) {
+                    throw new ResourceNotFoundException("Espaço", spaceId);
+                }
+            }
+            ids = floors.keySet().stream().filter(requested::contains).toList();
+        }
+
+        Map<Long, long[]> occupied = occupancyHeatmapCache.findOccupiedSeconds(ids, window);
+        long[] elapsed = occupancyHeatmapCache.findElapsedSeconds(window);
+
+        List<SpaceHeatmapDTO> result = new ArrayList<>(ids.size());
+        occupied.forEach((spaceId, seconds) -> result.add(
+                new SpaceHeatmapDTO(spaceId, floors.get(spaceId), window, utilization(seconds, elapsed, 1))));
+        return result;
+    }
+
+    // Mapa de calor por andar: média dos espaços do andar
+    @Transactional(readOnly = true)
+    public List<FloorHeatmapDTO> findFloorHeatmap(Integer weeks) {
+        int window = resolveWeeks(weeks);
+        Map<Long, Integer> floors = findFloors();
+
+        Map<Long, long[]> occupied = occupancyHeatmapCache.findOccupiedSeconds(floors.keySet(), window);
+        long[] elapsed = occupancyHeatmapCache.findElapsedSeconds(window);
+
+        Map<Integer, long[]> totals = new LinkedHashMap<>();
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        occupied.forEach((spaceId, seconds) -> {
+            Integer floor = floors.get(spaceId);
+            long[] total = totals.computeIfAbsent(floor, f -> new long[OccupancyHeatmapCache.HOURS_PER_WEEK]);
+            for (int hour = 0; hour < total.length; hour++) {
+                total[hour] += seconds[hour];
+            }
+            counts.merge(floor, 1, Integer::sum);
+        });
+
+        List<FloorHeatmapDTO> result = new ArrayList<>(totals.size());
+        totals.forEach((floor, seconds) -> result.add(new FloorHeatmapDTO(
+                floor, counts.get(floor), window, utilization(seconds, elapsed, counts.get(floor)))));
+        return result;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private int resolveWeeks(Integer weeks) {
+        int capacity = occupancyHeatmapCache.getCapacityWeeks();
+        if (weeks == null) {
+            return capacity;
+        }
+        if (weeks < 1 || weeks > capacity) {
+            throw new BusinessException("Número de semanas deve estar entre 1 e " + capacity);
+        }
+        return weeks;
+    }
+
+    // Andar de cada espaço, na ordem (andar, id)
+    private Map<Long, Integer> findFloors() {
+        Map<Long, Integer> floors = new LinkedHashMap<>();
+        for (Object[] row : spaceRepository.findAllIdsAndFloors()) {
+            floors.put((Long) row[0], (Integer) row[1]);
+        }
+        return floors;
+    }
+
+    private static double[] utilization(long[] occupiedSeconds, long[] elapsedSeconds, int spaces) {
+        double[] utilization = new double[occupiedSeconds.length];
+        for (int hour = 0; hour < utilization.length; hour++) {
+            long available = elapsedSeconds[hour] * spaces;
+            double rate = available > 0 ? Math.min(1.0, (double) occupiedSeconds[hour] / available) : 0;
+            // Quatro casas bastam para o mapa de calor e reduzem o JSON pela metade
+            utilization[hour] = Math.round(rate * 10_000) / 10_000.0;
+        }
+        return utilization;
+    }
+
+    private void validatePeriod(LocalDateTime start, LocalDateTime end) {
+        if (!end.isAfter(start)) {
+            throw new BusinessException("Data de fim deve ser posterior à data de início");
+        }
+    }
+
+    private OccupancyMetricsDTO computeMetrics(Long spaceId, LocalDateTime start, LocalDateTime end,
+                                               LocalDateTime now) {
+        // Sessão ainda aberta conta só até agora
+        LocalDateTime until = end.isAfter(now) ? now : end;
+        OccupancySessions summary = occupancyLogRepository.summarizeSessions(spaceId, start, end, until);
+        long elapsedSeconds = Duration.between(start, until).getSeconds();
+
+        return new OccupancyMetricsDTO(
+                spaceId,
+                start,
+                end,
+                summary.occupiedSeconds() / 60,
+                summary.sessions(),
+                summary.longestSessionSeconds() / 60,
+                elapsedSeconds > 0 ? (double) summary.occupiedSeconds() / elapsedSeconds : 0
+        );
+    }
+}
@@ -0,0 +1,123 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.dto.contention.ContentionStatsDTO;
+import com.coworking.smartcoworking.exception.ConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Repete transições idempotentes (check-in, cancelamento, pagamento...) que perderam a corrida do
+// locking otimista. Cada tentativa é uma transação nova, que relê a linha e revalida as regras.
+// Entre tentativas, espera aleatória até um teto exponencial ("full jitter"), para as requisições
+// que colidiram não voltarem juntas. Conta os conflitos por endpoint e por entidade.
+@Slf4j
+@Service
+public class OptimisticRetryService {
+
+    private static final String UNKNOWN_ENTITY = "desconhecida";
+
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final Map<String, LongAdder> conflictsByEndpoint = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> conflictsByEntity = new ConcurrentHashMap<>();
+
+    public OptimisticRetryService(
+            @Value("${coworking.optimistic-retry.max-attempts}") int maxAttempts,
+            @Value("${coworking.optimistic-retry.base-backoff-ms}") long baseBackoffMillis,
+            @Value("${coworking.optimistic-retry.max-backoff-ms}") long maxBackoffMillis) {
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    // endpoint identifica a operação nos contadores (método e rota, sem os IDs)
+    public <T> T execute(String endpoint, Supplier<T> operation) {
+        // Dentro de uma transação o retry não relê nada: a transação externa já está condenada
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return operation.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = operation.get();
+                if (attempt > 1) {
+                    recovered.increment();
+                }
+                return result;
+            } catch (OptimisticLockingFailureException ex) {
+                recordConflict(endpoint, ex);
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.warn("{}: locking otimista falhou {} vezes seguidas", endpoint, attempt);
+                    throw new ConflictException("Registro alterado por outra requisição ao mesmo tempo. Tente novamente");
+                }
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    // Conflitos de endpoints sem retry também entram nos contadores (via GlobalExceptionHandler)
+    public void recordConflict(String endpoint, OptimisticLockingFailureException ex) {
+        conflicts.increment();
+        conflictsByEndpoint.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+        conflictsByEntity.computeIfAbsent(entityOf(ex), key -> new LongAdder()).increment();
+    }
+
+    public ContentionStatsDTO getStats() {
+        return new ContentionStatsDTO(
+                conflicts.sum(),
+                retries.sum(),
+                recovered.sum(),
+                exhausted.sum(),
+                sortedByCount(conflictsByEndpoint),
+                sortedByCount(conflictsByEntity)
+        );
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Registro alterado por outra requisição ao mesmo tempo. Tente novamente");
+        }
+    }
+
+    private static String entityOf(OptimisticLockingFailureException ex) {
+        if (ex instanceof ObjectOptimisticLockingFailureException objectFailure
+                && objectFailure.getPersistentClassName() != null) {
+            String className = objectFailure.getPersistentClassName();
+            return className.substring(className.lastIndexOf('.') + 1);
+        }
+        return UNKNOWN_ENTITY;
+    }
+
+    private static Map<String, Long> sortedByCount(Map<String, LongAdder> counters) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counters.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue().sum()));
+        return sorted;
+    }
+}
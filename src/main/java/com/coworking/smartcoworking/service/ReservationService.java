@@ -1,39 +1,97 @@
 package com.coworking.smartcoworking.service;
 
+import com.coworking.smartcoworking.cache.ReservationHoldRegistry;
+import com.coworking.smartcoworking.cache.ReservationHoldRegistry.Hold;
+import com.coworking.smartcoworking.cache.ReservationIntervalIndex;
+import com.coworking.smartcoworking.cache.SeatCapacityIndex;
+import com.coworking.smartcoworking.cache.SpaceCatalogCache;
 import com.coworking.smartcoworking.dto.reservation.CreateReservationDTO;
+import com.coworking.smartcoworking.dto.reservation.CreateReservationHoldDTO;
+import com.coworking.smartcoworking.dto.reservation.CreateReservationSeriesDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationFilterDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationHoldResponseDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationOccurrenceDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationPageDTO;
 import com.coworking.smartcoworking.dto.reservation.ReservationResponseDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationSeriesResponseDTO;
 import com.coworking.smartcoworking.dto.reservation.UpdateReservationDTO;
-import com.coworking.smartcoworking.entity.Billing;
+import com.coworking.smartcoworking.entity.BillingOutboxEvent;
 import com.coworking.smartcoworking.entity.Reservation;
+import com.coworking.smartcoworking.entity.ReservationSeries;
 import com.coworking.smartcoworking.entity.Space;
 import com.coworking.smartcoworking.entity.User;
-import com.coworking.smartcoworking.enums.BillingStatus;
+import com.coworking.smartcoworking.enums.BillingOutboxType;
 import com.coworking.smartcoworking.enums.ReservationStatus;
+import com.coworking.smartcoworking.event.ReservationChangedEvent;
 import com.coworking.smartcoworking.exception.BusinessException;
 import com.coworking.smartcoworking.exception.ConflictException;
 import com.coworking.smartcoworking.exception.ResourceNotFoundException;
-import com.coworking.smartcoworking.repository.BillingRepository;
+import com.coworking.smartcoworking.job.ChunkedSweeper;
+import com.coworking.smartcoworking.job.SweepResult;
+import com.coworking.smartcoworking.repository.BillingOutboxRepository;
 import com.coworking.smartcoworking.repository.ReservationRepository;
+import com.coworking.smartcoworking.repository.ReservationSeriesRepository;
+import com.coworking.smartcoworking.repository.ReservationSpecifications;
 import com.coworking.smartcoworking.repository.SpaceRepository;
 import com.coworking.smartcoworking.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ReservationService {
 
+    // SQLState do PostgreSQL para violação da constraint reservations_no_overlap
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Sort KEYSET_ORDER = Sort.by("startDateTime", "id");
+
     private final ReservationRepository reservationRepository;
     private final UserRepository userRepository;
     private final SpaceRepository spaceRepository;
-    private final BillingRepository billingRepository;
+    private final BillingOutboxRepository billingOutboxRepository;
+    private final ReservationSeriesRepository reservationSeriesRepository;
+    private final ReservationIntervalIndex reservationIndex;
+    private final ReservationHoldRegistry holdRegistry;
+    private final SeatCapacityIndex seatCapacityIndex;
+    private final SpaceCatalogCache spaceCatalogCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChunkedSweeper chunkedSweeper;
+
+    @Value("${coworking.jobs.chunk-size:500}")
+    private int chunkSize;
+
+    // Tolerância após o início antes de expirar uma reserva confirmada sem check-in
+    @Value("${coworking.jobs.expired-reservations.grace-minutes:15}")
+    private long expirationGraceMinutes;
+
+    // Validade das pré-reservas do checkout
+    @Value("${coworking.holds.default-ttl-minutes}")
+    private int holdDefaultTtlMinutes;
+
+    @Value("${coworking.holds.max-ttl-minutes}")
+    private int holdMaxTtlMinutes;
 
     @Transactional
     public ReservationResponseDTO create(CreateReservationDTO dto) {
@@ -41,44 +99,106 @@ public class ReservationService {
         User user = userRepository.findById(dto.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário", dto.getUserId()));
 
-        Space space = spaceRepository.findById(dto.getSpaceId())
+        Space space = spaceCatalogCache.findById(dto.getSpaceId())
                 .orElseThrow(() -> new ResourceNotFoundException("Espaço", dto.getSpaceId()));
 
         // 2. Validações de negócio
-        validateReservation(dto, space);
+        int seats = dto.getSeats() != null ? dto.getSeats() : 1;
+        validateReservation(space, dto.getStartDateTime(), dto.getEndDateTime(), seats);
+        boolean shared = space.getType().isShared();
+
+        // 3. Verificar conflitos de horário com reservas e pré-reservas
+        //    (espaços compartilhados são limitados por lugares, no passo 6)
+        if (!shared) {
+            assertNoConflict(space, dto.getStartDateTime(), dto.getEndDateTime(), null);
+        }
+
+        // 4. Calcular preço total (em espaços compartilhados o preço é por lugar)
+        BigDecimal totalPrice = calculatePrice(space, dto.getStartDateTime(), dto.getEndDateTime())
+                .multiply(BigDecimal.valueOf(shared ? seats : 1));
+
+        // 5-7. Gravar reserva e evento de cobrança
+        Reservation saved = persistNew(user, space, dto.getStartDateTime(), dto.getEndDateTime(),
+                seats, totalPrice, dto.getNotes());
 
-        // 3. Verificar conflitos de horário
-        List<Reservation> conflicts = reservationRepository.findConflictingReservations(
-                space, dto.getStartDateTime(), dto.getEndDateTime()
-        );
+        // 8. Retornar DTO
+        return ReservationResponseDTO.fromEntity(saved);
+    }
+
+    // ==================== PRÉ-RESERVAS ====================
+
+    // Bloqueia o horário por alguns minutos sem gravar nada: a reserva e a cobrança só existem
+    // na confirmação, e pré-reservas abandonadas simplesmente vencem em memória
+    @Transactional(readOnly = true)
+    public ReservationHoldResponseDTO createHold(CreateReservationHoldDTO dto) {
+        User user = userRepository.findById(dto.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário", dto.getUserId()));
+
+        Space space = spaceCatalogCache.findById(dto.getSpaceId())
+                .orElseThrow(() -> new ResourceNotFoundException("Espaço", dto.getSpaceId()));
+
+        validateReservation(space, dto.getStartDateTime(), dto.getEndDateTime(), 1);
+        if (space.getType().isShared()) {
+            throw new BusinessException("Pré-reservas só estão disponíveis para espaços de uso exclusivo");
+        }
+
+        int ttlMinutes = dto.getTtlMinutes() != null ? dto.getTtlMinutes() : holdDefaultTtlMinutes;
+        if (ttlMinutes > holdMaxTtlMinutes) {
+            throw new BusinessException("Validade da pré-reserva deve ser de no máximo " + holdMaxTtlMinutes + " minutos");
+        }
 
-        if (!conflicts.isEmpty()) {
+        if (reservationIndex.hasConflict(space, dto.getStartDateTime(), dto.getEndDateTime(), null)) {
             throw new ConflictException("Já existe uma reserva neste horário");
         }
 
-        // 4. Calcular preço total
-        BigDecimal totalPrice = calculatePrice(space, dto.getStartDateTime(), dto.getEndDateTime());
+        Hold hold = holdRegistry.tryHold(user.getId(), space.getId(), dto.getStartDateTime(), dto.getEndDateTime(),
+                calculatePrice(space, dto.getStartDateTime(), dto.getEndDateTime()), dto.getNotes(),
+                Duration.ofMinutes(ttlMinutes));
+        if (hold == null) {
+            throw new ConflictException("Horário em pré-reserva por outro usuário");
+        }
+        return ReservationHoldResponseDTO.fromHold(hold);
+    }
 
-        // 5. Criar reserva
-        Reservation reservation = new Reservation();
-        reservation.setUser(user);
-        reservation.setSpace(space);
-        reservation.setStartDateTime(dto.getStartDateTime());
-        reservation.setEndDateTime(dto.getEndDateTime());
-        reservation.setTotalPrice(totalPrice);
-        reservation.setStatus(ReservationStatus.PENDENTE);
-        reservation.setNotes(dto.getNotes());
+    public ReservationHoldResponseDTO findHold(String id) {
+        return ReservationHoldResponseDTO.fromHold(findValidHold(id));
+    }
 
-        // 6. Salvar reserva
-        Reservation saved = reservationRepository.save(reservation);
+    // Promove a pré-reserva a reserva PENDENTE com o preço cotado; a cobrança sai pelo outbox
+    @Transactional
+    public ReservationResponseDTO confirmHold(String id) {
+        Hold hold = findValidHold(id);
+        if (!holdRegistry.claim(hold)) {
+            throw new ConflictException("Pré-reserva já está sendo confirmada");
+        }
 
-        // 7. Criar cobrança automática
-        createBilling(saved);
+        User user = userRepository.findById(hold.userId())
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário", hold.userId()));
 
-        // 8. Retornar DTO
+        Space space = spaceCatalogCache.findById(hold.spaceId())
+                .orElseThrow(() -> new ResourceNotFoundException("Espaço", hold.spaceId()));
+
+        if (!space.getActive()) {
+            throw new BusinessException("Espaço está inativo");
+        }
+
+        // O horário está bloqueado pela própria pré-reserva; só reservas gravadas podem conflitar
+        // (e o banco ainda decide no insert)
+        if (reservationIndex.hasConflict(space, hold.startDateTime(), hold.endDateTime(), null)) {
+            throw new ConflictException("Já existe uma reserva neste horário");
+        }
+
+        Reservation saved = persistNew(user, space, hold.startDateTime(), hold.endDateTime(),
+                1, hold.totalPrice(), hold.notes());
         return ReservationResponseDTO.fromEntity(saved);
     }
 
+    public void releaseHold(String id) {
+        if (!holdRegistry.release(findValidHold(id))) {
+            throw new ConflictException("Pré-reserva já está sendo confirmada");
+        }
+    }
+
     @Transactional(readOnly = true)
     public ReservationResponseDTO findById(Long id) {
         Reservation reservation = reservationRepository.findById(id)
@@ -94,6 +214,14 @@ public class ReservationService {
                 .collect(Collectors.toList());
     }
 
+    // Modo limitado: as "limit" reservas mais recentes
+    @Transactional(readOnly = true)
+    public List<ReservationResponseDTO> findAll(int limit) {
+        return reservationRepository.findAllByOrderByStartDateTimeDescIdDesc(toLimit(limit)).stream()
+                .map(ReservationResponseDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public List<ReservationResponseDTO> findByUserId(Long userId) {
         User user = userRepository.findById(userId)
@@ -104,6 +232,16 @@ public class ReservationService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<ReservationResponseDTO> findByUserId(Long userId, int limit) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário", userId));
+
+        return reservationRepository.findByUserOrderByStartDateTimeDescIdDesc(user, toLimit(limit)).stream()
+                .map(ReservationResponseDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public List<ReservationResponseDTO> findBySpaceId(Long spaceId) {
         Space space = spaceRepository.findById(spaceId)
@@ -114,6 +252,46 @@ public class ReservationService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<ReservationResponseDTO> findBySpaceId(Long spaceId, int limit) {
+        Space space = spaceRepository.findById(spaceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Espaço", spaceId));
+
+        return reservationRepository.findBySpaceOrderByStartDateTimeDescIdDesc(space, toLimit(limit)).stream()
+                .map(ReservationResponseDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    // Paginação por cursor em (startDateTime, id): custo constante em qualquer página
+    @Transactional(readOnly = true)
+    public ReservationPageDTO search(ReservationFilterDTO filter, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException("Tamanho da página deve estar entre 1 e " + MAX_PAGE_SIZE);
+        }
+
+        Specification<Reservation> spec = ReservationSpecifications.matching(filter);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(decodeCursor(cursor));
+        }
+
+        // Busca um registro a mais para saber se existe próxima página
+        List<Reservation> rows = reservationRepository.findBy(spec, query -> query
+                .sortBy(KEYSET_ORDER)
+                .limit(size + 1)
+                .project("user", "space")
+                .all());
+
+        boolean hasNext = rows.size() > size;
+        List<Reservation> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? encodeCursor(page.get(page.size() - 1)) : null;
+
+        List<ReservationResponseDTO> content = page.stream()
+                .map(ReservationResponseDTO::fromEntity)
+                .collect(Collectors.toList());
+
+        return new ReservationPageDTO(content, nextCursor, hasNext);
+    }
+
     @Transactional(readOnly = true)
     public List<ReservationResponseDTO> findUpcomingByUserId(Long userId) {
         User user = userRepository.findById(userId)
@@ -129,6 +307,8 @@ public class ReservationService {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reserva", id));
 
+        ReservationStatus previousStatus = reservation.getStatus();
+
         // Não permitir alterar reservas já concluídas ou canceladas
         if (reservation.getStatus() == ReservationStatus.CONCLUIDA ||
                 reservation.getStatus() == ReservationStatus.CANCELADA) {
@@ -136,19 +316,11 @@ public class ReservationService {
         }
 
         // Atualizar horários se fornecidos
-        if (dto.getStartDateTime() != null && dto.getEndDateTime() != null) {
-            // Verificar conflitos com o novo horário
-            List<Reservation> conflicts = reservationRepository.findConflictingReservations(
-                    reservation.getSpace(), dto.getStartDateTime(), dto.getEndDateTime()
-            );
-
-            // Remover a própria reserva da lista de conflitos
-            conflicts = conflicts.stream()
-                    .filter(r -> !r.getId().equals(id))
-                    .collect(Collectors.toList());
-
-            if (!conflicts.isEmpty()) {
-                throw new ConflictException("Já existe uma reserva neste horário");
+        boolean rescheduled = dto.getStartDateTime() != null && dto.getEndDateTime() != null;
+        if (rescheduled) {
+            // Verificar conflitos com o novo horário (ignorando a própria reserva)
+            if (!reservation.getSharedSpace()) {
+                assertNoConflict(reservation.getSpace(), dto.getStartDateTime(), dto.getEndDateTime(), id);
             }
 
             reservation.setStartDateTime(dto.getStartDateTime());
@@ -159,11 +331,11 @@ public class ReservationService {
                     reservation.getSpace(),
                     dto.getStartDateTime(),
                     dto.getEndDateTime()
-            );
+            ).multiply(BigDecimal.valueOf(reservation.getSharedSpace() ? reservation.getSeats() : 1));
             reservation.setTotalPrice(newPrice);
 
             // Atualizar valor na cobrança
-            updateBillingAmount(reservation, newPrice);
+            enqueueBilling(reservation, BillingOutboxType.VALOR_ALTERADO);
         }
 
         if (dto.getStatus() != null) {
@@ -174,7 +346,15 @@ public class ReservationService {
             reservation.setNotes(dto.getNotes());
         }
 
-        Reservation updated = reservationRepository.save(reservation);
+        // Em espaços compartilhados, novo horário ou reserva expirada voltando a valer ocupam lugares de novo
+        Reservation updated = saveWithoutOverlap(reservation);
+        if (updated.getSharedSpace() && !updated.getStatus().isTerminal()
+                && (rescheduled || previousStatus.isTerminal())) {
+            Long spaceId = updated.getSpace().getId();
+            reserveSeats(spaceCatalogCache.findById(spaceId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Espaço", spaceId)), updated);
+        }
+        eventPublisher.publishEvent(ReservationChangedEvent.of(updated, previousStatus));
         return ReservationResponseDTO.fromEntity(updated);
     }
 
@@ -187,11 +367,13 @@ public class ReservationService {
             throw new BusinessException("Não é possível cancelar uma reserva já concluída");
         }
 
+        ReservationStatus previousStatus = reservation.getStatus();
         reservation.setStatus(ReservationStatus.CANCELADA);
         Reservation updated = reservationRepository.save(reservation);
 
         // Cancelar cobrança
-        cancelBilling(reservation);
+        enqueueBilling(updated, BillingOutboxType.CANCELADA);
+        eventPublisher.publishEvent(ReservationChangedEvent.of(updated, previousStatus));
 
         return ReservationResponseDTO.fromEntity(updated);
     }
@@ -220,6 +402,7 @@ public class ReservationService {
         reservation.setStatus(ReservationStatus.EM_USO);
 
         Reservation updated = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(ReservationChangedEvent.of(updated, ReservationStatus.CONFIRMADA));
         return ReservationResponseDTO.fromEntity(updated);
     }
 
@@ -240,6 +423,7 @@ public class ReservationService {
         reservation.setStatus(ReservationStatus.CONCLUIDA);
 
         Reservation updated = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(ReservationChangedEvent.of(updated, ReservationStatus.EM_USO));
         return ReservationResponseDTO.fromEntity(updated);
     }
 
@@ -254,28 +438,288 @@ public class ReservationService {
         }
 
         reservationRepository.delete(reservation);
+        eventPublisher.publishEvent(ReservationChangedEvent.deleted(reservation));
+    }
+
+    // ==================== RESERVAS RECORRENTES ====================
+
+    // A regra é gravada uma vez e as ocorrências entram em lote: conflitos de todas em uma sondagem,
+    // reservas e eventos de cobrança no outbox em um JDBC batch cada
+    @Transactional
+    public ReservationSeriesResponseDTO createSeries(CreateReservationSeriesDTO dto) {
+        User user = userRepository.findById(dto.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário", dto.getUserId()));
+
+        Space space = spaceCatalogCache.findById(dto.getSpaceId())
+                .orElseThrow(() -> new ResourceNotFoundException("Espaço", dto.getSpaceId()));
+
+        int seats = dto.getSeats() != null ? dto.getSeats() : 1;
+        validateReservation(space, dto.getStartDateTime(), dto.getEndDateTime(), seats);
+        boolean shared = space.getType().isShared();
+
+        ReservationSeries series = new ReservationSeries();
+        series.setUser(user);
+        series.setSpace(space);
+        series.setFrequency(dto.getFrequency());
+        series.setInterval(dto.getInterval() != null ? dto.getInterval() : 1);
+        series.setOccurrences(dto.getOccurrences());
+        series.setFirstStartDateTime(dto.getStartDateTime());
+        series.setFirstEndDateTime(dto.getEndDateTime());
+        series.setSeats(seats);
+        series.setOccurrencePrice(calculatePrice(space, dto.getStartDateTime(), dto.getEndDateTime())
+                .multiply(BigDecimal.valueOf(shared ? seats : 1)));
+        series.setNotes(dto.getNotes());
+
+        List<LocalDateTime> starts = new ArrayList<>(series.getOccurrences());
+        List<LocalDateTime> ends = new ArrayList<>(series.getOccurrences());
+        for (int i = 0; i < series.getOccurrences(); i++) {
+            starts.add(series.startOf(i));
+            ends.add(series.endOf(i));
+        }
+
+        // Reserva mais longa que o intervalo faria as ocorrências se sobreporem
+        for (int i = 1; i < starts.size(); i++) {
+            if (ends.get(i - 1).isAfter(starts.get(i))) {
+                throw new BusinessException("As ocorrências da série se sobrepõem");
+            }
+        }
+
+        if (!shared) {
+            List<Integer> conflicts = reservationIndex.findConflicts(space, starts, ends);
+            if (!conflicts.isEmpty()) {
+                throw new ConflictException("Já existe uma reserva no horário de " + conflicts.size()
+                        + " ocorrência(s), a primeira em " + starts.get(conflicts.get(0)));
+            }
+            List<Integer> held = holdRegistry.findConflicts(space.getId(), starts, ends);
+            if (!held.isEmpty()) {
+                throw new ConflictException("Horário em pré-reserva por outro usuário em " + held.size()
+                        + " ocorrência(s), a primeira em " + starts.get(held.get(0)));
+            }
+        }
+
+        ReservationSeries savedSeries = reservationSeriesRepository.save(series);
+
+        List<Reservation> occurrences = new ArrayList<>(series.getOccurrences());
+        for (int i = 0; i < series.getOccurrences(); i++) {
+            Reservation reservation = new Reservation();
+            reservation.setUser(user);
+            reservation.setSpace(space);
+            reservation.setStartDateTime(starts.get(i));
+            reservation.setEndDateTime(ends.get(i));
+            reservation.setSeats(seats);
+            reservation.setSharedSpace(shared);
+            reservation.setTotalPrice(series.getOccurrencePrice());
+            reservation.setStatus(ReservationStatus.PENDENTE);
+            reservation.setNotes(dto.getNotes());
+            reservation.setSeries(savedSeries);
+            reservation.setOccurrenceIndex(i);
+            occurrences.add(reservation);
+        }
+        insertWithoutOverlap(occurrences);
+
+        if (shared) {
+            for (Reservation occurrence : occurrences) {
+                if (!seatCapacityIndex.tryReserve(space, occurrence.getId(),
+                        occurrence.getStartDateTime(), occurrence.getEndDateTime(), seats)) {
+                    throw new ConflictException("Não há lugares suficientes na ocorrência de "
+                            + occurrence.getStartDateTime());
+                }
+            }
+        }
+
+        List<BillingOutboxEvent> billingEvents = new ArrayList<>(occurrences.size());
+        for (Reservation occurrence : occurrences) {
+            billingEvents.add(BillingOutboxEvent.of(occurrence, BillingOutboxType.CRIADA));
+        }
+        billingOutboxRepository.saveAll(billingEvents);
+
+        for (Reservation occurrence : occurrences) {
+            eventPublisher.publishEvent(ReservationChangedEvent.of(occurrence, null));
+        }
+
+        return ReservationSeriesResponseDTO.fromEntity(savedSeries);
+    }
+
+    @Transactional(readOnly = true)
+    public ReservationSeriesResponseDTO findSeriesById(Long id) {
+        ReservationSeries series = reservationSeriesRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Série de reservas", id));
+
+        return ReservationSeriesResponseDTO.fromEntity(series);
+    }
+
+    // Expande a regra só no período pedido e completa com o estado das reservas gravadas desse trecho
+    @Transactional(readOnly = true)
+    public List<ReservationOccurrenceDTO> findSeriesOccurrences(Long id, LocalDateTime from, LocalDateTime to) {
+        ReservationSeries series = reservationSeriesRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Série de reservas", id));
+
+        List<ReservationOccurrenceDTO> occurrences = new ArrayList<>();
+        for (int i = 0; i < series.getOccurrences(); i++) {
+            LocalDateTime start = series.startOf(i);
+            if ((from == null || !series.endOf(i).isBefore(from)) && (to == null || start.isBefore(to))) {
+                occurrences.add(new ReservationOccurrenceDTO(i, null, start, series.endOf(i), null));
+            }
+        }
+        if (occurrences.isEmpty()) {
+            return occurrences;
+        }
+
+        Map<Integer, ReservationOccurrenceDTO> persisted = reservationRepository.findOccurrences(id,
+                        occurrences.get(0).getOccurrenceIndex(),
+                        occurrences.get(occurrences.size() - 1).getOccurrenceIndex()).stream()
+                .collect(Collectors.toMap(ReservationOccurrenceDTO::getOccurrenceIndex, o -> o));
+        return occurrences.stream()
+                .map(occurrence -> persisted.getOrDefault(occurrence.getOccurrenceIndex(), occurrence))
+                .collect(Collectors.toList());
+    }
+
+    // ==================== MÉTODOS PARA JOBS AUTOMÁTICOS ====================
+
+    public SweepResult processExpiredReservations() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(expirationGraceMinutes);
+        return chunkedSweeper.sweep("reservas expiradas", chunkSize, limit -> {
+            List<Object[]> expired = reservationRepository.expireChunk(cutoff, limit);
+
+            // Mantém os índices em memória em dia (entregue após o commit do lote)
+            for (Object[] row : expired) {
+                eventPublisher.publishEvent(new ReservationChangedEvent(
+                        ((Number) row[0]).longValue(),
+                        ((Number) row[1]).longValue(),
+                        ((Timestamp) row[2]).toLocalDateTime(),
+                        ((Timestamp) row[3]).toLocalDateTime(),
+                        ReservationStatus.CONFIRMADA,
+                        ReservationStatus.EXPIRADA
+                ));
+            }
+            return expired.size();
+        });
     }
 
     // ==================== MÉTODOS AUXILIARES ====================
 
-    private void validateReservation(CreateReservationDTO dto, Space space) {
+    private void validateReservation(Space space, LocalDateTime start, LocalDateTime end, int seats) {
         // Validar se espaço está ativo
         if (!space.getActive()) {
             throw new BusinessException("Espaço está inativo");
         }
 
+        // Validar lugares contra a capacidade do espaço
+        if (seats > space.getCapacity()) {
+            throw new BusinessException("Quantidade de lugares excede a capacidade do espaço (" + space.getCapacity() + ")");
+        }
+
         // Validar se data de fim é depois da data de início
-        if (!dto.getEndDateTime().isAfter(dto.getStartDateTime())) {
+        if (!end.isAfter(start)) {
             throw new BusinessException("Data de fim deve ser após a data de início");
         }
 
         // Validar duração mínima (1 hora)
-        Duration duration = Duration.between(dto.getStartDateTime(), dto.getEndDateTime());
+        Duration duration = Duration.between(start, end);
         if (duration.toMinutes() < 60) {
             throw new BusinessException("Duração mínima da reserva é de 1 hora");
         }
     }
 
+    private void assertNoConflict(Space space, LocalDateTime start, LocalDateTime end, Long ignoreReservationId) {
+        if (reservationIndex.hasConflict(space, start, end, ignoreReservationId)) {
+            throw new ConflictException("Já existe uma reserva neste horário");
+        }
+        if (holdRegistry.hasConflict(space.getId(), start, end)) {
+            throw new ConflictException("Horário em pré-reserva por outro usuário");
+        }
+    }
+
+    private Reservation persistNew(User user, Space space, LocalDateTime start, LocalDateTime end,
+                                   int seats, BigDecimal totalPrice, String notes) {
+        boolean shared = space.getType().isShared();
+
+        Reservation reservation = new Reservation();
+        reservation.setUser(user);
+        reservation.setSpace(space);
+        reservation.setStartDateTime(start);
+        reservation.setEndDateTime(end);
+        reservation.setSeats(seats);
+        reservation.setSharedSpace(shared);
+        reservation.setTotalPrice(totalPrice);
+        reservation.setStatus(ReservationStatus.PENDENTE);
+        reservation.setNotes(notes);
+
+        // O banco garante a ausência de sobreposição sob concorrência;
+        // em espaços compartilhados o índice de lugares admite até a capacidade
+        Reservation saved = saveWithoutOverlap(reservation);
+        if (shared) {
+            reserveSeats(space, saved);
+        }
+
+        // Cobrança automática (aplicada pelo relay do outbox)
+        enqueueBilling(saved, BillingOutboxType.CRIADA);
+        eventPublisher.publishEvent(ReservationChangedEvent.of(saved, null));
+        return saved;
+    }
+
+    private Hold findValidHold(String id) {
+        return holdRegistry.find(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Pré-reserva", "ID", id));
+    }
+
+    private Reservation saveWithoutOverlap(Reservation reservation) {
+        try {
+            return reservationRepository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException ex) {
+            throw translateOverlap(ex);
+        }
+    }
+
+    // IDs vêm da sequência em blocos, então o flush sai em lotes JDBC (hibernate.jdbc.batch_size)
+    private void insertWithoutOverlap(List<Reservation> reservations) {
+        try {
+            reservationRepository.saveAll(reservations);
+            reservationRepository.flush();
+        } catch (DataIntegrityViolationException ex) {
+            throw translateOverlap(ex);
+        }
+    }
+
+    private RuntimeException translateOverlap(DataIntegrityViolationException ex) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+        if (cause instanceof SQLException sqlException
+                && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+            return new ConflictException("Já existe uma reserva neste horário");
+        }
+        return ex;
+    }
+
+    // A reserva já está gravada na transação; sem lugares livres ela é desfeita pelo rollback
+    private void reserveSeats(Space space, Reservation reservation) {
+        if (!seatCapacityIndex.tryReserve(space, reservation.getId(),
+                reservation.getStartDateTime(), reservation.getEndDateTime(), reservation.getSeats())) {
+            throw new ConflictException("Não há lugares suficientes neste horário");
+        }
+    }
+
+    private Limit toLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BusinessException("O limite deve estar entre 1 e " + MAX_PAGE_SIZE);
+        }
+        return Limit.of(limit);
+    }
+
+    private String encodeCursor(Reservation last) {
+        String raw = last.getStartDateTime() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Specification<Reservation> decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            return ReservationSpecifications.after(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (RuntimeException ex) {
+            throw new BusinessException("Cursor de paginação inválido");
+        }
+    }
+
     private BigDecimal calculatePrice(Space space, LocalDateTime start, LocalDateTime end) {
         // Calcular duração em horas
         Duration duration = Duration.between(start, end);
@@ -296,30 +740,8 @@ public class ReservationService {
         return pricePerHour.multiply(BigDecimal.valueOf(hours));
     }
 
-    private void createBilling(Reservation reservation) {
-        Billing billing = new Billing();
-        billing.setReservation(reservation);
-        billing.setUser(reservation.getUser());
-        billing.setAmount(reservation.getTotalPrice());
-        billing.setStatus(BillingStatus.PENDENTE);
-        billing.setDueDate(reservation.getStartDateTime().toLocalDate());
-
-        billingRepository.save(billing);
-    }
-
-    private void updateBillingAmount(Reservation reservation, BigDecimal newAmount) {
-        billingRepository.findByReservation(reservation).ifPresent(billing -> {
-            billing.setAmount(newAmount);
-            billingRepository.save(billing);
-        });
-    }
-
-    private void cancelBilling(Reservation reservation) {
-        billingRepository.findByReservation(reservation).ifPresent(billing -> {
-            if (billing.getStatus() == BillingStatus.PENDENTE) {
-                billing.setStatus(BillingStatus.CANCELADA);
-                billingRepository.save(billing);
-            }
-        });
+    // Cobranças ficam fora da transação da reserva: só o evento é gravado aqui
+    private void enqueueBilling(Reservation reservation, BillingOutboxType type) {
+        billingOutboxRepository.save(BillingOutboxEvent.of(reservation, type));
     }
 }
\ No newline at end of file
@@ -1,24 +1,54 @@
 package com.coworking.smartcoworking.service;
 
+import com.coworking.smartcoworking.cache.OccupancyHeatmapCache;
+import com.coworking.smartcoworking.cache.OccupancyStateCache;
+import com.coworking.smartcoworking.cache.SeatCapacityIndex;
+import com.coworking.smartcoworking.cache.SlotAvailabilityCache;
+import com.coworking.smartcoworking.cache.SpaceCatalogCache;
+import com.coworking.smartcoworking.cache.SpaceSearchIndex;
 import com.coworking.smartcoworking.dto.space.CreateSpaceDTO;
+import com.coworking.smartcoworking.dto.space.SpaceCacheStatsDTO;
+import com.coworking.smartcoworking.dto.space.SpaceDayGridDTO;
 import com.coworking.smartcoworking.dto.space.SpaceResponseDTO;
 import com.coworking.smartcoworking.dto.space.UpdateSpaceDTO;
 import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.enums.Amenity;
 import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.event.SpaceChangedEvent;
+import com.coworking.smartcoworking.exception.BusinessException;
 import com.coworking.smartcoworking.exception.ResourceNotFoundException;
 import com.coworking.smartcoworking.repository.SpaceRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SpaceService {
 
+    private static final int MAX_GRID_DAYS = 31;
+
     private final SpaceRepository spaceRepository;
+    private final SlotAvailabilityCache slotAvailabilityCache;
+    private final SeatCapacityIndex seatCapacityIndex;
+    private final OccupancyStateCache occupancyStateCache;
+    private final OccupancyHeatmapCache occupancyHeatmapCache;
+    private final SpaceCatalogCache spaceCatalogCache;
+    private final SpaceSearchIndex spaceSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public SpaceResponseDTO create(CreateSpaceDTO dto) {
@@ -40,54 +70,119 @@ public class SpaceService {
 
         // Salvar
         Space saved = spaceRepository.save(space);
+        eventPublisher.publishEvent(SpaceChangedEvent.of(saved));
 
         // Retornar DTO
         return SpaceResponseDTO.fromEntity(saved);
     }
 
-    @Transactional(readOnly = true)
+    // Leituras do catálogo passam pelo cache; só um miss abre transação e vai ao banco
     public SpaceResponseDTO findById(Long id) {
-        Space space = spaceRepository.findById(id)
+        Space space = spaceCatalogCache.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Espaço", id));
 
         return SpaceResponseDTO.fromEntity(space);
     }
 
-    @Transactional(readOnly = true)
     public List<SpaceResponseDTO> findAll() {
-        return spaceRepository.findAll().stream()
-                .map(SpaceResponseDTO::fromEntity)
-                .collect(Collectors.toList());
+        return toResponse(spaceCatalogCache.findAll("all", space -> true, spaceRepository::findAll));
     }
 
-    @Transactional(readOnly = true)
     public List<SpaceResponseDTO> findByType(SpaceType type) {
-        return spaceRepository.findByType(type).stream()
-                .map(SpaceResponseDTO::fromEntity)
-                .collect(Collectors.toList());
+        return toResponse(spaceCatalogCache.findAll("type:" + type,
+                space -> space.getType() == type,
+                () -> spaceRepository.findByType(type)));
     }
 
-    @Transactional(readOnly = true)
     public List<SpaceResponseDTO> findActiveSpaces() {
-        return spaceRepository.findByActiveTrue().stream()
-                .map(SpaceResponseDTO::fromEntity)
-                .collect(Collectors.toList());
+        return toResponse(spaceCatalogCache.findAll("active",
+                space -> Boolean.TRUE.equals(space.getActive()),
+                spaceRepository::findByActiveTrue));
     }
 
-    @Transactional(readOnly = true)
     public List<SpaceResponseDTO> findByFloor(Integer floor) {
-        return spaceRepository.findByFloor(floor).stream()
-                .map(SpaceResponseDTO::fromEntity)
-                .collect(Collectors.toList());
+        return toResponse(spaceCatalogCache.findAll("floor:" + floor,
+                space -> floor.equals(space.getFloor()),
+                () -> spaceRepository.findByFloor(floor)));
     }
 
-    @Transactional(readOnly = true)
     public List<SpaceResponseDTO> findByCapacity(Integer minCapacity) {
-        return spaceRepository.findByCapacityGreaterThanEqual(minCapacity).stream()
+        return toResponse(spaceCatalogCache.findAll("capacity:" + minCapacity,
+                space -> space.getCapacity() >= minCapacity,
+                () -> spaceRepository.findByCapacityGreaterThanEqual(minCapacity)));
+    }
+
+    // Busca combinada entre espaços ativos: vários tipos/andares valem como "qualquer um", comodidades como "todas"
+    public List<SpaceResponseDTO> search(Collection<SpaceType> types, Collection<Integer> floors, Integer minCapacity,
+                                         BigDecimal maxPricePerHour, Collection<Amenity> amenities) {
+        if (minCapacity != null && minCapacity < 1) {
+            throw new BusinessException("Capacidade mínima deve ser pelo menos 1");
+        }
+        if (maxPricePerHour != null && maxPricePerHour.signum() < 0) {
+            throw new BusinessException("Preço máximo por hora não pode ser negativo");
+        }
+
+        return toResponse(spaceSearchIndex.search(types, floors, minCapacity, maxPricePerHour, amenities));
+    }
+
+    public SpaceCacheStatsDTO getCacheStats() {
+        return spaceCatalogCache.getStats();
+    }
+
+    @Transactional(readOnly = true)
+    public List<SpaceResponseDTO> findAvailable(LocalDateTime start, LocalDateTime end, SpaceType type,
+                                                Integer minCapacity, Collection<Amenity> amenities) {
+        if (!end.isAfter(start)) {
+            throw new BusinessException("Data de fim deve ser após a data de início");
+        }
+
+        return spaceRepository.findFreeSpacesInPeriod(
+                        start, end, type, minCapacity,
+                        amenities.contains(Amenity.WIFI),
+                        amenities.contains(Amenity.PROJETOR),
+                        amenities.contains(Amenity.QUADRO_BRANCO),
+                        amenities.contains(Amenity.AR_CONDICIONADO)
+                ).stream()
+                // Espaços compartilhados ficam disponíveis enquanto houver lugar livre no período todo
+                .filter(space -> !space.getType().isShared() || seatCapacityIndex.availableSeats(space, start, end) > 0)
                 .map(SpaceResponseDTO::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    public List<SpaceDayGridDTO> findDayGrid(List<Long> spaceIds, LocalDate from, int days) {
+        if (days < 1 || days > MAX_GRID_DAYS) {
+            throw new BusinessException("Quantidade de dias deve estar entre 1 e " + MAX_GRID_DAYS);
+        }
+        if (from.isBefore(LocalDate.now())) {
+            throw new BusinessException("A grade de disponibilidade começa no dia atual");
+        }
+
+        // Espaços compartilhados só aparecem ocupados nos slots em que estão lotados
+        Map<Long, Space> sharedSpaces = new HashMap<>();
+        List<Long> exclusiveIds = new ArrayList<>();
+        for (Long spaceId : spaceIds) {
+            Space space = spaceCatalogCache.findById(spaceId).orElse(null);
+            if (space != null && space.getType().isShared()) {
+                sharedSpaces.put(spaceId, space);
+            } else {
+                exclusiveIds.add(spaceId);
+            }
+        }
+        Map<Long, Map<LocalDate, BitSet>> busySlots = slotAvailabilityCache.findBusySlots(exclusiveIds, from, days);
+
+        List<SpaceDayGridDTO> grid = new ArrayList<>();
+        for (Long spaceId : new LinkedHashSet<>(spaceIds)) {
+            Space shared = sharedSpaces.get(spaceId);
+            Map<LocalDate, BitSet> spaceDays = shared != null
+                    ? seatCapacityIndex.findFullSlots(shared, from, days, SlotAvailabilityCache.SLOT_MINUTES)
+                    : busySlots.get(spaceId);
+            spaceDays.forEach((date, busy) ->
+                    grid.add(new SpaceDayGridDTO(
+                            spaceId, date, SlotAvailabilityCache.SLOT_MINUTES, toSlotString(busy))));
+        }
+        return grid;
+    }
+
     @Transactional
     public SpaceResponseDTO update(Long id, UpdateSpaceDTO dto) {
         Space space = spaceRepository.findById(id)
@@ -132,6 +227,7 @@ public class SpaceService {
         }
 
         Space updated = spaceRepository.save(space);
+        eventPublisher.publishEvent(SpaceChangedEvent.of(updated));
         return SpaceResponseDTO.fromEntity(updated);
     }
 
@@ -144,6 +240,9 @@ public class SpaceService {
         // TODO: Implementar essa validação quando necessário
 
         spaceRepository.delete(space);
+        eventPublisher.publishEvent(SpaceChangedEvent.deleted(id));
+        occupancyStateCache.evict(id);
+        occupancyHeatmapCache.evict(id);
     }
 
     @Transactional
@@ -153,6 +252,7 @@ public class SpaceService {
 
         space.setActive(true);
         Space updated = spaceRepository.save(space);
+        eventPublisher.publishEvent(SpaceChangedEvent.of(updated));
 
         return SpaceResponseDTO.fromEntity(updated);
     }
@@ -164,7 +264,24 @@ public class SpaceService {
 
         space.setActive(false);
         Space updated = spaceRepository.save(space);
+        eventPublisher.publishEvent(SpaceChangedEvent.of(updated));
 
         return SpaceResponseDTO.fromEntity(updated);
     }
-}
\ No newline at end of file
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private List<SpaceResponseDTO> toResponse(List<Space> spaces) {
+        return spaces.stream()
+                .map(SpaceResponseDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    private String toSlotString(BitSet busy) {
+        char[] slots = new char[SlotAvailabilityCache.SLOTS_PER_DAY];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = busy.get(i) ? '1' : '0';
+        }
+        return new String(slots);
+    }
+}
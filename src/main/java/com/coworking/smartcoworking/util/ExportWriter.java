@@ -0,0 +1,126 @@
+package com.coworking.smartcoworking.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+
+// Escreve registros (records) linha a linha em CSV ou NDJSON, sem acumular nada em memória.
+// As colunas do CSV seguem a ordem dos componentes do record.
+public class ExportWriter<T extends Record> implements Closeable {
+
+    private final BufferedWriter writer;
+    private final ExportFormat format;
+    private final ObjectMapper objectMapper;
+    private final Method[] accessors;
+    private final int flushEvery;
+    private long count;
+
+    public ExportWriter(OutputStream out, ExportFormat format, Class<T> type,
+                        ObjectMapper objectMapper, int flushEvery) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.flushEvery = flushEvery;
+
+        RecordComponent[] components = type.getRecordComponents();
+        this.accessors = new Method[components.length];
+        for (int i = 0; i < components.length; i++) {
+            accessors[i] = components[i].getAccessor();
+        }
+
+        if (format == ExportFormat.CSV) {
+            String[] header = new String[components.length];
+            for (int i = 0; i < components.length; i++) {
+                header[i] = components[i].getName();
+            }
+            writeLine(String.join(",", header));
+        }
+    }
+
+    public void write(T row) {
+        if (format == ExportFormat.CSV) {
+            writeLine(toCsv(row));
+        } else {
+            writeLine(toJson(row));
+        }
+
+        // Descarrega periodicamente para o cliente começar a receber logo
+        if (++count % flushEvery == 0) {
+            flush();
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private String toCsv(T row) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < accessors.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = read(row, accessors[i]);
+            if (value != null) {
+                line.append(escapeCsv(value.toString()));
+            }
+        }
+        return line.toString();
+    }
+
+    private String toJson(T row) {
+        try {
+            return objectMapper.writeValueAsString(row);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static Object read(Object row, Method accessor) {
+        try {
+            return accessor.invoke(row);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Falha ao ler " + accessor.getName(), ex);
+        }
+    }
+
+    private void writeLine(String line) {
+        try {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void flush() {
+        try {
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
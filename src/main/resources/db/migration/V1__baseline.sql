@@ -0,0 +1,203 @@
+-- Schema inicial de uma instalação nova.
+-- Bancos criados antes das migrations (Hibernate com ddl-auto=update) não recebem esta versão direto:
+-- primeiro rodam db/upgrade/pre_flyway_to_v1.sql e depois sobem a aplicação uma vez com
+--   --spring.flyway.baseline-on-migrate=true --spring.flyway.baseline-version=1
+-- e seguem a partir da V2. Nomes de FKs e UNIQUEs são os gerados pelo Hibernate, os mesmos que o script mantém.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- IDs em blocos de 50 (allocationSize das entidades, otimizador pooled do Hibernate)
+CREATE SEQUENCE users_seq INCREMENT BY 50;
+CREATE SEQUENCE spaces_seq INCREMENT BY 50;
+CREATE SEQUENCE reservation_series_seq INCREMENT BY 50;
+CREATE SEQUENCE reservations_seq INCREMENT BY 50;
+CREATE SEQUENCE billings_seq INCREMENT BY 50;
+CREATE SEQUENCE occupancy_logs_seq INCREMENT BY 50;
+
+-- ==================== USUÁRIOS E ESPAÇOS ====================
+
+CREATE TABLE users (
+    id bigint NOT NULL DEFAULT nextval('users_seq'),
+    name varchar(100) NOT NULL,
+    email varchar(100) NOT NULL,
+    password varchar(255) NOT NULL,
+    phone varchar(20),
+    role varchar(20) NOT NULL CHECK (role IN ('ADMIN', 'MEMBER', 'VISITOR')),
+    credits numeric(10, 2) NOT NULL,
+    active boolean NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    CONSTRAINT users_pkey PRIMARY KEY (id),
+    CONSTRAINT uk6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email)
+);
+
+CREATE TABLE spaces (
+    id bigint NOT NULL DEFAULT nextval('spaces_seq'),
+    name varchar(100) NOT NULL,
+    description varchar(500),
+    type varchar(30) NOT NULL
+        CHECK (type IN ('SALA_REUNIAO', 'MESA_FIXA', 'HOT_DESK', 'SALA_PRIVATIVA', 'AUDITORIO')),
+    capacity integer NOT NULL,
+    floor integer NOT NULL,
+    price_per_hour numeric(10, 2),
+    price_per_day numeric(10, 2),
+    price_per_month numeric(10, 2),
+    has_wifi boolean NOT NULL,
+    has_projector boolean NOT NULL,
+    has_whiteboard boolean NOT NULL,
+    has_ac boolean NOT NULL,
+    active boolean NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    CONSTRAINT spaces_pkey PRIMARY KEY (id)
+);
+
+-- ==================== RESERVAS ====================
+
+CREATE TABLE reservation_series (
+    id bigint NOT NULL DEFAULT nextval('reservation_series_seq'),
+    user_id bigint NOT NULL,
+    space_id bigint NOT NULL,
+    frequency varchar(20) NOT NULL CHECK (frequency IN ('DIARIA', 'SEMANAL', 'MENSAL')),
+    repeat_interval integer NOT NULL,
+    occurrences integer NOT NULL,
+    first_start_date_time timestamp(6) NOT NULL,
+    first_end_date_time timestamp(6) NOT NULL,
+    seats integer NOT NULL,
+    occurrence_price numeric(10, 2) NOT NULL,
+    notes varchar(1000),
+    created_at timestamp(6) NOT NULL,
+    CONSTRAINT reservation_series_pkey PRIMARY KEY (id),
+    CONSTRAINT fkavtqlud7tiyou1678osgav4sk FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fkjnc3u82ra0kbk7doe4otkufee FOREIGN KEY (space_id) REFERENCES spaces (id)
+);
+
+CREATE TABLE reservations (
+    id bigint NOT NULL DEFAULT nextval('reservations_seq'),
+    user_id bigint NOT NULL,
+    space_id bigint NOT NULL,
+    start_date_time timestamp(6) NOT NULL,
+    end_date_time timestamp(6) NOT NULL,
+    -- Intervalo [início, fim) da reserva, mantido pelo próprio PostgreSQL
+    period tsrange GENERATED ALWAYS AS (tsrange(start_date_time, end_date_time, '[)')) STORED,
+    seats integer NOT NULL DEFAULT 1,
+    shared_space boolean NOT NULL DEFAULT false,
+    total_price numeric(10, 2) NOT NULL,
+    status varchar(20) NOT NULL
+        CHECK (status IN ('PENDENTE', 'CONFIRMADA', 'EM_USO', 'CONCLUIDA', 'CANCELADA', 'EXPIRADA')),
+    check_in_time timestamp(6),
+    check_out_time timestamp(6),
+    notes varchar(1000),
+    series_id bigint,
+    occurrence_index integer,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    CONSTRAINT reservations_pkey PRIMARY KEY (id),
+    CONSTRAINT fkb5g9io5h54iwl2inkno50ppln FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fkamig3ih2d03a4kb15cuoax1rm FOREIGN KEY (space_id) REFERENCES spaces (id),
+    CONSTRAINT fkb7peb4qbkin6jb7n2lj0m6qxx FOREIGN KEY (series_id) REFERENCES reservation_series (id),
+    -- Impede duas reservas ativas sobrepostas no mesmo espaço exclusivo, mesmo sob concorrência.
+    -- Espaços compartilhados (HOT_DESK, AUDITORIO) são limitados por lugares na aplicação.
+    CONSTRAINT reservations_no_overlap EXCLUDE USING gist (space_id WITH =, period WITH &&)
+        WHERE (status NOT IN ('CANCELADA', 'CONCLUIDA', 'EXPIRADA') AND NOT shared_space)
+);
+
+-- Paginação keyset em (start_date_time, id), com e sem os filtros mais comuns
+CREATE INDEX idx_reservations_start_id ON reservations (start_date_time, id);
+CREATE INDEX idx_reservations_space_start_id ON reservations (space_id, start_date_time, id);
+CREATE INDEX idx_reservations_user_start_id ON reservations (user_id, start_date_time, id);
+CREATE INDEX idx_reservations_status_start_id ON reservations (status, start_date_time, id);
+CREATE INDEX idx_reservations_series_occurrence ON reservations (series_id, occurrence_index);
+
+-- ==================== COBRANÇAS ====================
+
+CREATE TABLE billings (
+    id bigint NOT NULL DEFAULT nextval('billings_seq'),
+    reservation_id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    amount numeric(10, 2) NOT NULL,
+    status varchar(20) NOT NULL
+        CHECK (status IN ('PENDENTE', 'PAGA', 'ATRASADA', 'CANCELADA', 'REEMBOLSADA')),
+    due_date date NOT NULL,
+    paid_date date,
+    payment_method varchar(50),
+    notes varchar(500),
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    CONSTRAINT billings_pkey PRIMARY KEY (id),
+    CONSTRAINT uk9fm2as93w6y5nwbxe6nxm7nkv UNIQUE (reservation_id),
+    CONSTRAINT fkm134iara69rqiumne7xteft0u FOREIGN KEY (reservation_id) REFERENCES reservations (id),
+    CONSTRAINT fk8pjagxaknj3hq37qw4tysb07 FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE user_billing_ledgers (
+    user_id bigint NOT NULL,
+    total_debt numeric(12, 2) NOT NULL,
+    total_paid numeric(12, 2) NOT NULL,
+    pending_count bigint NOT NULL,
+    overdue_count bigint NOT NULL,
+    updated_at timestamp(6),
+    CONSTRAINT user_billing_ledgers_pkey PRIMARY KEY (user_id)
+);
+
+-- ==================== OCUPAÇÃO: PARTIÇÕES MENSAIS ====================
+
+-- A chave primária precisa incluir a coluna de particionamento
+CREATE TABLE occupancy_logs (
+    id bigint NOT NULL DEFAULT nextval('occupancy_logs_seq'),
+    space_id bigint NOT NULL REFERENCES spaces (id),
+    timestamp timestamp(6) NOT NULL,
+    occupied boolean NOT NULL,
+    reservation_id bigint REFERENCES reservations (id),
+    notes varchar(500),
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+ALTER SEQUENCE occupancy_logs_seq OWNED BY occupancy_logs.id;
+
+CREATE INDEX idx_occupancy_logs_space_timestamp ON occupancy_logs (space_id, timestamp);
+CREATE TABLE occupancy_logs_default PARTITION OF occupancy_logs DEFAULT;
+
+-- Cria a partição mensal de occupancy_logs que começa em month_start, se ainda não existir.
+-- Linhas desse mês que caíram na partição padrão são movidas para a nova partição.
+CREATE OR REPLACE FUNCTION ensure_occupancy_partition(month_start date) RETURNS void AS $$
+DECLARE
+    partition_name text := 'occupancy_logs_p' || to_char(month_start, 'YYYYMM');
+    next_month date := (date_trunc('month', month_start) + interval '1 month')::date;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    CREATE TEMP TABLE IF NOT EXISTS occupancy_logs_moving (LIKE occupancy_logs) ON COMMIT DELETE ROWS;
+    WITH moved AS (
+        DELETE FROM occupancy_logs_default
+        WHERE timestamp >= month_start AND timestamp < next_month
+        RETURNING *
+    )
+    INSERT INTO occupancy_logs_moving SELECT * FROM moved;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF occupancy_logs FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, month_start, next_month);
+
+    INSERT INTO occupancy_logs SELECT * FROM occupancy_logs_moving;
+    TRUNCATE occupancy_logs_moving;
+END
+$$ LANGUAGE plpgsql;
+
+-- Partições do mês corrente e dos próximos três (depois disso, o job de retenção mantém o restante)
+SELECT ensure_occupancy_partition((date_trunc('month', now()) + make_interval(months => m))::date)
+FROM generate_series(0, 3) AS m;
+
+-- Agregado horário por espaço, preenchido antes de descartar partições antigas
+CREATE TABLE occupancy_hourly (
+    space_id bigint NOT NULL REFERENCES spaces (id),
+    hour timestamp(6) NOT NULL,
+    occupied_seconds integer NOT NULL,
+    events integer NOT NULL,
+    occupied_events integer NOT NULL,
+    sessions_started integer NOT NULL,
+    -- Maior sessão encerrada nesta hora (sessões que cruzam a virada do mês são medidas por mês)
+    longest_session_seconds integer NOT NULL,
+    occupied_at_end boolean NOT NULL,
+    PRIMARY KEY (space_id, hour)
+);
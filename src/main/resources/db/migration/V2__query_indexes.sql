@@ -0,0 +1,45 @@
+-- Índices compostos e parciais casados com as consultas dos repositórios.
+-- Os parciais cobrem só as linhas "vivas" (reservas ativas, cobranças pendentes), que são uma
+-- fração pequena da tabela e continuam pequenas conforme o histórico cresce.
+-- QueryPlanTests roda EXPLAIN de cada consulta sobre uma massa de dados e falha em Seq Scan.
+
+-- ==================== RESERVAS ====================
+
+-- Conflito de horário e horários ocupados por espaço: findConflictingReservations,
+-- findActiveSlotsBySpaces, findActiveSeatSlotsInPeriod e o anti-join de findFreeSpacesInPeriod
+CREATE INDEX idx_reservations_active_space_period ON reservations (space_id, start_date_time, end_date_time)
+    WHERE status NOT IN ('CANCELADA', 'CONCLUIDA', 'EXPIRADA');
+
+-- Carga dos índices em memória: findActiveSlots e findActiveSeatSlots (fim depois de agora)
+CREATE INDEX idx_reservations_active_end ON reservations (end_date_time)
+    WHERE status NOT IN ('CANCELADA', 'CONCLUIDA', 'EXPIRADA');
+
+-- findUpcomingReservations, findByUserAndStatus e countByUserAndStatus
+CREATE INDEX idx_reservations_user_status_start ON reservations (user_id, status, start_date_time);
+
+-- Reservas confirmadas sem check-in: findExpiredReservations e o lote de expireChunk
+CREATE INDEX idx_reservations_pending_check_in ON reservations (start_date_time)
+    WHERE status = 'CONFIRMADA' AND check_in_time IS NULL;
+
+-- ==================== COBRANÇAS ====================
+
+-- Vencidas e a vencer: findOverdueBillings, markOverdueChunk e findBillingsDueSoon
+CREATE INDEX idx_billings_pending_due_date ON billings (due_date) WHERE status = 'PENDENTE';
+
+-- Cobranças do usuário por status (listagens ordenadas por vencimento, totais e hasOverdueBillings)
+CREATE INDEX idx_billings_user_status_due_date ON billings (user_id, status, due_date);
+
+-- Relatórios e exportações por período: findByPeriod, streamForExport, streamPaidForExport
+CREATE INDEX idx_billings_created_id ON billings (created_at, id);
+CREATE INDEX idx_billings_paid_date_id ON billings (paid_date, id) WHERE status = 'PAGA';
+
+-- ==================== OCUPAÇÃO ====================
+
+-- findByReservationOrderByTimestampAsc (e a checagem da FK ao remover reservas)
+CREATE INDEX idx_occupancy_logs_reservation_timestamp ON occupancy_logs (reservation_id, timestamp)
+    WHERE reservation_id IS NOT NULL;
+
+-- Bancos anteriores às migrations: o ddl-auto recriava as FKs de occupancy_logs com nomes do
+-- Hibernate ao lado das criadas na conversão para tabela particionada
+ALTER TABLE occupancy_logs DROP CONSTRAINT IF EXISTS fkgbxkmpglq85jc6whcdx5se5m9;
+ALTER TABLE occupancy_logs DROP CONSTRAINT IF EXISTS fkn652no87g79ajv5oukqnjscch;
@@ -0,0 +1,17 @@
+-- Outbox das cobranças: a transação da reserva só grava o evento aqui e o relay
+-- (BillingOutboxRelay) aplica as mudanças em billings e no resumo financeiro, em lotes.
+-- Sem FK para reservations: o evento pode sobreviver à reserva e é descartado pelo relay.
+
+CREATE SEQUENCE billing_outbox_seq INCREMENT BY 50;
+
+CREATE TABLE billing_outbox (
+    id bigint NOT NULL DEFAULT nextval('billing_outbox_seq'),
+    reservation_id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    type varchar(20) NOT NULL CHECK (type IN ('CRIADA', 'VALOR_ALTERADO', 'CANCELADA')),
+    amount numeric(10, 2),
+    due_date date,
+    created_at timestamp(6) NOT NULL,
+    CONSTRAINT billing_outbox_pkey PRIMARY KEY (id)
+);
+ALTER SEQUENCE billing_outbox_seq OWNED BY billing_outbox.id;
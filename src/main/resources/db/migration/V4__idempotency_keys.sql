@@ -0,0 +1,19 @@
+-- Respostas de requisições com Idempotency-Key (reserva e pagamento), para repetir a mesma resposta
+-- em novas tentativas do cliente. A chave é inserida no início da transação da operação: um retry
+-- concorrente em outra instância espera o commit na chave primária e lê a resposta gravada.
+
+CREATE TABLE idempotency_keys (
+    scope varchar(60) NOT NULL,
+    idempotency_key varchar(255) NOT NULL,
+    -- SHA-256 do corpo/parâmetros: a mesma chave com outra requisição é rejeitada
+    request_hash varchar(64) NOT NULL,
+    -- Preenchidos ao fim da operação, antes do commit
+    status_code integer,
+    response_body text,
+    created_at timestamp(6) NOT NULL,
+    expires_at timestamp(6) NOT NULL,
+    CONSTRAINT idempotency_keys_pkey PRIMARY KEY (scope, idempotency_key)
+);
+
+-- Limpeza periódica das chaves expiradas
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
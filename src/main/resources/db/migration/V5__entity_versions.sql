@@ -0,0 +1,8 @@
+-- Versão para locking otimista (@Version) nas entidades alteradas pela aplicação: uma atualização
+-- baseada em uma leitura já superada falha em vez de sobrescrever a outra.
+-- Os UPDATEs em massa dos jobs (expireChunk, markOverdueChunk) também incrementam a versão.
+
+ALTER TABLE users ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE spaces ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE reservations ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE billings ADD COLUMN version bigint NOT NULL DEFAULT 0;
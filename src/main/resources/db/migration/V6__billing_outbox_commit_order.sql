@@ -0,0 +1,8 @@
+-- Ordem do outbox por transação, não só por ID: os IDs vêm em blocos por instância (pooled), então uma
+-- instância pode gravar depois um ID menor que o de outra. O xid de quem altera uma reserva é atribuído
+-- na primeira escrita, depois de ler a versão confirmada pela transação anterior (@Version), então
+-- cresce entre as mudanças da mesma reserva. Dentro da transação, os IDs da própria instância crescem.
+
+ALTER TABLE billing_outbox ADD COLUMN tx_id xid8 NOT NULL DEFAULT pg_current_xact_id();
+
+CREATE INDEX idx_billing_outbox_tx_order ON billing_outbox (tx_id, id);
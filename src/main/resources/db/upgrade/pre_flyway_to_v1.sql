@@ -0,0 +1,166 @@
+-- Atualização manual de um banco criado antes das migrations (Hibernate com ddl-auto=update) para o
+-- schema da V1. Não é uma migration: rodar uma única vez, com a aplicação parada e após um backup,
+--   psql -v ON_ERROR_STOP=1 -f pre_flyway_to_v1.sql coworking_db
+-- e subir a aplicação uma vez com
+--   --spring.flyway.baseline-on-migrate=true --spring.flyway.baseline-version=1
+-- para registrar a V1 como baseline; a V2 em diante roda normalmente. Tudo em uma transação: se falhar
+-- (ex.: reservas ativas sobrepostas no mesmo espaço exclusivo), nada é alterado.
+
+BEGIN;
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- ==================== IDS POR SEQUÊNCIA ====================
+
+-- IDENTITY vira sequência em blocos de 50 (allocationSize das entidades, otimizador pooled do
+-- Hibernate: cada nextval reserva os IDs (valor - 49 .. valor]), que avança além dos IDs já gravados
+DO $$
+DECLARE
+    t text;
+    max_id bigint;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['users', 'spaces', 'reservations', 'billings', 'occupancy_logs'] LOOP
+        EXECUTE format('CREATE SEQUENCE %I INCREMENT BY 50', t || '_seq');
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', t, t || '_seq');
+
+        EXECUTE format('SELECT MAX(id) FROM %I', t) INTO max_id;
+        IF max_id IS NOT NULL THEN
+            PERFORM setval(t || '_seq', max_id + 50, false);
+        END IF;
+    END LOOP;
+END
+$$;
+
+CREATE SEQUENCE reservation_series_seq INCREMENT BY 50;
+
+-- ==================== RESERVAS ====================
+
+CREATE TABLE reservation_series (
+    id bigint NOT NULL DEFAULT nextval('reservation_series_seq'),
+    user_id bigint NOT NULL,
+    space_id bigint NOT NULL,
+    frequency varchar(20) NOT NULL CHECK (frequency IN ('DIARIA', 'SEMANAL', 'MENSAL')),
+    repeat_interval integer NOT NULL,
+    occurrences integer NOT NULL,
+    first_start_date_time timestamp(6) NOT NULL,
+    first_end_date_time timestamp(6) NOT NULL,
+    seats integer NOT NULL,
+    occurrence_price numeric(10, 2) NOT NULL,
+    notes varchar(1000),
+    created_at timestamp(6) NOT NULL,
+    CONSTRAINT reservation_series_pkey PRIMARY KEY (id),
+    CONSTRAINT fkavtqlud7tiyou1678osgav4sk FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fkjnc3u82ra0kbk7doe4otkufee FOREIGN KEY (space_id) REFERENCES spaces (id)
+);
+
+ALTER TABLE reservations
+    ADD COLUMN period tsrange GENERATED ALWAYS AS (tsrange(start_date_time, end_date_time, '[)')) STORED,
+    ADD COLUMN seats integer NOT NULL DEFAULT 1,
+    ADD COLUMN shared_space boolean NOT NULL DEFAULT false,
+    ADD COLUMN series_id bigint,
+    ADD COLUMN occurrence_index integer,
+    ADD CONSTRAINT fkb7peb4qbkin6jb7n2lj0m6qxx FOREIGN KEY (series_id) REFERENCES reservation_series (id);
+
+-- Reservas já existentes em espaços compartilhados ocupam um lugar e ficam fora da constraint abaixo
+UPDATE reservations r SET shared_space = true
+FROM spaces s
+WHERE r.space_id = s.id AND s.type IN ('HOT_DESK', 'AUDITORIO');
+
+ALTER TABLE reservations ADD CONSTRAINT reservations_no_overlap
+    EXCLUDE USING gist (space_id WITH =, period WITH &&)
+    WHERE (status NOT IN ('CANCELADA', 'CONCLUIDA', 'EXPIRADA') AND NOT shared_space);
+
+CREATE INDEX idx_reservations_start_id ON reservations (start_date_time, id);
+CREATE INDEX idx_reservations_space_start_id ON reservations (space_id, start_date_time, id);
+CREATE INDEX idx_reservations_user_start_id ON reservations (user_id, start_date_time, id);
+CREATE INDEX idx_reservations_status_start_id ON reservations (status, start_date_time, id);
+CREATE INDEX idx_reservations_series_occurrence ON reservations (series_id, occurrence_index);
+
+-- ==================== COBRANÇAS ====================
+
+-- Populada pela aplicação na primeira subida (BillingLedgerService.initialize)
+CREATE TABLE user_billing_ledgers (
+    user_id bigint NOT NULL,
+    total_debt numeric(12, 2) NOT NULL,
+    total_paid numeric(12, 2) NOT NULL,
+    pending_count bigint NOT NULL,
+    overdue_count bigint NOT NULL,
+    updated_at timestamp(6),
+    CONSTRAINT user_billing_ledgers_pkey PRIMARY KEY (user_id)
+);
+
+-- ==================== OCUPAÇÃO: PARTIÇÕES MENSAIS ====================
+
+ALTER TABLE occupancy_logs RENAME TO occupancy_logs_legacy;
+ALTER INDEX occupancy_logs_pkey RENAME TO occupancy_logs_legacy_pkey;
+
+-- A chave primária precisa incluir a coluna de particionamento
+CREATE TABLE occupancy_logs (
+    id bigint NOT NULL DEFAULT nextval('occupancy_logs_seq'),
+    space_id bigint NOT NULL REFERENCES spaces (id),
+    timestamp timestamp(6) NOT NULL,
+    occupied boolean NOT NULL,
+    reservation_id bigint REFERENCES reservations (id),
+    notes varchar(500),
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+ALTER SEQUENCE occupancy_logs_seq OWNED BY occupancy_logs.id;
+
+CREATE INDEX idx_occupancy_logs_space_timestamp ON occupancy_logs (space_id, timestamp);
+CREATE TABLE occupancy_logs_default PARTITION OF occupancy_logs DEFAULT;
+
+-- Igual à V1
+CREATE OR REPLACE FUNCTION ensure_occupancy_partition(month_start date) RETURNS void AS $$
+DECLARE
+    partition_name text := 'occupancy_logs_p' || to_char(month_start, 'YYYYMM');
+    next_month date := (date_trunc('month', month_start) + interval '1 month')::date;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    CREATE TEMP TABLE IF NOT EXISTS occupancy_logs_moving (LIKE occupancy_logs) ON COMMIT DELETE ROWS;
+    WITH moved AS (
+        DELETE FROM occupancy_logs_default
+        WHERE timestamp >= month_start AND timestamp < next_month
+        RETURNING *
+    )
+    INSERT INTO occupancy_logs_moving SELECT * FROM moved;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF occupancy_logs FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, month_start, next_month);
+
+    INSERT INTO occupancy_logs SELECT * FROM occupancy_logs_moving;
+    TRUNCATE occupancy_logs_moving;
+END
+$$ LANGUAGE plpgsql;
+
+-- Uma partição para cada mês do histórico, do mês corrente e dos próximos três. Meses fora da
+-- retenção são agregados em occupancy_hourly e descartados pelo job de retenção.
+SELECT ensure_occupancy_partition(month::date)
+FROM generate_series(
+    LEAST(date_trunc('month', (SELECT MIN(timestamp) FROM occupancy_logs_legacy)), date_trunc('month', now())),
+    date_trunc('month', now()) + interval '3 months',
+    interval '1 month') AS month;
+
+INSERT INTO occupancy_logs (id, space_id, timestamp, occupied, reservation_id, notes)
+SELECT id, space_id, timestamp, occupied, reservation_id, notes FROM occupancy_logs_legacy;
+
+DROP TABLE occupancy_logs_legacy;
+
+-- Agregado horário por espaço, preenchido antes de descartar partições antigas
+CREATE TABLE occupancy_hourly (
+    space_id bigint NOT NULL REFERENCES spaces (id),
+    hour timestamp(6) NOT NULL,
+    occupied_seconds integer NOT NULL,
+    events integer NOT NULL,
+    occupied_events integer NOT NULL,
+    sessions_started integer NOT NULL,
+    -- Maior sessão encerrada nesta hora (sessões que cruzam a virada do mês são medidas por mês)
+    longest_session_seconds integer NOT NULL,
+    occupied_at_end boolean NOT NULL,
+    PRIMARY KEY (space_id, hour)
+);
+
+COMMIT;
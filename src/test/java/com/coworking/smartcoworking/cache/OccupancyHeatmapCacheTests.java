@@ -0,0 +1,98 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.event.OccupancyEvent;
+import com.coworking.smartcoworking.repository.OccupancyLogRepository;
+import com.coworking.smartcoworking.repository.OccupancyLogRepositoryCustom.OccupiedHourHandler;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static com.coworking.smartcoworking.cache.OccupancyHeatmapCache.HOURS_PER_WEEK;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OccupancyHeatmapCacheTests {
+
+    private static final int WEEKS = 12;
+    private static final int SPACES = 500;
+
+    @Test
+    void answersFiveHundredSpacesOverTwelveWeeksInMilliseconds() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowStart = OccupancyHeatmapCache.weekStart(OccupancyHeatmapCache.weekOf(now) - WEEKS + 1);
+        LocalDateTime lastFullHour = now.truncatedTo(ChronoUnit.HOURS);
+
+        // Histórico sintético: cada espaço ocupa (id + hora da semana) % 3600 segundos de cada hora
+        long[] expected = new long[HOURS_PER_WEEK];
+        OccupancyLogRepository repository = mock(OccupancyLogRepository.class);
+        doAnswer(invocation -> {
+            OccupiedHourHandler handler = invocation.getArgument(2);
+            for (long spaceId = 1; spaceId <= SPACES; spaceId++) {
+                for (LocalDateTime hour = windowStart; hour.isBefore(lastFullHour); hour = hour.plusHours(1)) {
+                    int hourOfWeek = OccupancyHeatmapCache.hourOfWeek(hour);
+                    int seconds = (int) ((spaceId + hourOfWeek) % 3600);
+                    handler.accept(spaceId, hour, seconds);
+                    if (spaceId == 7) {
+                        expected[hourOfWeek] += seconds;
+                    }
+                }
+            }
+            return null;
+        }).when(repository).forEachOccupiedHour(any(), any(), any());
+        when(repository.findStatesAt(any())).thenReturn(Map.of());
+
+        OccupancyHeatmapCache cache = new OccupancyHeatmapCache(repository, WEEKS);
+        cache.warmUp();
+
+        List<Long> spaceIds = LongStream.rangeClosed(1, SPACES).boxed().toList();
+        long best = Long.MAX_VALUE;
+        Map<Long, long[]> result = null;
+        for (int i = 0; i < 20; i++) {
+            long startedAt = System.nanoTime();
+            result = cache.findOccupiedSeconds(spaceIds, WEEKS);
+            cache.findElapsedSeconds(WEEKS);
+            best = Math.min(best, System.nanoTime() - startedAt);
+        }
+
+        assertEquals(SPACES, result.size());
+        assertArrayEquals(expected, result.get(7L));
+        assertTrue(best < 50_000_000L, "Consulta do mapa de calor lenta: " + best / 1_000_000 + " ms");
+    }
+
+    @Test
+    void splitsSessionsAcrossHoursAsEventsArrive() {
+        OccupancyLogRepository repository = mock(OccupancyLogRepository.class);
+        when(repository.findStatesAt(any())).thenReturn(Map.of(1L, false));
+        OccupancyHeatmapCache cache = new OccupancyHeatmapCache(repository, WEEKS);
+        cache.warmUp();
+
+        // Sessão de 90 minutos começando depois da carga, atravessando uma ou duas horas
+        LocalDateTime start = LocalDateTime.now().plusSeconds(1).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime end = start.plusMinutes(90);
+        assumeTrue(OccupancyHeatmapCache.weekOf(start) == OccupancyHeatmapCache.weekOf(end));
+
+        cache.apply(new OccupancyEvent(1L, true, start, null));
+        cache.apply(new OccupancyEvent(1L, true, start.plusMinutes(10), null));
+        // Evento fora de ordem é ignorado
+        cache.apply(new OccupancyEvent(1L, false, start.minusMinutes(5), null));
+        cache.apply(new OccupancyEvent(1L, false, end, null));
+
+        long[] seconds = cache.findOccupiedSeconds(List.of(1L), 1).get(1L);
+        int firstHour = OccupancyHeatmapCache.hourOfWeek(start);
+        long firstHourSeconds = ChronoUnit.SECONDS.between(start, start.truncatedTo(ChronoUnit.HOURS).plusHours(1));
+
+        assertEquals(5400, LongStream.of(seconds).sum());
+        assertEquals(firstHourSeconds, seconds[firstHour]);
+        assertEquals(Math.min(3600, 5400 - firstHourSeconds), seconds[firstHour + 1]);
+    }
+}
@@ -0,0 +1,46 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.dto.reservation.ReservationSlotDTO;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReservationIntervalIndexTests {
+
+    @Test
+    void prunesReservationsThatEndedWithoutTerminalEvent() {
+        LocalDateTime now = LocalDateTime.of(2030, 3, 10, 12, 0);
+        ReservationRepository repository = mock(ReservationRepository.class);
+        // Reserva EM_USO sem check-out: continua ativa no banco, mas já terminou
+        when(repository.findActiveSlots(any())).thenReturn(List.of(
+                new ReservationSlotDTO(1L, 10L, now.minusHours(3), now.minusHours(1)),
+                new ReservationSlotDTO(2L, 10L, now.minusHours(1), now.plusHours(1)),
+                new ReservationSlotDTO(3L, 20L, now.minusDays(2), now.minusDays(1))));
+
+        ReservationIntervalIndex index = new ReservationIntervalIndex(repository);
+        index.warmUp();
+        assertEquals(3, index.size());
+
+        assertEquals(2, index.prunePast(now));
+        assertEquals(1, index.size());
+        assertTrue(index.hasConflict(space(10L), now, now.plusMinutes(30), null));
+        assertFalse(index.hasConflict(space(20L), now.minusDays(2), now.minusDays(1), null));
+        assertEquals(0, index.prunePast(now));
+    }
+
+    private static Space space(Long id) {
+        Space space = new Space();
+        space.setId(id);
+        return space;
+    }
+}
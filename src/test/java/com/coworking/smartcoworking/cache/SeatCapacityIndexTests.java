@@ -0,0 +1,41 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.dto.reservation.ReservationSeatSlotDTO;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import com.coworking.smartcoworking.repository.SpaceRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SeatCapacityIndexTests {
+
+    @Test
+    void prunesEndedReservationsAndFreesTheirSeats() {
+        LocalDateTime now = LocalDateTime.of(2030, 3, 10, 12, 0);
+        ReservationRepository repository = mock(ReservationRepository.class);
+        // Reservas EM_USO sem check-out continuam ativas no banco depois do fim
+        when(repository.findActiveSeatSlots(any())).thenReturn(List.of(
+                new ReservationSeatSlotDTO(1L, 10L, now.minusHours(3), now.minusHours(1), 4),
+                new ReservationSeatSlotDTO(2L, 10L, now.minusHours(1), now.plusHours(1), 2)));
+
+        SeatCapacityIndex index = new SeatCapacityIndex(
+                repository, mock(SpaceRepository.class), mock(SpaceCatalogCache.class));
+        index.warmUp();
+        Space space = new Space();
+        space.setId(10L);
+        space.setCapacity(10);
+        assertEquals(2, index.size());
+        assertEquals(6, index.availableSeats(space, now.minusHours(2), now.plusHours(1)));
+
+        assertEquals(1, index.prunePast(now));
+        assertEquals(1, index.size());
+        assertEquals(8, index.availableSeats(space, now.minusHours(2), now.plusHours(1)));
+    }
+}
@@ -0,0 +1,44 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.dto.reservation.ReservationSlotDTO;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SlotAvailabilityCacheTests {
+
+    @Test
+    void prunesEndedReservationsAndTheirDays() {
+        LocalDateTime now = LocalDateTime.of(2030, 3, 10, 12, 0);
+        LocalDate yesterday = now.toLocalDate().minusDays(1);
+        ReservationRepository repository = mock(ReservationRepository.class);
+        // Reservas PENDENTE/EM_USO que passaram do fim sem evento final
+        when(repository.findActiveSlots(any())).thenReturn(List.of(
+                new ReservationSlotDTO(1L, 10L, yesterday.atTime(9, 0), yesterday.atTime(11, 0)),
+                new ReservationSlotDTO(2L, 10L, now.minusHours(2), now.minusHours(1)),
+                new ReservationSlotDTO(3L, 10L, now.plusHours(1), now.plusHours(2))));
+
+        SlotAvailabilityCache cache = new SlotAvailabilityCache(repository);
+        cache.warmUp();
+        assertEquals(3, cache.size());
+
+        assertEquals(2, cache.prunePast(now));
+        assertEquals(1, cache.size());
+
+        Map<LocalDate, BitSet> grid = cache.findBusySlots(List.of(10L), yesterday, 2).get(10L);
+        assertTrue(grid.get(yesterday).isEmpty());
+        // Só sobra a reserva das 13h às 14h
+        assertEquals(4, grid.get(now.toLocalDate()).cardinality());
+    }
+}
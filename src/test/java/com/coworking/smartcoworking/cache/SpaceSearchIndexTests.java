@@ -0,0 +1,121 @@
+package com.coworking.smartcoworking.cache;
+
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.enums.Amenity;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.event.SpaceChangedEvent;
+import com.coworking.smartcoworking.repository.SpaceRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SpaceSearchIndexTests {
+
+    private static final int SPACES = 5000;
+
+    @Test
+    void combinedFiltersMatchFullScanAndResolveQuickly() {
+        Random random = new Random(42);
+        List<Space> spaces = new ArrayList<>();
+        for (long id = 1; id <= SPACES; id++) {
+            spaces.add(randomSpace(id, random));
+        }
+        SpaceRepository repository = mock(SpaceRepository.class);
+        when(repository.findByActiveTrue()).thenReturn(spaces);
+        SpaceSearchIndex index = new SpaceSearchIndex(repository);
+        index.warmUp();
+
+        List<Set<SpaceType>> typeFilters = List.of(Set.of(), Set.of(SpaceType.SALA_REUNIAO),
+                Set.of(SpaceType.HOT_DESK, SpaceType.SALA_PRIVATIVA));
+        List<Set<Amenity>> amenityFilters = List.of(Set.of(), Set.of(Amenity.PROJETOR),
+                Set.of(Amenity.WIFI, Amenity.QUADRO_BRANCO, Amenity.AR_CONDICIONADO));
+        List<Integer> capacityFilters = new ArrayList<>(List.of(1, 3, 12, 45, 500));
+        capacityFilters.add(null);
+
+        long best = Long.MAX_VALUE;
+        for (Set<SpaceType> types : typeFilters) {
+            for (Set<Amenity> amenities : amenityFilters) {
+                for (Integer minCapacity : capacityFilters) {
+                    BigDecimal maxPrice = minCapacity == null ? null : BigDecimal.valueOf(60);
+                    Set<Integer> floors = minCapacity == null ? Set.of(1, 3) : Set.of();
+
+                    long startedAt = System.nanoTime();
+                    List<Space> result = index.search(types, floors, minCapacity, maxPrice, amenities);
+                    best = Math.min(best, System.nanoTime() - startedAt);
+
+                    List<Long> expected = spaces.stream()
+                            .filter(space -> types.isEmpty() || types.contains(space.getType()))
+                            .filter(space -> floors.isEmpty() || floors.contains(space.getFloor()))
+                            .filter(space -> minCapacity == null || space.getCapacity() >= minCapacity)
+                            .filter(space -> maxPrice == null || (space.getPricePerHour() != null
+                                    && space.getPricePerHour().compareTo(maxPrice) <= 0))
+                            .filter(space -> amenities.stream().allMatch(amenity -> amenity.isAvailableIn(space)))
+                            .sorted(Comparator.comparing(Space::getFloor).thenComparing(Space::getName)
+                                    .thenComparing(Space::getId))
+                            .map(Space::getId)
+                            .toList();
+                    assertEquals(expected, result.stream().map(Space::getId).toList());
+                }
+            }
+        }
+
+        assertTrue(best < 1_000_000L, "Busca no índice lenta: " + best / 1000 + " µs");
+    }
+
+    @Test
+    void followsCatalogChanges() {
+        Space space = randomSpace(1L, new Random(1));
+        space.setType(SpaceType.SALA_REUNIAO);
+        space.setHasProjector(false);
+        SpaceRepository repository = mock(SpaceRepository.class);
+        when(repository.findByActiveTrue()).thenReturn(List.of(space));
+        SpaceSearchIndex index = new SpaceSearchIndex(repository);
+        index.warmUp();
+
+        Set<SpaceType> meetingRooms = Set.of(SpaceType.SALA_REUNIAO);
+        Set<Amenity> projector = Set.of(Amenity.PROJETOR);
+        assertEquals(0, index.search(meetingRooms, null, null, null, projector).size());
+
+        Space updated = SpaceCatalogCache.copyOf(space);
+        updated.setHasProjector(true);
+        index.onSpaceChanged(SpaceChangedEvent.of(updated));
+        assertEquals(1, index.search(meetingRooms, null, null, null, projector).size());
+
+        updated.setActive(false);
+        index.onSpaceChanged(SpaceChangedEvent.of(updated));
+        assertEquals(0, index.search(null, null, null, null, null).size());
+
+        index.onSpaceChanged(SpaceChangedEvent.of(randomSpace(2L, new Random(2))));
+        index.onSpaceChanged(SpaceChangedEvent.deleted(1L));
+        assertEquals(List.of(2L), index.search(null, null, null, null, null).stream().map(Space::getId).toList());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static Space randomSpace(long id, Random random) {
+        SpaceType[] types = SpaceType.values();
+        Space space = new Space();
+        space.setId(id);
+        space.setName("Espaço " + random.nextInt(1000));
+        space.setType(types[random.nextInt(types.length)]);
+        space.setCapacity(1 + random.nextInt(120));
+        space.setPricePerHour(random.nextInt(10) == 0 ? null : BigDecimal.valueOf(500 + random.nextInt(15000), 2));
+        space.setFloor(random.nextInt(6));
+        space.setHasWifi(random.nextBoolean());
+        space.setHasProjector(random.nextBoolean());
+        space.setHasWhiteboard(random.nextBoolean());
+        space.setHasAC(random.nextBoolean());
+        space.setActive(true);
+        return space;
+    }
+}
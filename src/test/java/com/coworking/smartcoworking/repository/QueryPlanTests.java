@@ -0,0 +1,334 @@
+package com.coworking.smartcoworking.repository;
+
+import com.coworking.smartcoworking.entity.Reservation;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.entity.User;
+import com.coworking.smartcoworking.enums.BillingStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Roda EXPLAIN das consultas quentes dos repositórios sobre uma massa de dados realista (semeada e
+// desfeita na mesma transação) e falha se alguma delas fizer Seq Scan nas tabelas que crescem.
+// Cada consulta roda pelo próprio repositório e o EXPLAIN usa o SQL e os parâmetros que o Hibernate
+// enviou ao driver, então mudar a consulta no repositório muda o que é verificado.
+@SpringBootTest
+class QueryPlanTests {
+
+    private static final int USERS = 1000;
+    private static final int SPACES = 100;
+    private static final int RESERVATIONS = 100_000;
+    private static final int OCCUPANCY_LOGS = 100_000;
+    // Uma reserva por espaço por dia: 1000 dias de histórico, os últimos 100 no futuro
+    private static final int PAST_DAYS = 900;
+
+    private static final List<String> LARGE_TABLES = List.of("reservations", "billings", "occupancy_logs");
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private BillingRepository billingRepository;
+
+    @Autowired
+    private OccupancyLogRepository occupancyLogRepository;
+
+    @Autowired
+    private SpaceRepository spaceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StatementCapture statementCapture;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void hotQueriesNeverFallBackToSequentialScans() {
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            seed();
+
+            Space space = spaceRepository.getReferenceById(idOf("plan_spaces", 7));
+            Long otherSpaceId = idOf("plan_spaces", 8);
+            User user = userRepository.getReferenceById(idOf("plan_users", 42));
+            Reservation reservation = reservationRepository.getReferenceById(idOf("plan_reservations", 500));
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate today = LocalDate.now();
+
+            Map<String, Runnable> queries = new LinkedHashMap<>();
+            queries.put("ReservationRepository.findConflictingReservations",
+                    () -> reservationRepository.findConflictingReservations(space, now.plusDays(2), now.plusDays(3)));
+            queries.put("ReservationRepository.findActiveSlotsBySpaces",
+                    () -> reservationRepository.findActiveSlotsBySpaces(
+                            List.of(space.getId(), otherSpaceId), now, now.plusDays(14)));
+            queries.put("ReservationRepository.findActiveSlots",
+                    () -> reservationRepository.findActiveSlots(now));
+            queries.put("ReservationRepository.findUpcomingReservations",
+                    () -> reservationRepository.findUpcomingReservations(user, now));
+            queries.put("ReservationRepository.expireChunk",
+                    () -> reservationRepository.expireChunk(now, 500));
+            queries.put("ReservationRepository.findBySpaceAndDateRange",
+                    () -> reservationRepository.findBySpaceAndDateRange(space, now.minusDays(30), now));
+            queries.put("ReservationRepository.streamForExport", () -> {
+                try (Stream<?> rows = reservationRepository.streamForExport(now.minusDays(7), now)) {
+                    rows.findFirst();
+                }
+            });
+            queries.put("BillingRepository.findOverdueBillings",
+                    () -> billingRepository.findOverdueBillings(today));
+            queries.put("BillingRepository.markOverdueChunk",
+                    () -> billingRepository.markOverdueChunk(today, 500));
+            queries.put("BillingRepository.findBillingsDueSoon",
+                    () -> billingRepository.findBillingsDueSoon(today, today.plusDays(7)));
+            queries.put("BillingRepository.calculateTotalDebt",
+                    () -> billingRepository.calculateTotalDebt(user));
+            queries.put("BillingRepository.findByUserAndStatusOrderByDueDateAsc",
+                    () -> billingRepository.findByUserAndStatusOrderByDueDateAsc(user, BillingStatus.PENDENTE));
+            queries.put("BillingRepository.findByReservation",
+                    () -> billingRepository.findByReservation(reservation));
+            queries.put("BillingRepository.streamForExport", () -> {
+                try (Stream<?> rows = billingRepository.streamForExport(now.minusDays(7), now)) {
+                    rows.findFirst();
+                }
+            });
+            queries.put("BillingRepository.streamPaidForExport", () -> {
+                try (Stream<?> rows = billingRepository.streamPaidForExport(today.minusDays(7), today)) {
+                    rows.findFirst();
+                }
+            });
+            queries.put("OccupancyLogRepository.findBySpaceOrderByTimestampDesc",
+                    () -> occupancyLogRepository.findBySpaceOrderByTimestampDesc(space));
+            queries.put("OccupancyLogRepository.findByReservationOrderByTimestampAsc",
+                    () -> occupancyLogRepository.findByReservationOrderByTimestampAsc(reservation));
+
+            List<String> sequentialScans = new ArrayList<>();
+            queries.forEach((name, query) -> {
+                List<CapturedStatement> statements = statementCapture.capture(query);
+                assertFalse(statements.isEmpty(), "Nenhum SQL capturado para " + name);
+                for (CapturedStatement statement : statements) {
+                    List<String> scanned = new ArrayList<>();
+                    collectSequentialScans(explain(statement), scanned);
+                    if (!scanned.isEmpty()) {
+                        sequentialScans.add(name + " " + scanned + ": " + statement.sql());
+                    }
+                }
+            });
+
+            assertTrue(sequentialScans.isEmpty(), "Consultas com Seq Scan: " + sequentialScans);
+        });
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void seed() {
+        jdbcTemplate.execute("CREATE TEMP TABLE plan_users ON COMMIT DROP AS " + ids("users_seq", USERS));
+        jdbcTemplate.execute("CREATE TEMP TABLE plan_spaces ON COMMIT DROP AS " + ids("spaces_seq", SPACES));
+        jdbcTemplate.execute("CREATE TEMP TABLE plan_reservations ON COMMIT DROP AS " +
+                ids("reservations_seq", RESERVATIONS));
+
+        jdbcTemplate.update("INSERT INTO users (id, name, email, password, role, credits, active, created_at) " +
+                "SELECT id, 'Plano ' || n, 'plano-' || id || '@example.com', 'senha123', 'MEMBER', 0, true, now() " +
+                "FROM plan_users");
+        jdbcTemplate.update("INSERT INTO spaces (id, name, type, capacity, floor, price_per_hour, has_wifi, " +
+                "has_projector, has_whiteboard, has_ac, active, created_at) " +
+                "SELECT id, 'Sala Plano ' || n, 'SALA_REUNIAO', 8, n % 5, 25, true, false, true, true, true, now() " +
+                "FROM plan_spaces");
+
+        // Passado concluído (alguns cancelados), dois dias confirmados sem check-in e futuro confirmado/pendente
+        jdbcTemplate.update("INSERT INTO reservations (id, user_id, space_id, start_date_time, end_date_time, " +
+                "seats, shared_space, total_price, status, created_at) " +
+                "SELECT r.id, u.id, s.id, r.start_date_time, r.start_date_time + interval '2 hours', 1, false, 50, " +
+                "  CASE WHEN r.n % 50 = 0 THEN 'CANCELADA' " +
+                "       WHEN r.day < ? - 2 THEN 'CONCLUIDA' " +
+                "       WHEN r.day < ? OR r.n % 3 = 0 THEN 'CONFIRMADA' ELSE 'PENDENTE' END, " +
+                "  r.start_date_time - interval '7 days' " +
+                "FROM (SELECT id, n, n / ? AS day, " +
+                "        date_trunc('day', now()) - make_interval(days => ?) + make_interval(days => (n / ?)::int, hours => 9) " +
+                "          AS start_date_time " +
+                "      FROM plan_reservations) r " +
+                "JOIN plan_users u ON u.n = r.n % ? " +
+                "JOIN plan_spaces s ON s.n = r.n % ?",
+                PAST_DAYS, PAST_DAYS, SPACES, PAST_DAYS, SPACES, USERS, SPACES);
+
+        // Uma cobrança por reserva: paga no passado (algumas atrasadas), pendente no futuro e nos últimos dias
+        jdbcTemplate.update("INSERT INTO billings (id, reservation_id, user_id, amount, status, due_date, " +
+                "paid_date, created_at) " +
+                "SELECT nextval('billings_seq'), r.id, r.user_id, r.total_price, " +
+                "  CASE WHEN r.start_date_time > now() - interval '10 days' THEN 'PENDENTE' " +
+                "       WHEN r.id % 40 = 0 THEN 'ATRASADA' ELSE 'PAGA' END, " +
+                "  r.start_date_time::date, " +
+                "  CASE WHEN r.start_date_time <= now() - interval '10 days' AND r.id % 40 <> 0 " +
+                "       THEN r.start_date_time::date END, " +
+                "  r.created_at " +
+                "FROM reservations r JOIN plan_reservations p ON p.id = r.id");
+
+        // Leituras de sensores das últimas semanas, uma em cada dez ligada a uma reserva
+        jdbcTemplate.update("INSERT INTO occupancy_logs (space_id, timestamp, occupied, reservation_id) " +
+                "SELECT s.id, now() - make_interval(secs => g * 17), g % 2 = 0, p.id " +
+                "FROM generate_series(1, ?) AS g JOIN plan_spaces s ON s.n = g % ? " +
+                "LEFT JOIN plan_reservations p ON g % 10 = 0 AND p.n = g",
+                OCCUPANCY_LOGS, SPACES);
+
+        jdbcTemplate.execute("ANALYZE users, spaces, reservations, billings, occupancy_logs");
+    }
+
+    // (n, id) com IDs reservados em blocos de 50 da sequência, como o otimizador pooled do Hibernate
+    private static String ids(String sequence, int count) {
+        return "SELECT b.block * 50 + k AS n, b.hi - 49 + k AS id FROM (" +
+                "SELECT row_number() OVER () - 1 AS block, nextval('" + sequence + "') AS hi " +
+                "FROM generate_series(1, " + (count + 49) / 50 + ")) b CROSS JOIN generate_series(0, 49) AS k " +
+                "WHERE b.block * 50 + k < " + count;
+    }
+
+    private long idOf(String table, int n) {
+        return jdbcTemplate.queryForObject("SELECT id FROM " + table + " WHERE n = ?", Long.class, n);
+    }
+
+    private JsonNode explain(CapturedStatement statement) {
+        try {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + statement.sql(), String.class,
+                    statement.parameters().toArray());
+            return objectMapper.readTree(plan).get(0).get("Plan");
+        } catch (Exception ex) {
+            throw new IllegalStateException("Falha ao ler o plano de: " + statement.sql(), ex);
+        }
+    }
+
+    // Partições vazias (meses futuros) são lidas por Seq Scan sem custo e não contam
+    private void collectSequentialScans(JsonNode plan, List<String> scanned) {
+        String relation = plan.path("Relation Name").asText("");
+        if ("Seq Scan".equals(plan.path("Node Type").asText())
+                && LARGE_TABLES.stream().anyMatch(relation::startsWith)
+                && hasRows(relation)) {
+            scanned.add(relation);
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectSequentialScans(child, scanned);
+        }
+    }
+
+    private boolean hasRows(String relation) {
+        Float tuples = jdbcTemplate.queryForObject(
+                "SELECT reltuples FROM pg_class WHERE oid = CAST(? AS regclass)", Float.class, relation);
+        return tuples != null && tuples > 0;
+    }
+
+    record CapturedStatement(String sql, List<Object> parameters) {
+    }
+
+    // Envolve o DataSource e guarda o SQL e os parâmetros de cada statement executado enquanto a thread
+    // atual está capturando
+    static class StatementCapture implements BeanPostProcessor {
+
+        private final ThreadLocal<List<CapturedStatement>> capturing = new ThreadLocal<>();
+
+        List<CapturedStatement> capture(Runnable query) {
+            List<CapturedStatement> statements = new ArrayList<>();
+            capturing.set(statements);
+            try {
+                query.run();
+            } finally {
+                capturing.remove();
+            }
+            return statements;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return connection(super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return connection(super.getConnection(username, password));
+                }
+            };
+        }
+
+        private Connection connection(Connection target) {
+            return proxy(Connection.class, target, (method, args, result) ->
+                    "prepareStatement".equals(method.getName())
+                            ? preparedStatement((PreparedStatement) result, (String) args[0])
+                            : result);
+        }
+
+        private PreparedStatement preparedStatement(PreparedStatement target, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return proxy(PreparedStatement.class, target, (method, args, result) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, "setNull".equals(name) ? null : args[1]);
+                } else if (name.startsWith("execute") && capturing.get() != null) {
+                    capturing.get().add(new CapturedStatement(sql, new ArrayList<>(parameters.values())));
+                }
+                return result;
+            });
+        }
+
+        // Proxy que chama o alvo e deixa o resultado passar por after
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, AfterCall after) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                try {
+                    return after.apply(method, args, method.invoke(target, args));
+                } catch (InvocationTargetException ex) {
+                    throw ex.getTargetException();
+                }
+            });
+        }
+
+        private interface AfterCall {
+            Object apply(Method method, Object[] args, Object result) throws Throwable;
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        static StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+    }
+}
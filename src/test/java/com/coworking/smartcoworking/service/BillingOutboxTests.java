@@ -0,0 +1,212 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.dto.billing.BillingOutboxStatsDTO;
+import com.coworking.smartcoworking.dto.billing.BillingSummaryDTO;
+import com.coworking.smartcoworking.dto.reservation.CreateReservationDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationResponseDTO;
+import com.coworking.smartcoworking.dto.reservation.UpdateReservationDTO;
+import com.coworking.smartcoworking.entity.Billing;
+import com.coworking.smartcoworking.entity.Reservation;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.entity.User;
+import com.coworking.smartcoworking.enums.BillingStatus;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.repository.BillingOutboxRepository;
+import com.coworking.smartcoworking.repository.BillingRepository;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import com.coworking.smartcoworking.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BillingOutboxTests {
+
+    // Mesma chave de BillingOutboxRelay
+    private static final long RELAY_LOCK_KEY = 0x6269_6c6cL;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BillingOutboxRelay billingOutboxRelay;
+
+    @Autowired
+    private BillingLedgerService billingLedgerService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private BillingRepository billingRepository;
+
+    @Autowired
+    private BillingOutboxRepository billingOutboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private User user;
+    private Space space;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        user = fixtures.createMember("Outbox");
+
+        space = fixtures.createSpace("Sala Outbox", SpaceType.SALA_REUNIAO, 6, "20.00", 3);
+
+        start = LocalDateTime.now().plusDays(50).withHour(9).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteSpaces(space);
+        fixtures.deleteUsers(user);
+    }
+
+    @Test
+    void bookingTransactionOnlyWritesTheOutboxEvent() {
+        BillingOutboxStatsDTO stats = transactionTemplate.execute(status -> {
+            ReservationResponseDTO created = reservationService.create(dto(start, start.plusHours(2)));
+
+            // Nenhum relay enxerga o evento antes do commit: a cobrança ainda não existe
+            assertTrue(billingRepository.findByReservationIdIn(List.of(created.getId())).isEmpty());
+            return billingOutboxRelay.getStats();
+        });
+
+        assertNotNull(stats);
+        assertTrue(stats.getQueueDepth() >= 1);
+        assertTrue(stats.getLagMillis() >= 0);
+
+        billingOutboxRelay.relayPending();
+        Reservation reservation = reservationRepository.findBySpace(space).get(0);
+        Billing billing = billingRepository.findByReservation(reservation).orElseThrow();
+        assertEquals(BillingStatus.PENDENTE, billing.getStatus());
+        assertEquals(0, new BigDecimal("40.00").compareTo(billing.getAmount()));
+        assertEquals(start.toLocalDate(), billing.getDueDate());
+        assertEquals(0, outboxRows(reservation.getId()));
+        assertNotNull(billingOutboxRelay.getStats().getLastRelayAt());
+    }
+
+    @Test
+    void relayAppliesLifecycleInOrderExactlyOnce() {
+        Long id = reservationService.create(dto(start, start.plusHours(2))).getId();
+        reservationService.update(id, new UpdateReservationDTO(start, start.plusHours(3), null, null));
+        reservationService.cancel(id);
+
+        billingOutboxRelay.relayPending();
+        billingOutboxRelay.relayPending();
+
+        Billing billing = billingRepository.findByReservationIdIn(List.of(id)).get(0);
+        assertEquals(BillingStatus.CANCELADA, billing.getStatus());
+        assertEquals(0, new BigDecimal("60.00").compareTo(billing.getAmount()));
+        assertEquals(0, outboxRows(id));
+
+        BillingSummaryDTO summary = billingLedgerService.getSummary(user.getId());
+        assertEquals(0, summary.getPendingCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(summary.getTotalDebt()));
+    }
+
+    @Test
+    void discardsEventsOfReservationsDeletedBeforeTheRelay() {
+        Long id = transactionTemplate.execute(status -> {
+            Long created = reservationService.create(dto(start, start.plusHours(1))).getId();
+            reservationService.cancel(created);
+            reservationService.delete(created);
+            return created;
+        });
+
+        billingOutboxRelay.relayPending();
+
+        assertEquals(0, outboxRows(id));
+        assertFalse(reservationRepository.existsById(id));
+        assertTrue(billingRepository.findByReservationIdIn(List.of(id)).isEmpty());
+    }
+
+    @Test
+    void appliesEventsInCommitOrderEvenWhenIdsAreOutOfOrder() {
+        // Reserva sem o evento automático: os eventos abaixo simulam duas instâncias
+        Reservation reservation = transactionTemplate.execute(status -> {
+            Long created = reservationService.create(dto(start, start.plusHours(2))).getId();
+            billingOutboxRepository.flush();
+            jdbcTemplate.update("DELETE FROM billing_outbox WHERE reservation_id = ?", created);
+            return reservationRepository.findById(created).orElseThrow();
+        });
+
+        // Instância B grava CRIADA com o fim do seu bloco; depois a instância A grava CANCELADA com um
+        // ID menor, do bloco que reservou antes
+        Long blockEnd = jdbcTemplate.queryForObject("SELECT nextval('billing_outbox_seq')", Long.class);
+        withRelayPaused(() -> {
+            insertEvent(blockEnd, reservation, "CRIADA");
+            insertEvent(blockEnd - 10, reservation, "CANCELADA");
+        });
+
+        billingOutboxRelay.relayPending();
+
+        Billing billing = billingRepository.findByReservation(reservation).orElseThrow();
+        assertEquals(BillingStatus.CANCELADA, billing.getStatus());
+        assertEquals(0, outboxRows(reservation.getId()));
+        assertEquals(0, billingLedgerService.getSummary(user.getId()).getPendingCount());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private CreateReservationDTO dto(LocalDateTime from, LocalDateTime to) {
+        return new CreateReservationDTO(user.getId(), space.getId(), from, to, null, null);
+    }
+
+    // Segura o lock do relay em outra conexão para o relay agendado não aplicar os eventos pela metade
+    private void withRelayPaused(Runnable inserts) {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(" + RELAY_LOCK_KEY + ")");
+            try {
+                inserts.run();
+            } finally {
+                statement.execute("SELECT pg_advisory_unlock(" + RELAY_LOCK_KEY + ")");
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Cada chamada roda na própria transação (tx_id crescente)
+    private void insertEvent(Long id, Reservation reservation, String type) {
+        jdbcTemplate.update("INSERT INTO billing_outbox (id, reservation_id, user_id, type, amount, due_date, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, now())",
+                id, reservation.getId(), user.getId(), type, reservation.getTotalPrice(),
+                reservation.getStartDateTime().toLocalDate());
+    }
+
+    private int outboxRows(Long reservationId) {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM billing_outbox WHERE reservation_id = ?", Integer.class, reservationId);
+        return rows != null ? rows : 0;
+    }
+}
@@ -0,0 +1,170 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.controller.BillingController;
+import com.coworking.smartcoworking.controller.ReservationController;
+import com.coworking.smartcoworking.dto.billing.BillingResponseDTO;
+import com.coworking.smartcoworking.dto.reservation.CreateReservationDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationResponseDTO;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.entity.User;
+import com.coworking.smartcoworking.enums.BillingStatus;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.exception.BusinessException;
+import com.coworking.smartcoworking.repository.BillingRepository;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import com.coworking.smartcoworking.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class IdempotencyTests {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ReservationController reservationController;
+
+    @Autowired
+    private BillingController billingController;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private BillingOutboxRelay billingOutboxRelay;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private BillingRepository billingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Space space;
+    private LocalDateTime start;
+    private final List<String> keys = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = fixtures.createMember("Idempotência");
+
+        space = fixtures.createSpace("Sala Idempotência", SpaceType.SALA_REUNIAO, 4, "15.00", 2);
+
+        start = LocalDateTime.now().plusDays(60).withHour(14).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keys.forEach(key -> jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ?", key));
+        fixtures.deleteSpaces(space);
+        fixtures.deleteUsers(user);
+    }
+
+    @Test
+    void retriedBookingReplaysStoredResponse() {
+        String key = newKey();
+        ResponseEntity<ReservationResponseDTO> first = reservationController.create(dto(), key);
+        ResponseEntity<ReservationResponseDTO> retry = reservationController.create(dto(), key);
+
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(first.getBody().getId(), retry.getBody().getId());
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+
+        // Sem o cache em memória a resposta vem da tabela
+        idempotencyService.clearCache();
+        ResponseEntity<ReservationResponseDTO> afterRestart = reservationController.create(dto(), key);
+        assertEquals(first.getBody().getId(), afterRestart.getBody().getId());
+        assertEquals(1, reservationRepository.findBySpace(space).size());
+    }
+
+    @Test
+    void concurrentDuplicatesShareOneExecution() throws Exception {
+        String key = newKey();
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<ReservationResponseDTO>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return reservationController.create(dto(), key).getBody();
+                }));
+            }
+            Long id = results.get(0).get().getId();
+            for (Future<ReservationResponseDTO> result : results) {
+                assertEquals(id, result.get().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, reservationRepository.findBySpace(space).size());
+    }
+
+    @Test
+    void reusedKeyWithDifferentRequestIsRejected() {
+        String key = newKey();
+        reservationController.create(dto(), key);
+
+        CreateReservationDTO other = dto();
+        other.setStartDateTime(start.plusDays(1));
+        other.setEndDateTime(start.plusDays(1).plusHours(2));
+        assertThrows(BusinessException.class, () -> reservationController.create(other, key));
+        assertEquals(1, reservationRepository.findBySpace(space).size());
+    }
+
+    @Test
+    void retriedPaymentReplaysInsteadOfFailing() {
+        Long reservationId = reservationController.create(dto(), null).getBody().getId();
+        billingOutboxRelay.relayPending();
+        Long billingId = billingRepository.findByReservationIdIn(List.of(reservationId)).get(0).getId();
+
+        String key = newKey();
+        BillingResponseDTO paid = billingController.markAsPaid(billingId, "PIX", key).getBody();
+        BillingResponseDTO retry = billingController.markAsPaid(billingId, "PIX", key).getBody();
+
+        assertEquals(BillingStatus.PAGA, retry.getStatus());
+        assertEquals(paid.getPaidDate(), retry.getPaidDate());
+        // Sem a chave, o pagamento repetido continua sendo recusado
+        assertThrows(BusinessException.class, () -> billingController.markAsPaid(billingId, "PIX", null));
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private String newKey() {
+        String key = UUID.randomUUID().toString();
+        keys.add(key);
+        return key;
+    }
+
+    private CreateReservationDTO dto() {
+        return new CreateReservationDTO(user.getId(), space.getId(), start, start.plusHours(2), null, null);
+    }
+}
@@ -0,0 +1,98 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.entity.User;
+import com.coworking.smartcoworking.enums.UserRole;
+import com.coworking.smartcoworking.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Mede vazão: fora do build padrão (mvn test -Pbenchmark)
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"})
+class InsertBatchingBenchmarkTests {
+
+    private static final int ROWS = 2000;
+    private static final String EMAIL_PREFIX = "lote-";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE ?", EMAIL_PREFIX + "%");
+    }
+
+    @Test
+    void batchedInsertsOutpaceRowByRowInserts() {
+        // Aquecimento (JIT, pool de conexões, blocos da sequência)
+        insertRowByRow(200);
+        insertBatched(200);
+
+        // Antes: com IDENTITY cada insert precisava ir ao banco na hora para devolver o ID
+        double rowByRow = ROWS / seconds(() -> insertRowByRow(ROWS));
+        // Depois: IDs vêm da sequência em blocos e o flush sai em lotes de hibernate.jdbc.batch_size
+        double batched = ROWS / seconds(() -> insertBatched(ROWS));
+
+        Long stored = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT id) FROM users WHERE email LIKE ?", Long.class, EMAIL_PREFIX + "%");
+        assertEquals(2L * (ROWS + 200), stored);
+        assertTrue(batched > 2 * rowByRow, String.format(
+                "Lotes não aceleraram os inserts: %.0f/s linha a linha, %.0f/s em lote (%.1fx)",
+                rowByRow, batched, batched / rowByRow));
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void insertRowByRow(int rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < rows; i++) {
+                userRepository.saveAndFlush(newUser());
+            }
+        });
+    }
+
+    private void insertBatched(int rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<User> users = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                users.add(newUser());
+            }
+            userRepository.saveAll(users);
+            userRepository.flush();
+        });
+    }
+
+    private static double seconds(Runnable work) {
+        long startedAt = System.nanoTime();
+        work.run();
+        return (System.nanoTime() - startedAt) / 1e9;
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setName("Lote");
+        user.setEmail(EMAIL_PREFIX + UUID.randomUUID() + "@example.com");
+        user.setPassword("senha123");
+        user.setRole(UserRole.MEMBER);
+        return user;
+    }
+}
@@ -0,0 +1,204 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.cache.OccupancyStateCache;
+import com.coworking.smartcoworking.dto.occupancy.SpaceOccupancyDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationStatusChangeDTO;
+import com.coworking.smartcoworking.enums.ReservationStatus;
+import com.coworking.smartcoworking.event.OccupancyEvent;
+import com.coworking.smartcoworking.event.ReservationChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LiveFeedServiceTests {
+
+    private static final int SUBSCRIBERS = 3000;
+    private static final int UPDATES = 1000;
+    private static final int SENDER_THREADS = 2;
+    private static final int STALLED = 5;
+
+    private OccupancyStateCache occupancyStateCache;
+    private LiveFeedService service;
+
+    @BeforeEach
+    void setUp() {
+        occupancyStateCache = mock(OccupancyStateCache.class);
+        when(occupancyStateCache.findAll()).thenReturn(Map.of());
+        // Envio lento mas não parado: o assinante travado do primeiro teste não deve ser derrubado
+        service = new LiveFeedService(occupancyStateCache, SUBSCRIBERS + 10, 10, 60, 30, 8, 60_000);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void fansOutToThousandsOfSubscribersAndCoalescesForSlowOnes() throws Exception {
+        List<RecordingEmitter> fast = new ArrayList<>();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            RecordingEmitter emitter = new RecordingEmitter(null);
+            service.register(emitter, null);
+            fast.add(emitter);
+        }
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        service.register(slow, null);
+
+        // Publicar não espera por nenhum assinante, nem pelo que está travado
+        LocalDateTime base = LocalDateTime.now();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            service.publishOccupancy(new OccupancyEvent(1L, i % 2 == 0, base.plusSeconds(i), null));
+            if (i % 100 == 0) {
+                Thread.sleep(5);
+            }
+        }
+        service.onReservationChanged(reservationEvent(ReservationStatus.CONFIRMADA, ReservationStatus.EM_USO));
+        service.onReservationChanged(reservationEvent(ReservationStatus.EM_USO, ReservationStatus.CONCLUIDA));
+        long publishMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        SpaceOccupancyDTO last = new SpaceOccupancyDTO(1L, false, base.plusSeconds(UPDATES - 1));
+        awaitTrue(() -> fast.stream().allMatch(emitter -> emitter.received(last, ReservationStatus.CONCLUIDA)));
+        release.countDown();
+        awaitTrue(() -> slow.received(last, ReservationStatus.CONCLUIDA));
+
+        assertTrue(publishMillis < 1000, "Publicação bloqueou: " + publishMillis + " ms");
+        // O assinante travado recebe o primeiro envio e depois só a última versão de cada chave
+        assertTrue(slow.payloads.size() <= 4, "Sem agrupamento: " + slow.payloads.size());
+        assertEquals(SUBSCRIBERS + 1, service.getStats().getSubscribers());
+        assertTrue(service.getStats().getCoalescedUpdates() > 0);
+    }
+
+    @Test
+    void deliversOnlySubscribedSpacesAndDropsBrokenSubscribers() throws Exception {
+        RecordingEmitter filtered = new RecordingEmitter(null);
+        service.register(filtered, Set.of(2L));
+        RecordingEmitter broken = new RecordingEmitter(null);
+        broken.failing = true;
+        service.register(broken, null);
+
+        LocalDateTime now = LocalDateTime.now();
+        service.publishOccupancy(new OccupancyEvent(1L, true, now, null));
+        service.publishOccupancy(new OccupancyEvent(2L, true, now, null));
+
+        awaitTrue(() -> filtered.payloads.size() == 1 && service.getStats().getSubscribers() == 1);
+        assertEquals(new SpaceOccupancyDTO(2L, true, now), filtered.payloads.get(0));
+        assertEquals(1, service.getStats().getDisconnects());
+    }
+
+    @Test
+    void dropsStalledSubscribersWithoutStarvingTheOthers() throws Exception {
+        LiveFeedService feed = new LiveFeedService(occupancyStateCache, 100, 10, 60, 30, SENDER_THREADS, 200);
+        feed.start();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Mais clientes parados que threads de envio; a escrita ignora interrupção, como um socket cheio
+            for (int i = 0; i < STALLED; i++) {
+                RecordingEmitter stalled = new RecordingEmitter(release);
+                stalled.uninterruptible = true;
+                feed.register(stalled, null);
+            }
+            RecordingEmitter healthy = new RecordingEmitter(null);
+            feed.register(healthy, null);
+
+            LocalDateTime now = LocalDateTime.now();
+            feed.publishOccupancy(new OccupancyEvent(1L, true, now, null));
+
+            awaitTrue(() -> healthy.payloads.contains(new SpaceOccupancyDTO(1L, true, now)));
+            awaitTrue(() -> feed.getStats().getStalledDisconnects() == STALLED);
+            assertEquals(1, feed.getStats().getSubscribers());
+
+            // Depois do primeiro envio o assinante saudável segue recebendo normalmente
+            feed.publishOccupancy(new OccupancyEvent(1L, false, now.plusSeconds(1), null));
+            awaitTrue(() -> healthy.payloads.contains(new SpaceOccupancyDTO(1L, false, now.plusSeconds(1))));
+        } finally {
+            release.countDown();
+            feed.stop();
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static ReservationChangedEvent reservationEvent(ReservationStatus previous, ReservationStatus status) {
+        LocalDateTime start = LocalDateTime.now().withNano(0);
+        return new ReservationChangedEvent(10L, 1L, start, start.plusHours(1), previous, status);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(20);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Tempo esgotado aguardando entrega");
+            Thread.sleep(10);
+        }
+    }
+
+    // Emitter sem conexão HTTP: guarda o que seria enviado e pode travar no primeiro envio
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<Object> payloads = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+        private volatile boolean failing;
+        private volatile boolean uninterruptible;
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Conexão encerrada");
+            }
+            if (release != null) {
+                boolean interrupted = false;
+                while (true) {
+                    try {
+                        release.await();
+                        break;
+                    } catch (InterruptedException ex) {
+                        interrupted = true;
+                        if (!uninterruptible) {
+                            break;
+                        }
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .filter(data -> data instanceof SpaceOccupancyDTO || data instanceof ReservationStatusChangeDTO)
+                    .forEach(payloads::add);
+        }
+
+        private boolean received(SpaceOccupancyDTO occupancy, ReservationStatus status) {
+            boolean hasOccupancy = false;
+            boolean hasStatus = false;
+            for (Object payload : payloads) {
+                hasOccupancy |= occupancy.equals(payload);
+                hasStatus |= payload instanceof ReservationStatusChangeDTO change && change.getStatus() == status;
+            }
+            return hasOccupancy && hasStatus;
+        }
+    }
+}
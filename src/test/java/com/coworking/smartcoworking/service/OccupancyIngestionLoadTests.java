@@ -0,0 +1,190 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.cache.OccupancyHeatmapCache;
+import com.coworking.smartcoworking.cache.OccupancyStateCache;
+import com.coworking.smartcoworking.dto.occupancy.OccupancyEventDTO;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.exception.BusinessException;
+import com.coworking.smartcoworking.exception.TooManyRequestsException;
+import com.coworking.smartcoworking.repository.OccupancyLogBatchWriter;
+import com.coworking.smartcoworking.repository.SpaceRepository;
+import com.coworking.smartcoworking.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class OccupancyIngestionLoadTests {
+
+    private static final int PRODUCERS = 8;
+    private static final int BATCHES_PER_PRODUCER = 50;
+    private static final int EVENTS_PER_BATCH = 500;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OccupancyIngestionService ingestionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Space space;
+
+    @BeforeEach
+    void setUp() {
+        space = fixtures.createSpace("Sala Sensores", SpaceType.SALA_REUNIAO, 4, "10.00", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteSpaces(space);
+    }
+
+    // Mede vazão: fora do build padrão (mvn test -Pbenchmark)
+    @Tag("benchmark")
+    @Test
+    void sustainsBatchedIngestionFromConcurrentProducers() throws Exception {
+        int total = PRODUCERS * BATCHES_PER_PRODUCER * EVENTS_PER_BATCH;
+        long writtenBefore = ingestionService.getStats().getWrittenEvents();
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        long startedAt = System.nanoTime();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                futures.add(executor.submit(() -> {
+                    List<OccupancyEventDTO> batch = buildBatch(EVENTS_PER_BATCH);
+                    for (int b = 0; b < BATCHES_PER_PRODUCER; b++) {
+                        // Respeita o 429: espera a fila esvaziar e reenvia o mesmo lote
+                        while (true) {
+                            try {
+                                ingestionService.ingest(batch);
+                                break;
+                            } catch (TooManyRequestsException ex) {
+                                Thread.sleep(10);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(2);
+        while (ingestionService.getStats().getWrittenEvents() - writtenBefore < total
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+        Long stored = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM occupancy_logs WHERE space_id = ?", Long.class, space.getId());
+        double eventsPerSecond = total / seconds;
+
+        assertEquals(total, stored);
+        assertTrue(eventsPerSecond > 10_000, String.format(
+                "Vazão abaixo do esperado: %d eventos em %.2f s (%.0f eventos/s)", total, seconds, eventsPerSecond));
+    }
+
+    @Test
+    void rejectsWholeBatchWhenQueueIsFull() throws Exception {
+        OccupancyLogBatchWriter writer = mock(OccupancyLogBatchWriter.class);
+        SpaceRepository spaces = mock(SpaceRepository.class);
+        when(spaces.existsById(anyLong())).thenReturn(true);
+
+        // Trava a thread de gravação no primeiro lote para a fila não andar
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(writer).insertAll(anyList());
+
+        OccupancyIngestionService service = new OccupancyIngestionService(
+                writer, spaces, mock(OccupancyStateCache.class), mock(OccupancyHeatmapCache.class),
+                mock(LiveFeedService.class), 10, 100, 10, 6);
+        service.start();
+        try {
+            service.ingest(buildBatch(1));
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+            assertEquals(10, service.ingest(buildBatch(10)));
+            assertThrows(TooManyRequestsException.class, () -> service.ingest(buildBatch(1)));
+            assertEquals(10, service.getStats().getQueueSize());
+            assertEquals(1, service.getStats().getRejectedEvents());
+        } finally {
+            release.countDown();
+            service.stop();
+        }
+
+        assertEquals(11, service.getStats().getWrittenEvents());
+    }
+
+    @Test
+    void rejectsEventsOlderThanTheRetainedMonths() throws Exception {
+        OccupancyLogBatchWriter writer = mock(OccupancyLogBatchWriter.class);
+        SpaceRepository spaces = mock(SpaceRepository.class);
+        when(spaces.existsById(anyLong())).thenReturn(true);
+
+        OccupancyIngestionService service = new OccupancyIngestionService(
+                writer, spaces, mock(OccupancyStateCache.class), mock(OccupancyHeatmapCache.class),
+                mock(LiveFeedService.class), 10, 100, 10, 6);
+        service.start();
+        try {
+            // O mês de um evento de 7 meses atrás já foi agregado: o lote inteiro é recusado
+            LocalDateTime late = LocalDateTime.now().minusMonths(7);
+            List<OccupancyEventDTO> batch = new ArrayList<>(buildBatch(2));
+            batch.add(new OccupancyEventDTO(space.getId(), true, late, null));
+            assertThrows(BusinessException.class, () -> service.ingest(batch));
+            assertEquals(0, service.getStats().getAcceptedEvents());
+
+            LocalDateTime oldestAccepted = YearMonth.now().minusMonths(6).atDay(1).atStartOfDay();
+            assertEquals(1, service.ingest(List.of(new OccupancyEventDTO(space.getId(), true, oldestAccepted, null))));
+        } finally {
+            service.stop();
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private List<OccupancyEventDTO> buildBatch(int size) {
+        Long spaceId = space.getId();
+        LocalDateTime base = LocalDateTime.now().minusDays(1);
+        List<OccupancyEventDTO> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            batch.add(new OccupancyEventDTO(spaceId, i % 2 == 0, base.plusSeconds(i), null));
+        }
+        return batch;
+    }
+}
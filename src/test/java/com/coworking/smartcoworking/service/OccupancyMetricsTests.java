@@ -0,0 +1,112 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.repository.OccupancyLogRepository;
+import com.coworking.smartcoworking.repository.OccupancyLogRepositoryCustom.OccupancySessions;
+import com.coworking.smartcoworking.repository.OccupancyPartitionRepository;
+import com.coworking.smartcoworking.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+class OccupancyMetricsTests {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OccupancyLogRepository occupancyLogRepository;
+
+    @Autowired
+    private OccupancyPartitionRepository partitionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Space space;
+
+    @BeforeEach
+    void setUp() {
+        space = fixtures.createSpace("Sala Métricas", SpaceType.SALA_REUNIAO, 4, "10.00", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteSpaces(space);
+    }
+
+    @Test
+    void rawSessionsCollapseRepeatedReadings() {
+        LocalDateTime start = LocalDateTime.now().minusHours(6).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = start.plusHours(4);
+
+        // Ocupado desde antes do período; leitura repetida dentro da segunda sessão; a terceira fica aberta
+        insertEvent(start.minusHours(1), true);
+        insertEvent(start.plusMinutes(30), false);
+        insertEvent(start.plusHours(1), true);
+        insertEvent(start.plusMinutes(70), true);
+        insertEvent(start.plusMinutes(100), false);
+        insertEvent(start.plusHours(3), true);
+
+        OccupancySessions sessions = occupancyLogRepository.summarizeSessions(space.getId(), start, end, end);
+        assertEquals(1800 + 2400 + 3600, sessions.occupiedSeconds());
+        assertEquals(3, sessions.sessions());
+        assertEquals(3600, sessions.longestSessionSeconds());
+    }
+
+    @Test
+    void sessionsCombineRolledUpHoursWithRawEvents() {
+        LocalDateTime horizon = partitionRepository.findRawHorizon();
+        assertNotNull(horizon);
+
+        // Antes do horizonte só há o agregado: uma sessão aberta antes do período (fecha em H-5h+20min),
+        // e outra de H-2h+50min que atravessa o horizonte
+        insertHourly(horizon.minusHours(6), 1800, 1, 0, true);
+        insertHourly(horizon.minusHours(5), 1200, 0, 3000, false);
+        insertHourly(horizon.minusHours(2), 600, 1, 0, true);
+        insertHourly(horizon.minusHours(1), 3600, 0, 0, true);
+
+        // Depois dele, eventos brutos: fim da sessão que atravessou e uma sessão com leitura repetida
+        insertEvent(horizon.plusMinutes(20), false);
+        insertEvent(horizon.plusHours(1), true);
+        insertEvent(horizon.plusMinutes(70), true);
+        insertEvent(horizon.plusMinutes(100), false);
+
+        LocalDateTime start = horizon.minusHours(5);
+        LocalDateTime end = horizon.plusHours(3);
+        OccupancySessions sessions = occupancyLogRepository.summarizeSessions(space.getId(), start, end, end);
+
+        // Agregado 1200 + 600 + 3600 e bruto 1200 + 2400; a sessão que atravessa o horizonte conta uma vez e
+        // a aberta no início do período também conta
+        assertEquals(9000, sessions.occupiedSeconds());
+        assertEquals(3, sessions.sessions());
+        // No trecho agregado a maior sessão vem da hora em que terminou, mesmo tendo começado antes do período
+        assertEquals(3000, sessions.longestSessionSeconds());
+        assertEquals(horizon, partitionRepository.findRawHorizon());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void insertEvent(LocalDateTime timestamp, boolean occupied) {
+        jdbcTemplate.update("INSERT INTO occupancy_logs (space_id, timestamp, occupied) VALUES (?, ?, ?)",
+                space.getId(), timestamp, occupied);
+    }
+
+    private void insertHourly(LocalDateTime hour, int occupiedSeconds, int sessionsStarted,
+                              int longestSessionSeconds, boolean occupiedAtEnd) {
+        jdbcTemplate.update("INSERT INTO occupancy_hourly (space_id, hour, occupied_seconds, events, occupied_events, " +
+                "sessions_started, longest_session_seconds, occupied_at_end) VALUES (?, ?, ?, 0, 0, ?, ?, ?)",
+                space.getId(), hour, occupiedSeconds, sessionsStarted, longestSessionSeconds, occupiedAtEnd);
+    }
+}
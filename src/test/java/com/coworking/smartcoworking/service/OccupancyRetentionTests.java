@@ -0,0 +1,187 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.dto.occupancy.OccupancyRetentionResultDTO;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.repository.OccupancyPartitionRepository;
+import com.coworking.smartcoworking.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class OccupancyRetentionTests {
+
+    // Meses sem partição própria: os eventos caem na partição padrão, fora de qualquer dado real
+    private static final YearMonth MARCH = YearMonth.of(2001, 3);
+    private static final YearMonth APRIL = YearMonth.of(2001, 4);
+
+    // Agregado esperado de insertMarchAndAprilEvents: hora|segundos ocupados|eventos|eventos ocupados|
+    // sessões iniciadas|maior sessão encerrada na hora|ocupado no fim da hora
+    private static final List<String> MARCH_AND_APRIL_HOURS = List.of(
+            "2001-02-28T23:00|0|0|0|0|0|true",
+            "2001-03-01T00:00|1800|1|0|0|1800|false",
+            "2001-03-01T10:00|2400|2|2|1|0|true",
+            "2001-03-01T11:00|600|1|0|0|3000|false",
+            "2001-03-31T23:00|1800|1|1|1|1800|true",
+            "2001-04-01T00:00|900|1|0|0|900|false"
+    );
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OccupancyRetentionService retentionService;
+
+    @Autowired
+    private OccupancyPartitionRepository partitionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${coworking.occupancy.retention-months}")
+    private int retentionMonths;
+
+    @Value("${coworking.occupancy.partitions-ahead}")
+    private int partitionsAhead;
+
+    private Space space;
+
+    @BeforeEach
+    void setUp() {
+        space = fixtures.createSpace("Sala Retenção", SpaceType.SALA_REUNIAO, 4, "10.00", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteSpaces(space);
+    }
+
+    @Test
+    void concurrentInstancesRetireEachMonthOnce() throws Exception {
+        insertMarchAndAprilEvents();
+
+        // Segunda instância do job, como em outro nó: não compartilha o synchronized da primeira
+        OccupancyRetentionService otherNode = new OccupancyRetentionService(
+                partitionRepository, transactionManager, retentionMonths, partitionsAhead);
+        List<OccupancyRetentionResultDTO> results = runConcurrently(retentionService, otherNode);
+
+        List<YearMonth> dropped = new ArrayList<>();
+        results.forEach(result -> dropped.addAll(result.getDroppedPartitions()));
+        assertEquals(1, dropped.stream().filter(MARCH::equals).count());
+        assertEquals(1, dropped.stream().filter(APRIL::equals).count());
+
+        // O agregado de março não foi sobrescrito por uma agregação da partição já vazia
+        assertEquals(MARCH_AND_APRIL_HOURS, hourlyRows());
+        assertEquals(0, rawEventCount());
+    }
+
+    @Test
+    void rollupCarriesStateAcrossHoursAndMonths() {
+        insertMarchAndAprilEvents();
+
+        // Março parte do estado final de fevereiro; abril, do de março
+        assertEquals(4, partitionRepository.rollupMonth(MARCH));
+        assertEquals(1, partitionRepository.rollupMonth(APRIL));
+        assertEquals(MARCH_AND_APRIL_HOURS, hourlyRows());
+
+        // Refazer a agregação com os eventos ainda presentes não muda nada
+        assertEquals(4, partitionRepository.rollupMonth(MARCH));
+        assertEquals(MARCH_AND_APRIL_HOURS, hourlyRows());
+    }
+
+    @Test
+    void rollupWithoutPreviousStateStartsFree() {
+        insertEvent(LocalDateTime.of(2001, 3, 5, 8, 45), false);
+        insertEvent(LocalDateTime.of(2001, 3, 5, 9, 15), true);
+        insertEvent(LocalDateTime.of(2001, 3, 5, 9, 15), true);
+        insertEvent(LocalDateTime.of(2001, 3, 5, 9, 50), false);
+
+        assertEquals(2, partitionRepository.rollupMonth(MARCH));
+        assertEquals(List.of(
+                "2001-03-05T08:00|0|1|0|0|0|false",
+                "2001-03-05T09:00|2100|3|2|1|2100|false"
+        ), hourlyRows());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    // Ocupado desde fevereiro (estado final agregado), uma sessão entre 10h e 11h com leitura repetida
+    // e uma sessão que começa no fim de março e termina em abril
+    private void insertMarchAndAprilEvents() {
+        insertHourly(LocalDateTime.of(2001, 2, 28, 23, 0), true);
+        insertEvent(LocalDateTime.of(2001, 3, 1, 0, 30), false);
+        insertEvent(LocalDateTime.of(2001, 3, 1, 10, 20), true);
+        insertEvent(LocalDateTime.of(2001, 3, 1, 10, 40), true);
+        insertEvent(LocalDateTime.of(2001, 3, 1, 11, 10), false);
+        insertEvent(LocalDateTime.of(2001, 3, 31, 23, 30), true);
+        insertEvent(LocalDateTime.of(2001, 4, 1, 0, 15), false);
+    }
+
+    private void insertEvent(LocalDateTime timestamp, boolean occupied) {
+        jdbcTemplate.update("INSERT INTO occupancy_logs (space_id, timestamp, occupied) VALUES (?, ?, ?)",
+                space.getId(), timestamp, occupied);
+    }
+
+    private void insertHourly(LocalDateTime hour, boolean occupiedAtEnd) {
+        jdbcTemplate.update("INSERT INTO occupancy_hourly (space_id, hour, occupied_seconds, events, occupied_events, " +
+                "sessions_started, longest_session_seconds, occupied_at_end) VALUES (?, ?, 0, 0, 0, 0, 0, ?)",
+                space.getId(), hour, occupiedAtEnd);
+    }
+
+    private List<String> hourlyRows() {
+        return jdbcTemplate.query("SELECT * FROM occupancy_hourly WHERE space_id = ? ORDER BY hour",
+                (rs, rowNum) -> rs.getTimestamp("hour").toLocalDateTime() + "|" + rs.getInt("occupied_seconds")
+                        + "|" + rs.getInt("events") + "|" + rs.getInt("occupied_events")
+                        + "|" + rs.getInt("sessions_started") + "|" + rs.getInt("longest_session_seconds")
+                        + "|" + rs.getBoolean("occupied_at_end"),
+                space.getId());
+    }
+
+    private int rawEventCount() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM occupancy_logs WHERE space_id = ?", Integer.class, space.getId());
+        return count != null ? count : 0;
+    }
+
+    private List<OccupancyRetentionResultDTO> runConcurrently(OccupancyRetentionService... instances)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(instances.length);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<OccupancyRetentionResultDTO>> futures = new ArrayList<>();
+        for (OccupancyRetentionService instance : instances) {
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                return instance.process();
+            }));
+        }
+
+        startGate.countDown();
+        List<OccupancyRetentionResultDTO> results = new ArrayList<>();
+        for (Future<OccupancyRetentionResultDTO> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return results;
+    }
+}
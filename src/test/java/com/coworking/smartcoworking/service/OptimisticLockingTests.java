@@ -0,0 +1,148 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.controller.BillingController;
+import com.coworking.smartcoworking.dto.contention.ContentionStatsDTO;
+import com.coworking.smartcoworking.dto.reservation.CreateReservationDTO;
+import com.coworking.smartcoworking.entity.Billing;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.entity.User;
+import com.coworking.smartcoworking.enums.BillingStatus;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.exception.BusinessException;
+import com.coworking.smartcoworking.repository.BillingRepository;
+import com.coworking.smartcoworking.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class OptimisticLockingTests {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private BillingController billingController;
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
+    @Autowired
+    private BillingOutboxRelay billingOutboxRelay;
+
+    @Autowired
+    private BillingRepository billingRepository;
+
+    private User user;
+    private Space space;
+    private Long billingId;
+
+    @BeforeEach
+    void setUp() {
+        user = fixtures.createMember("Locking");
+
+        space = fixtures.createSpace("Sala Locking", SpaceType.SALA_REUNIAO, 4, "10.00", 1);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(70).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        Long reservationId = reservationService.create(
+                new CreateReservationDTO(user.getId(), space.getId(), start, start.plusHours(1), null, null)).getId();
+        billingOutboxRelay.relayPending();
+        billingId = billingRepository.findByReservationIdIn(List.of(reservationId)).get(0).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteSpaces(space);
+        fixtures.deleteUsers(user);
+    }
+
+    @Test
+    void staleWriteIsRejectedInsteadOfOverwriting() {
+        Billing stale = billingRepository.findById(billingId).orElseThrow();
+        billingService.markAsPaid(billingId, "PIX");
+
+        // Cópia lida antes do pagamento: gravar por cima desfaria o pagamento
+        stale.setStatus(BillingStatus.CANCELADA);
+        assertThrows(OptimisticLockingFailureException.class, () -> billingRepository.save(stale));
+        assertEquals(BillingStatus.PAGA, billingRepository.findById(billingId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void retryRereadsAndRevalidatesAfterConflict() {
+        ContentionStatsDTO before = optimisticRetryService.getStats();
+        Billing stale = billingRepository.findById(billingId).orElseThrow();
+        billingService.markAsPaid(billingId, "PIX");
+        stale.setPaymentMethod("CARTAO");
+
+        // Primeira tentativa perde a corrida; a segunda relê a cobrança já paga e aplica a regra de negócio
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(BusinessException.class, () -> optimisticRetryService.execute("teste", () -> {
+            if (attempts.getAndIncrement() == 0) {
+                return billingRepository.save(stale);
+            }
+            return billingService.cancel(billingId);
+        }));
+
+        ContentionStatsDTO after = optimisticRetryService.getStats();
+        assertEquals(2, attempts.get());
+        assertEquals(before.getConflicts() + 1, after.getConflicts());
+        assertEquals(before.getRetries() + 1, after.getRetries());
+        assertTrue(after.getConflictsByEntity().getOrDefault("Billing", 0L) >= 1);
+    }
+
+    @Test
+    void concurrentPaymentsHaveExactlyOneWinner() throws Exception {
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return billingController.markAsPaid(billingId, "PIX", null);
+                }));
+            }
+
+            int succeeded = 0;
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                    succeeded++;
+                } catch (ExecutionException ex) {
+                    // Os perdedores releem a cobrança e recebem "já está paga", nunca um 409/500
+                    assertInstanceOf(BusinessException.class, ex.getCause());
+                }
+            }
+            assertEquals(1, succeeded);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
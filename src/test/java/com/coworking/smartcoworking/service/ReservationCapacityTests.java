@@ -0,0 +1,265 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.cache.SeatCapacityIndex;
+import com.coworking.smartcoworking.cache.SlotAvailabilityCache;
+import com.coworking.smartcoworking.cache.SpaceCatalogCache;
+import com.coworking.smartcoworking.dto.reservation.CreateReservationDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationResponseDTO;
+import com.coworking.smartcoworking.dto.reservation.UpdateReservationDTO;
+import com.coworking.smartcoworking.dto.space.SpaceDayGridDTO;
+import com.coworking.smartcoworking.entity.Reservation;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.entity.User;
+import com.coworking.smartcoworking.enums.ReservationStatus;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.exception.ConflictException;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import com.coworking.smartcoworking.repository.SpaceRepository;
+import com.coworking.smartcoworking.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ReservationCapacityTests {
+
+    private static final int THREADS = 32;
+    private static final int REQUESTS = 600;
+    private static final int CAPACITY = 6;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private SeatCapacityIndex seatCapacityIndex;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private SpaceCatalogCache spaceCatalogCache;
+
+    @Autowired
+    private SpaceService spaceService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SpaceRepository spaceRepository;
+
+    private User user;
+    private Space space;
+
+    @BeforeEach
+    void setUp() {
+        user = fixtures.createMember("Capacidade");
+
+        space = fixtures.createSpace("Hot Desk Capacidade", SpaceType.HOT_DESK, CAPACITY, "10.00", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteSpaces(space);
+        fixtures.deleteUsers(user);
+    }
+
+    @Test
+    void overlappingBookingsFillCapacityExactly() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(40).withNano(0);
+
+        List<Throwable> failures = runConcurrently(THREADS, i -> dto(start.plusMinutes(i), start.plusHours(2), 1));
+
+        failures.stream().filter(f -> f != null).forEach(f -> assertInstanceOf(ConflictException.class, f));
+        assertEquals(CAPACITY, failures.stream().filter(f -> f == null).count());
+        assertEquals(0, seatCapacityIndex.availableSeats(space, start.plusHours(1), start.plusHours(2)));
+
+        // Cancelar libera os lugares para novas reservas
+        Reservation first = reservationRepository.findBySpace(space).get(0);
+        reservationService.cancel(first.getId());
+        ReservationResponseDTO replacement = reservationService.create(dto(start.plusHours(1), start.plusHours(2), 1));
+        assertEquals(1, replacement.getSeats());
+    }
+
+    @Test
+    void concurrentRandomBookingsNeverExceedCapacity() throws Exception {
+        LocalDateTime day = LocalDateTime.now().plusDays(45).withHour(0).withMinute(0).withSecond(0).withNano(0);
+        Random random = new Random(7);
+        List<CreateReservationDTO> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            LocalDateTime start = day.plusMinutes(15L * random.nextInt(64));
+            LocalDateTime end = start.plusMinutes(60 + 15L * random.nextInt(9));
+            requests.add(dto(start, end, 1 + random.nextInt(3)));
+        }
+
+        List<Throwable> failures = runConcurrently(REQUESTS, requests::get);
+
+        failures.stream().filter(f -> f != null).forEach(f -> assertInstanceOf(ConflictException.class, f));
+        long admitted = failures.stream().filter(f -> f == null).count();
+        assertTrue(admitted > 0 && admitted < REQUESTS, "Admitidas: " + admitted);
+
+        // Pico de lugares recalculado do banco, sem passar pelo índice
+        TreeMap<LocalDateTime, Integer> deltas = new TreeMap<>();
+        List<Reservation> reservations = reservationRepository.findBySpace(space);
+        for (Reservation reservation : reservations) {
+            deltas.merge(reservation.getStartDateTime(), reservation.getSeats(), Integer::sum);
+            deltas.merge(reservation.getEndDateTime(), -reservation.getSeats(), Integer::sum);
+        }
+        int seats = 0;
+        int peak = 0;
+        for (int delta : deltas.values()) {
+            seats += delta;
+            peak = Math.max(peak, seats);
+        }
+
+        assertEquals(admitted, reservations.size());
+        assertTrue(peak <= CAPACITY, "Capacidade excedida: " + peak + " lugares");
+        assertEquals(CAPACITY - peak, seatCapacityIndex.availableSeats(space, day, day.plusDays(1)));
+    }
+
+    @Test
+    void sharedSpaceStaysAvailableUntilFull() {
+        LocalDateTime start = LocalDateTime.now().plusDays(60).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        LocalDateTime end = start.plusHours(1);
+        int slot = start.getHour() * 60 / SlotAvailabilityCache.SLOT_MINUTES;
+
+        reservationService.create(dto(start, end, 1));
+        assertTrue(isListedAsAvailable(start, end));
+        assertEquals('0', gridFor(start).getBusySlots().charAt(slot));
+
+        reservationService.create(dto(start, end, CAPACITY - 1));
+        assertFalse(isListedAsAvailable(start, end));
+        assertEquals('1', gridFor(start).getBusySlots().charAt(slot));
+        assertEquals('0', gridFor(start).getBusySlots().charAt(slot + 4));
+    }
+
+    @Test
+    void reactivatingAnExpiredReservationNeedsFreeSeats() {
+        LocalDateTime start = LocalDateTime.now().plusDays(55).withNano(0);
+        ReservationResponseDTO expired = reservationService.create(dto(start, start.plusHours(2), 2));
+        reservationService.update(expired.getId(), new UpdateReservationDTO(null, null, ReservationStatus.EXPIRADA, null));
+
+        // Os lugares liberados pela expiração foram ocupados por outra reserva
+        Long filler = reservationService.create(dto(start, start.plusHours(2), CAPACITY - 1)).getId();
+        assertThrows(ConflictException.class, () -> reservationService.update(expired.getId(),
+                new UpdateReservationDTO(null, null, ReservationStatus.CONFIRMADA, null)));
+        assertEquals(ReservationStatus.EXPIRADA,
+                reservationRepository.findById(expired.getId()).orElseThrow().getStatus());
+        assertEquals(1, seatCapacityIndex.availableSeats(space, start, start.plusHours(2)));
+
+        // Com os lugares de volta, a reserva volta a valer e os ocupa
+        reservationService.cancel(filler);
+        reservationService.update(expired.getId(), new UpdateReservationDTO(null, null, ReservationStatus.CONFIRMADA, null));
+        assertEquals(CAPACITY - 2, seatCapacityIndex.availableSeats(space, start, start.plusHours(2)));
+    }
+
+    @Test
+    void twoNodesSharingTheDatabaseNeverExceedCapacity() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(50).withNano(0);
+
+        // Segundo nó: índice próprio, que não recebe os eventos das reservas do primeiro
+        SeatCapacityIndex otherNode = new SeatCapacityIndex(reservationRepository, spaceRepository, spaceCatalogCache);
+        otherNode.warmUp();
+
+        List<Throwable> failures = runConcurrently(THREADS, i -> dto(start, start.plusHours(2), 1),
+                i -> i % 2 == 0 ? dto -> reservationService.create(dto) : dto -> createOn(otherNode, dto));
+
+        failures.stream().filter(f -> f != null).forEach(f -> assertInstanceOf(ConflictException.class, f));
+        assertEquals(CAPACITY, failures.stream().filter(f -> f == null).count());
+        assertEquals(CAPACITY, reservationRepository.findBySpace(space).stream().mapToInt(Reservation::getSeats).sum());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private CreateReservationDTO dto(LocalDateTime start, LocalDateTime end, int seats) {
+        return new CreateReservationDTO(user.getId(), space.getId(), start, end, null, seats);
+    }
+
+    private boolean isListedAsAvailable(LocalDateTime start, LocalDateTime end) {
+        return spaceService.findAvailable(start, end, SpaceType.HOT_DESK, null, Set.of()).stream()
+                .anyMatch(available -> available.getId().equals(space.getId()));
+    }
+
+    private SpaceDayGridDTO gridFor(LocalDateTime start) {
+        return spaceService.findDayGrid(List.of(space.getId()), start.toLocalDate(), 1).get(0);
+    }
+
+    // Caminho de criação de outro nó: grava a reserva e admite os lugares pelo índice desse nó
+    private void createOn(SeatCapacityIndex node, CreateReservationDTO dto) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Reservation reservation = new Reservation();
+            reservation.setUser(user);
+            reservation.setSpace(space);
+            reservation.setStartDateTime(dto.getStartDateTime());
+            reservation.setEndDateTime(dto.getEndDateTime());
+            reservation.setSeats(dto.getSeats());
+            reservation.setSharedSpace(true);
+            reservation.setTotalPrice(new BigDecimal("20.00"));
+            reservation.setStatus(ReservationStatus.PENDENTE);
+            Reservation saved = reservationRepository.saveAndFlush(reservation);
+            if (!node.tryReserve(space, saved.getId(), dto.getStartDateTime(), dto.getEndDateTime(), dto.getSeats())) {
+                throw new ConflictException("Não há lugares suficientes neste horário");
+            }
+        });
+    }
+
+    private List<Throwable> runConcurrently(int count, IntFunction<CreateReservationDTO> request) throws Exception {
+        return runConcurrently(count, request, i -> dto -> reservationService.create(dto));
+    }
+
+    private List<Throwable> runConcurrently(int count, IntFunction<CreateReservationDTO> request,
+                                            IntFunction<Consumer<CreateReservationDTO>> node) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Throwable>> results = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            CreateReservationDTO dto = request.apply(i);
+            Consumer<CreateReservationDTO> create = node.apply(i);
+            results.add(executor.submit(() -> {
+                startGate.await();
+                try {
+                    create.accept(dto);
+                    return null;
+                } catch (RuntimeException ex) {
+                    return ex;
+                }
+            }));
+        }
+
+        startGate.countDown();
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<Throwable> result : results) {
+            failures.add(result.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return failures;
+    }
+}
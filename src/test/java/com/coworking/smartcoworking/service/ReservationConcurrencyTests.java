@@ -0,0 +1,119 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.dto.reservation.CreateReservationDTO;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.entity.User;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.exception.ConflictException;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import com.coworking.smartcoworking.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class ReservationConcurrencyTests {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private User user;
+    private final List<Space> spaces = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = fixtures.createMember("Concorrência");
+
+        for (int i = 0; i < THREADS; i++) {
+            spaces.add(fixtures.createSpace("Sala Concorrência " + i, SpaceType.SALA_REUNIAO, 4, "10.00", 1));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteSpaces(spaces);
+        fixtures.deleteUsers(user);
+    }
+
+    @Test
+    void concurrentBookingsForSameSlotAdmitExactlyOne() throws Exception {
+        Space space = spaces.get(0);
+        LocalDateTime start = LocalDateTime.now().plusDays(30).withNano(0);
+
+        List<Throwable> failures = runConcurrently(i -> dto(space, start.plusMinutes(i), start.plusHours(2)));
+
+        long conflicts = failures.stream().filter(f -> f != null).count();
+        failures.stream().filter(f -> f != null).forEach(f -> assertInstanceOf(ConflictException.class, f));
+        assertEquals(THREADS - 1, conflicts);
+        assertEquals(1, reservationRepository.findConflictingReservations(space, start, start.plusHours(2)).size());
+    }
+
+    @Test
+    void concurrentBookingsOnDifferentSpacesAllSucceed() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(30).withNano(0);
+
+        List<Throwable> failures = runConcurrently(i -> dto(spaces.get(i), start, start.plusHours(2)));
+
+        failures.forEach(f -> assertNull(f));
+        for (Space space : spaces) {
+            assertEquals(1, reservationRepository.findBySpace(space).size());
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private CreateReservationDTO dto(Space space, LocalDateTime start, LocalDateTime end) {
+        return new CreateReservationDTO(user.getId(), space.getId(), start, end, null, null);
+    }
+
+    private List<Throwable> runConcurrently(IntFunction<CreateReservationDTO> request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Throwable>> results = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            CreateReservationDTO dto = request.apply(i);
+            results.add(executor.submit(() -> {
+                startGate.await();
+                try {
+                    reservationService.create(dto);
+                    return null;
+                } catch (RuntimeException ex) {
+                    return ex;
+                }
+            }));
+        }
+
+        startGate.countDown();
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<Throwable> result : results) {
+            failures.add(result.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return failures;
+    }
+}
@@ -0,0 +1,158 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.cache.ReservationHoldRegistry;
+import com.coworking.smartcoworking.cache.ReservationHoldRegistry.Hold;
+import com.coworking.smartcoworking.dto.reservation.CreateReservationDTO;
+import com.coworking.smartcoworking.dto.reservation.CreateReservationHoldDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationHoldResponseDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationHoldStatsDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationResponseDTO;
+import com.coworking.smartcoworking.entity.Billing;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.entity.User;
+import com.coworking.smartcoworking.enums.BillingStatus;
+import com.coworking.smartcoworking.enums.ReservationStatus;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.exception.ConflictException;
+import com.coworking.smartcoworking.exception.ResourceNotFoundException;
+import com.coworking.smartcoworking.repository.BillingRepository;
+import com.coworking.smartcoworking.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ReservationHoldTests {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationHoldRegistry holdRegistry;
+
+    @Autowired
+    private BillingOutboxRelay billingOutboxRelay;
+
+    @Autowired
+    private BillingRepository billingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Space space;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        user = fixtures.createMember("Pré-reserva");
+
+        space = fixtures.createSpace("Sala Pré-reserva", SpaceType.SALA_REUNIAO, 6, "30.00", 2);
+
+        start = LocalDateTime.now().plusDays(80).withHour(9).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteSpaces(space);
+        fixtures.deleteUsers(user);
+    }
+
+    @Test
+    void holdBlocksTheSlotUntilConfirmedAsReservationWithBilling() {
+        ReservationHoldStatsDTO before = holdRegistry.getStats();
+        ReservationHoldResponseDTO hold = reservationService.createHold(holdDto(start, start.plusHours(2)));
+
+        // Nem reserva nem outra pré-reserva entram no horário bloqueado
+        assertThrows(ConflictException.class, () -> reservationService.create(
+                new CreateReservationDTO(user.getId(), space.getId(), start.plusHours(1), start.plusHours(3), null, null)));
+        assertThrows(ConflictException.class,
+                () -> reservationService.createHold(holdDto(start.plusHours(1), start.plusHours(2))));
+        assertEquals(0, writesForSpace());
+
+        ReservationResponseDTO confirmed = reservationService.confirmHold(hold.getId());
+        assertEquals(ReservationStatus.PENDENTE, confirmed.getStatus());
+        assertEquals(0, new BigDecimal("60.00").compareTo(confirmed.getTotalPrice()));
+        assertEquals("Checkout", confirmed.getNotes());
+        assertThrows(ResourceNotFoundException.class, () -> reservationService.findHold(hold.getId()));
+
+        billingOutboxRelay.relayPending();
+        Billing billing = billingRepository.findByReservationIdIn(List.of(confirmed.getId())).get(0);
+        assertEquals(BillingStatus.PENDENTE, billing.getStatus());
+        assertEquals(0, new BigDecimal("60.00").compareTo(billing.getAmount()));
+
+        ReservationHoldStatsDTO after = holdRegistry.getStats();
+        assertTrue(after.getCreated() >= before.getCreated() + 1);
+        assertTrue(after.getConfirmed() >= before.getConfirmed() + 1);
+    }
+
+    @Test
+    void abandonedHoldExpiresWithoutDatabaseWrites() throws InterruptedException {
+        ReservationHoldStatsDTO before = holdRegistry.getStats();
+        Hold hold = holdRegistry.tryHold(user.getId(), space.getId(), start, start.plusHours(1),
+                new BigDecimal("30.00"), null, Duration.ofMillis(200));
+
+        // Vencida: some da consulta na hora e a roda a recolhe no tick seguinte
+        Thread.sleep(1500);
+        assertThrows(ResourceNotFoundException.class, () -> reservationService.confirmHold(hold.id()));
+        holdRegistry.reclaimExpired();
+
+        assertTrue(holdRegistry.getStats().getExpired() >= before.getExpired() + 1);
+        assertEquals(0, writesForSpace());
+
+        // O horário volta a ficar livre
+        reservationService.create(
+                new CreateReservationDTO(user.getId(), space.getId(), start, start.plusHours(1), null, null));
+    }
+
+    @Test
+    void rolledBackConfirmationKeepsTheHold() {
+        ReservationHoldResponseDTO hold = reservationService.createHold(holdDto(start, start.plusHours(1)));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            reservationService.confirmHold(hold.getId());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(hold.getId(), reservationService.findHold(hold.getId()).getId());
+        assertEquals(0, writesForSpace());
+
+        reservationService.releaseHold(hold.getId());
+        assertThrows(ResourceNotFoundException.class, () -> reservationService.findHold(hold.getId()));
+        reservationService.createHold(holdDto(start, start.plusHours(1)));
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private CreateReservationHoldDTO holdDto(LocalDateTime from, LocalDateTime to) {
+        return new CreateReservationHoldDTO(user.getId(), space.getId(), from, to, "Checkout", null);
+    }
+
+    // Reservas e eventos de cobrança gravados para o espaço de teste
+    private int writesForSpace() {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM reservations WHERE space_id = ?) " +
+                "+ (SELECT COUNT(*) FROM billing_outbox o JOIN reservations r ON r.id = o.reservation_id " +
+                "WHERE r.space_id = ?)", Integer.class, space.getId(), space.getId());
+        return rows != null ? rows : 0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.dto.reservation.ReservationResponseDTO;
+import com.coworking.smartcoworking.entity.Reservation;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.entity.User;
+import com.coworking.smartcoworking.enums.ReservationStatus;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import com.coworking.smartcoworking.support.TestFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ReservationQueryCountTests {
+
+    private static final int RESERVATIONS = 10;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Space> spaces = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime start = LocalDateTime.now().plusDays(60).withNano(0);
+
+        // Um espaço distinto por reserva: sem o fetch join seria um SELECT extra por linha
+        for (int i = 0; i < RESERVATIONS; i++) {
+            users.add(fixtures.createMember("Contagem " + i));
+
+            Space space = fixtures.createSpace("Sala Contagem " + i, SpaceType.SALA_REUNIAO, 4, "10.00", 1);
+            spaces.add(space);
+
+            Reservation reservation = new Reservation();
+            reservation.setUser(users.get(0));
+            reservation.setSpace(space);
+            reservation.setStartDateTime(start.plusHours(i));
+            reservation.setEndDateTime(start.plusHours(i + 1));
+            reservation.setTotalPrice(new BigDecimal("10.00"));
+            reservation.setStatus(ReservationStatus.CONFIRMADA);
+            reservationRepository.save(reservation);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteSpaces(spaces);
+        fixtures.deleteUsers(users);
+    }
+
+    @Test
+    void findAllUsesSingleStatement() {
+        assertStatements(1, () -> reservationService.findAll());
+    }
+
+    @Test
+    void findByUserIdUsesConstantStatements() {
+        List<ReservationResponseDTO> result =
+                assertStatements(2, () -> reservationService.findByUserId(users.get(0).getId()));
+        assertEquals(RESERVATIONS, result.size());
+    }
+
+    @Test
+    void findUpcomingByUserIdUsesConstantStatements() {
+        List<ReservationResponseDTO> result =
+                assertStatements(2, () -> reservationService.findUpcomingByUserId(users.get(0).getId()));
+        assertEquals(RESERVATIONS, result.size());
+    }
+
+    @Test
+    void findBySpaceIdUsesConstantStatements() {
+        assertStatements(2, () -> reservationService.findBySpaceId(spaces.get(0).getId()));
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private <T> T assertStatements(long expected, Supplier<T> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        T result = call.get();
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= expected,
+                "Esperado no máximo " + expected + " statements, executados: " + statements);
+        return result;
+    }
+}
@@ -0,0 +1,235 @@
+package com.coworking.smartcoworking.service;
+
+import com.coworking.smartcoworking.dto.billing.BillingSummaryDTO;
+import com.coworking.smartcoworking.dto.reservation.CreateReservationDTO;
+import com.coworking.smartcoworking.dto.reservation.CreateReservationSeriesDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationOccurrenceDTO;
+import com.coworking.smartcoworking.dto.reservation.ReservationSeriesResponseDTO;
+import com.coworking.smartcoworking.entity.Reservation;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.entity.User;
+import com.coworking.smartcoworking.enums.RecurrenceFrequency;
+import com.coworking.smartcoworking.enums.ReservationStatus;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.exception.ConflictException;
+import com.coworking.smartcoworking.repository.BillingRepository;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import com.coworking.smartcoworking.support.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ReservationSeriesTests {
+
+    private static final int WEEKS = 52;
+    // Usuário, blocos de IDs das sequências e lotes de insert (série, reservas, eventos do outbox de
+    // cobranças): cresce a cada 50 ocorrências, não a cada uma
+    private static final long MAX_STATEMENTS = 12;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BillingLedgerService billingLedgerService;
+
+    @Autowired
+    private BillingOutboxRelay billingOutboxRelay;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private BillingRepository billingRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private User user;
+    private Space space;
+    private LocalDateTime firstStart;
+
+    @BeforeEach
+    void setUp() {
+        user = fixtures.createMember("Recorrência");
+
+        space = fixtures.createSpace("Sala Recorrência", SpaceType.SALA_REUNIAO, 8, "25.00", 2);
+
+        // Toda terça às 10h, começando daqui a algumas semanas
+        firstStart = LocalDateTime.now().plusWeeks(3)
+                .with(TemporalAdjusters.next(DayOfWeek.TUESDAY))
+                .withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteSpaces(space);
+        fixtures.deleteUsers(user);
+    }
+
+    @Test
+    void createsYearLongWeeklySeriesInAHandfulOfStatements() {
+        long statements = statementCounter.count(() -> reservationService.createSeries(weekly(WEEKS)));
+
+        assertTrue(statements > 0 && statements <= MAX_STATEMENTS,
+                "Esperado no máximo " + MAX_STATEMENTS + " statements, executados: " + statements);
+
+        // Cobranças e resumo financeiro chegam pelo relay do outbox
+        billingOutboxRelay.relayPending();
+        List<Reservation> reservations = reservationRepository.findBySpace(space);
+        assertEquals(WEEKS, reservations.size());
+        reservations.forEach(r -> assertTrue(billingRepository.findByReservation(r).isPresent()));
+
+        BillingSummaryDTO summary = billingLedgerService.getSummary(user.getId());
+        assertEquals(WEEKS, summary.getPendingCount());
+        assertEquals(0, new BigDecimal("50.00").multiply(BigDecimal.valueOf(WEEKS)).compareTo(summary.getTotalDebt()));
+    }
+
+    @Test
+    void expandsOccurrencesLazilyWithPersistedState() {
+        ReservationSeriesResponseDTO series = reservationService.createSeries(weekly(WEEKS));
+        assertEquals(firstStart.plusWeeks(WEEKS - 1).plusHours(2), series.getLastEndDateTime());
+
+        // Quatro semanas a partir da décima ocorrência, com uma delas cancelada
+        LocalDateTime from = firstStart.plusWeeks(10);
+        List<ReservationOccurrenceDTO> window =
+                reservationService.findSeriesOccurrences(series.getId(), from, from.plusWeeks(4));
+        assertEquals(List.of(10, 11, 12, 13), window.stream().map(ReservationOccurrenceDTO::getOccurrenceIndex).toList());
+        reservationService.cancel(window.get(1).getReservationId());
+
+        window = reservationService.findSeriesOccurrences(series.getId(), from, from.plusWeeks(4));
+        assertEquals(from, window.get(0).getStartDateTime());
+        assertEquals(ReservationStatus.PENDENTE, window.get(0).getStatus());
+        assertEquals(ReservationStatus.CANCELADA, window.get(1).getStatus());
+    }
+
+    @Test
+    void rejectsWholeSeriesWhenAnyOccurrenceConflicts() {
+        LocalDateTime taken = firstStart.plusWeeks(30).plusHours(1);
+        reservationService.create(new CreateReservationDTO(
+                user.getId(), space.getId(), taken, taken.plusHours(1), null, null));
+
+        assertThrows(ConflictException.class, () -> reservationService.createSeries(weekly(WEEKS)));
+        assertEquals(1, reservationRepository.findBySpace(space).size());
+        billingOutboxRelay.relayPending();
+        assertEquals(1, billingLedgerService.getSummary(user.getId()).getPendingCount());
+
+        // A consulta em conjunto usada antes da carga do índice aponta a mesma ocorrência
+        List<LocalDateTime> starts = List.of(firstStart.plusWeeks(29), firstStart.plusWeeks(30), firstStart.plusWeeks(31));
+        List<LocalDateTime> ends = starts.stream().map(start -> start.plusHours(2)).toList();
+        assertEquals(List.of(1), reservationRepository.findConflictingPeriods(space.getId(), starts, ends));
+    }
+
+    @Test
+    void monthlySeriesKeepsDurationAcrossMonthEndClamping() {
+        // 30/01 23h até 31/01 1h: em fevereiro o início é ajustado para o último dia do mês
+        LocalDateTime start = LocalDateTime.of(LocalDateTime.now().getYear() + 1, 1, 30, 23, 0);
+        ReservationSeriesResponseDTO series = reservationService.createSeries(new CreateReservationSeriesDTO(
+                user.getId(), space.getId(), start, start.plusHours(2),
+                RecurrenceFrequency.MENSAL, 1, 3, null, "Fechamento mensal"));
+
+        List<ReservationOccurrenceDTO> occurrences =
+                reservationService.findSeriesOccurrences(series.getId(), null, null);
+        assertEquals(3, occurrences.size());
+        LocalDateTime february = start.withMonth(2).with(TemporalAdjusters.lastDayOfMonth());
+        assertEquals(february, occurrences.get(1).getStartDateTime());
+        for (ReservationOccurrenceDTO occurrence : occurrences) {
+            assertEquals(occurrence.getStartDateTime().plusHours(2), occurrence.getEndDateTime());
+        }
+        assertEquals(start.withMonth(3).plusHours(2), series.getLastEndDateTime());
+        assertEquals(3, reservationRepository.findBySpace(space).size());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private CreateReservationSeriesDTO weekly(int occurrences) {
+        return new CreateReservationSeriesDTO(user.getId(), space.getId(), firstStart, firstStart.plusHours(2),
+                RecurrenceFrequency.SEMANAL, 1, occurrences, null, "Reunião semanal");
+    }
+
+    // Conta os statements JDBC preparados pela thread do teste (JPA e JdbcTemplate)
+    static class StatementCounter {
+        private final AtomicLong statements = new AtomicLong();
+        private volatile Thread counting;
+
+        long count(Runnable call) {
+            statements.set(0);
+            counting = Thread.currentThread();
+            try {
+                call.run();
+            } finally {
+                counting = null;
+            }
+            return statements.get();
+        }
+
+        private Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+                            if (counting == Thread.currentThread()) {
+                                statements.incrementAndGet();
+                            }
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getTargetException();
+                        }
+                    });
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+
+        @Bean
+        static BeanPostProcessor countingDataSource(ObjectProvider<StatementCounter> counter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return counter.getObject().wrap(super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
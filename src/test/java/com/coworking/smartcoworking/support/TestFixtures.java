@@ -0,0 +1,80 @@
+package com.coworking.smartcoworking.support;
+
+import com.coworking.smartcoworking.entity.Reservation;
+import com.coworking.smartcoworking.entity.Space;
+import com.coworking.smartcoworking.entity.User;
+import com.coworking.smartcoworking.enums.SpaceType;
+import com.coworking.smartcoworking.enums.UserRole;
+import com.coworking.smartcoworking.repository.BillingRepository;
+import com.coworking.smartcoworking.repository.ReservationRepository;
+import com.coworking.smartcoworking.repository.SpaceRepository;
+import com.coworking.smartcoworking.repository.UserRepository;
+import com.coworking.smartcoworking.service.BillingOutboxRelay;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Cadastros dos testes de integração: membros, espaços e a limpeza de tudo o que fica no banco
+// para esses espaços (reservas, cobranças, séries e eventos de ocupação). Entra no contexto pelo
+// component scan, então não muda a chave do cache de contextos dos testes.
+@Component
+@RequiredArgsConstructor
+public class TestFixtures {
+
+    private final UserRepository userRepository;
+    private final SpaceRepository spaceRepository;
+    private final ReservationRepository reservationRepository;
+    private final BillingRepository billingRepository;
+    private final BillingOutboxRelay billingOutboxRelay;
+    private final JdbcTemplate jdbcTemplate;
+
+    public User createMember(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail("membro-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("senha123");
+        user.setRole(UserRole.MEMBER);
+        return userRepository.save(user);
+    }
+
+    public Space createSpace(String name, SpaceType type, int capacity, String pricePerHour, int floor) {
+        Space space = new Space();
+        space.setName(name);
+        space.setType(type);
+        space.setCapacity(capacity);
+        space.setPricePerHour(new BigDecimal(pricePerHour));
+        space.setFloor(floor);
+        return spaceRepository.save(space);
+    }
+
+    public void deleteSpaces(Space... spaces) {
+        deleteSpaces(List.of(spaces));
+    }
+
+    public void deleteSpaces(Collection<Space> spaces) {
+        // Eventos ainda no outbox criariam cobranças depois da limpeza
+        billingOutboxRelay.relayPending();
+        for (Space space : spaces) {
+            List<Reservation> reservations = reservationRepository.findBySpace(space);
+            reservations.forEach(r -> billingRepository.findByReservation(r).ifPresent(billingRepository::delete));
+            reservationRepository.deleteAll(reservations);
+            jdbcTemplate.update("DELETE FROM reservation_series WHERE space_id = ?", space.getId());
+            jdbcTemplate.update("DELETE FROM occupancy_logs WHERE space_id = ?", space.getId());
+            jdbcTemplate.update("DELETE FROM occupancy_hourly WHERE space_id = ?", space.getId());
+        }
+        spaceRepository.deleteAll(spaces);
+    }
+
+    public void deleteUsers(User... users) {
+        deleteUsers(List.of(users));
+    }
+
+    public void deleteUsers(Collection<User> users) {
+        userRepository.deleteAll(users);
+    }
+}